@@ -0,0 +1,120 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.jena.rdf.model.Model;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+import lombok.Getter;
+
+/**
+ * asynchronous access to the checks of {@link OntologyReasoner}
+ *
+ * steps using the reasoner run one after another in submission order, the
+ * annotation checks only read the ontology and run in parallel on the executor.
+ * {@link #checkNameSpaces()} registers prefixes and is the only step changing
+ * the prefix manager, it waits for the steps reading it.
+ *
+ */
+public class AsyncOntologyReasoner {
+
+	@Getter private final OWLReasoner reasoner;
+	@Getter private final OWLOntology ontology;
+	@Getter private final DefaultPrefixManager pm;
+	private final Executor executor;
+
+	private final ReadWriteLock prefixes = new ReentrantReadWriteLock();
+	private CompletableFuture<?> reasonerLane = CompletableFuture.completedFuture(null);
+
+	public AsyncOntologyReasoner(OWLReasoner reasoner, OWLOntology ontology, DefaultPrefixManager pm, Executor executor) {
+		this.reasoner = reasoner;
+		this.ontology = ontology;
+		this.pm = pm;
+		this.executor = executor;
+	}
+
+	public AsyncOntologyReasoner(OWLReasoner reasoner, OWLOntology ontology, DefaultPrefixManager pm) {
+		this(reasoner, ontology, pm, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * runs a step with the reasoner after all steps submitted before
+	 */
+	public synchronized <T> CompletableFuture<T> withReasoner(Function<OWLReasoner, T> step) {
+		CompletableFuture<T> result = reasonerLane
+				.handle((previous, e) -> null)
+				.thenApplyAsync(ignored -> step.apply(reasoner), executor);
+		reasonerLane = result;
+		return result;
+	}
+
+	public CompletableFuture<Boolean> checkConsistent() {
+		return withReasoner(OntologyReasoner::checkConsistent);
+	}
+
+	public CompletableFuture<Set<OWLClass>> checkUnsatisfiable() {
+		return withReasoner(OntologyReasoner::checkUnsatisfiable);
+	}
+
+	public CompletableFuture<Set<String>> checkLanguages(boolean details) {
+		return reading(() -> OntologyReasoner.checkLanguages(ontology, pm, details));
+	}
+
+	/**
+	 * checks the labels for the languages found by {@link #checkLanguages(boolean)}
+	 */
+	public CompletableFuture<List<OWLClass>> checkAnnotations(boolean details, String prefLanguage) {
+		return checkAnnotations(checkLanguages(details), details, prefLanguage);
+	}
+
+	public CompletableFuture<List<OWLClass>> checkAnnotations(CompletableFuture<Set<String>> languages, boolean details, String prefLanguage) {
+		return languages.thenComposeAsync(found -> reading(() ->
+			OntologyReasoner.checkAnnotations(ontology, pm, found.toArray(new String[0]), details, prefLanguage)), executor);
+	}
+
+	public CompletableFuture<Model> checkMappings(String ontologyIri, String name, String origsource, boolean details) {
+		return reading(() -> OntologyReasoner.checkMappings(ontology, pm, ontologyIri, name, origsource, details));
+	}
+
+	public CompletableFuture<Map<String, Integer>> checkNameSpaces() {
+		return CompletableFuture.supplyAsync(() -> locked(prefixes.writeLock(), () -> OntologyReasoner.checkNameSpaces(ontology, pm)), executor);
+	}
+
+	/**
+	 * @return completes when all checks are done, the first failure fails it
+	 */
+	public CompletableFuture<Void> checkAll(String ontologyIri, String name, String origsource, boolean details, String prefLanguage) {
+		return CompletableFuture.allOf(
+				checkConsistent(),
+				checkUnsatisfiable(),
+				checkAnnotations(details, prefLanguage),
+				checkMappings(ontologyIri, name, origsource, details),
+				checkNameSpaces());
+	}
+
+	private <T> CompletableFuture<T> reading(Supplier<T> step) {
+		return CompletableFuture.supplyAsync(() -> locked(prefixes.readLock(), step), executor);
+	}
+
+	private static <T> T locked(Lock lock, Supplier<T> step) {
+		lock.lock();
+		try {
+			return step.get();
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.List;
+
+import org.semanticweb.owlapi.model.ChangeDetails;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import lombok.Getter;
+
+/**
+ * outcome of a batch of axiom changes
+ *
+ */
+@Getter
+public class ChangeSummary {
+
+	private final long classes;
+	private final long added;
+	private final long removed;
+
+	public ChangeSummary(long classes, long added, long removed) {
+		this.classes = classes;
+		this.added = added;
+		this.removed = removed;
+	}
+
+	/**
+	 * applies all changes with a single change event
+	 *
+	 * @param classes number of classes touched by the changes
+	 * @return counts of the changes actually applied
+	 */
+	public static ChangeSummary apply(OWLOntologyManager manager, List<? extends OWLOntologyChange> changes, long classes) {
+		if(changes.isEmpty()) return new ChangeSummary(classes, 0, 0);
+
+		ChangeDetails details = manager.applyChangesAndGetDetails(changes);
+		long added = details.getEnactedChanges().stream().filter(OWLOntologyChange::isAddAxiom).count();
+		long removed = details.getEnactedChanges().stream().filter(OWLOntologyChange::isRemoveAxiom).count();
+		return new ChangeSummary(classes, added, removed);
+	}
+
+	@Override
+	public String toString() {
+		return classes + " classes, " + added + " axioms added, " + removed + " removed";
+	}
+}
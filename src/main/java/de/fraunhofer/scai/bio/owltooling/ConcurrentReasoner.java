@@ -0,0 +1,271 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.semanticweb.owlapi.model.AnnotationChange;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.NodeSet;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * thread-safe wrapper of a precomputed reasoner
+ *
+ * named class hierarchy queries are answered from an immutable {@link Taxonomy}
+ * without locking, sub- and superclass results are kept in a bounded cache.
+ * Every other query is passed to the wrapped reasoner one at a time. A change
+ * of the logical axioms or declarations of the root ontology (or its imports)
+ * drops the taxonomy and the cache, the next query classifies again. Cached
+ * node sets are shared between callers and returned as read-only views.
+ *
+ */
+@Slf4j
+public class ConcurrentReasoner extends ForwardingReasoner implements OWLOntologyChangeListener {
+
+	public final static long DEFAULT_CACHE_SIZE = 100_000;
+
+	private final OWLReasoner reasoner;
+	private final OWLReasoner synchronizedReasoner;
+	private final long cacheSize;
+	private final AtomicLong generation = new AtomicLong();
+	private volatile State state;
+
+	public ConcurrentReasoner(OWLReasoner reasoner) {
+		this(reasoner, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * @param reasoner wrapped reasoner, it must not be used directly afterwards
+	 * @param cacheSize maximum number of cached node sets
+	 */
+	public ConcurrentReasoner(OWLReasoner reasoner, long cacheSize) {
+		this.reasoner = reasoner;
+		this.cacheSize = cacheSize;
+		this.synchronizedReasoner = (OWLReasoner) Proxy.newProxyInstance(
+				OWLReasoner.class.getClassLoader(), new Class<?>[] { OWLReasoner.class },
+				(proxy, method, args) -> {
+					synchronized (reasoner) {
+						try {
+							return method.invoke(reasoner, args);
+						} catch (InvocationTargetException e) {
+							throw e.getCause();
+						}
+					}
+				});
+
+		reasoner.getRootOntology().getOWLOntologyManager().addOntologyChangeListener(this);
+	}
+
+	@Override
+	protected OWLReasoner delegate() {
+		return synchronizedReasoner;
+	}
+
+	@Override
+	public void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+		OWLOntology root = reasoner.getRootOntology();
+		for(OWLOntologyChange change : changes) {
+			// annotations do not change the hierarchy
+			if(change instanceof AnnotationChange) continue;
+			if(change.isAxiomChange() && !change.getAxiom().isLogicalAxiom()
+					&& !change.getAxiom().isOfType(AxiomType.DECLARATION)) continue;
+
+			if(root.importsClosure().anyMatch(change.getOntology()::equals)) {
+				generation.incrementAndGet();
+				state = null;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return the current snapshot, classified again after changes
+	 */
+	private State state() {
+		State current = state;
+		if(current != null) return current;
+
+		synchronized (reasoner) {
+			current = state;
+			if(current != null) return current;
+
+			long started = generation.get();
+			reasoner.flush();
+			reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+			current = new State(Taxonomy.of(reasoner), cacheSize);
+
+			// a change during classification leaves the snapshot unpublished
+			if(generation.get() == started) { state = current; }
+			log.debug("    taxonomy of {} nodes", current.taxonomy.size());
+			return current;
+		}
+	}
+
+	/**
+	 * @return node id of a named class, -1 if the wrapped reasoner has to answer
+	 */
+	private int id(State current, OWLClassExpression ce) {
+		if(ce.isAnonymous() || !current.taxonomy.isConsistent()) return -1;
+		return current.taxonomy.getId(ce.asOWLClass());
+	}
+
+	@Override
+	public boolean isConsistent() {
+		return state().taxonomy.isConsistent();
+	}
+
+	@Override
+	public boolean isSatisfiable(OWLClassExpression ce) {
+		State current = state();
+		int id = id(current, ce);
+		if(id < 0) return delegate().isSatisfiable(ce);
+		return id != Taxonomy.BOTTOM;
+	}
+
+	@Override
+	public Node<OWLClass> getUnsatisfiableClasses() {
+		return getBottomClassNode();
+	}
+
+	@Override
+	public Node<OWLClass> getTopClassNode() {
+		State current = state();
+		if(!current.taxonomy.isConsistent()) return delegate().getTopClassNode();
+		return current.taxonomy.getNode(Taxonomy.TOP);
+	}
+
+	@Override
+	public Node<OWLClass> getBottomClassNode() {
+		State current = state();
+		if(!current.taxonomy.isConsistent()) return delegate().getBottomClassNode();
+		return current.taxonomy.getNode(Taxonomy.BOTTOM);
+	}
+
+	@Override
+	public NodeSet<OWLClass> getSubClasses(OWLClassExpression ce, boolean direct) {
+		State current = state();
+		int id = id(current, ce);
+		if(id < 0) return delegate().getSubClasses(ce, direct);
+		return current.cache.get(key(id, direct, true), k -> new SharedNodeSet(current.taxonomy.getChildren(id, direct)));
+	}
+
+	@Override
+	public NodeSet<OWLClass> getSuperClasses(OWLClassExpression ce, boolean direct) {
+		State current = state();
+		int id = id(current, ce);
+		if(id < 0) return delegate().getSuperClasses(ce, direct);
+		return current.cache.get(key(id, direct, false), k -> new SharedNodeSet(current.taxonomy.getParents(id, direct)));
+	}
+
+	@Override
+	public Node<OWLClass> getEquivalentClasses(OWLClassExpression ce) {
+		State current = state();
+		int id = id(current, ce);
+		if(id < 0) return delegate().getEquivalentClasses(ce);
+		return current.taxonomy.getNode(id);
+	}
+
+	@Override
+	public void dispose() {
+		reasoner.getRootOntology().getOWLOntologyManager().removeOntologyChangeListener(this);
+		state = null;
+		delegate().dispose();
+	}
+
+	private static long key(int id, boolean direct, boolean sub) {
+		return ((long) id << 2) | (direct ? 1 : 0) | (sub ? 2 : 0);
+	}
+
+	private static class State {
+		final Taxonomy taxonomy;
+		final Cache<Long, NodeSet<OWLClass>> cache;
+
+		State(Taxonomy taxonomy, long cacheSize) {
+			this.taxonomy = taxonomy;
+			this.cache = Caffeine.newBuilder().maximumSize(cacheSize).build();
+		}
+	}
+
+	/**
+	 * read-only view of a cached node set, a cast to the owlapi implementation cannot change it
+	 */
+	private static class SharedNodeSet implements NodeSet<OWLClass> {
+		private final NodeSet<OWLClass> nodes;
+
+		SharedNodeSet(NodeSet<OWLClass> nodes) {
+			this.nodes = nodes;
+		}
+
+		@Override
+		public Stream<Node<OWLClass>> nodes() {
+			return nodes.nodes();
+		}
+
+		@Override
+		public Stream<OWLClass> entities() {
+			return nodes.entities();
+		}
+
+		@Override
+		public Iterator<Node<OWLClass>> iterator() {
+			return nodes.nodes().iterator();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return nodes.isEmpty();
+		}
+
+		@Override
+		public boolean containsEntity(OWLClass e) {
+			return nodes.containsEntity(e);
+		}
+
+		@Override
+		public boolean isSingleton() {
+			return nodes.isSingleton();
+		}
+
+		@Override
+		public boolean isTopSingleton() {
+			return nodes.isTopSingleton();
+		}
+
+		@Override
+		public boolean isBottomSingleton() {
+			return nodes.isBottomSingleton();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(obj instanceof SharedNodeSet) return nodes.equals(((SharedNodeSet) obj).nodes);
+			return nodes.equals(obj);
+		}
+
+		@Override
+		public int hashCode() {
+			return nodes.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return nodes.toString();
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+/**
+ * writes one row per visited node: depth, class, label and parent class
+ *
+ * equivalent classes get a row each, the parent is the representative of
+ * the node the walk came from (empty for the start node).
+ *
+ */
+public class CsvHierarchySink implements HierarchySink {
+
+	private final CSVPrinter printer;
+	private final ShortFormResolver pm;
+	private final OWLOntology ontology;
+	private final Deque<OWLClass> parents = new ArrayDeque<OWLClass>();
+
+	/**
+	 * @param pm writes short forms if set, full IRIs otherwise, resolved through a {@link ShortFormResolver}
+	 */
+	public CsvHierarchySink(Writer out, DefaultPrefixManager pm, OWLOntology ontology) throws IOException {
+		this.printer = new CSVPrinter(out instanceof BufferedWriter ? out : new BufferedWriter(out),
+				CSVFormat.DEFAULT.withDelimiter(';').withHeader("Depth", "Class", "Label", "Parent"));
+		this.pm = ShortFormResolver.of(pm);
+		this.ontology = ontology;
+	}
+
+	public CsvHierarchySink(OutputStream out, DefaultPrefixManager pm, OWLOntology ontology) throws IOException {
+		this(new OutputStreamWriter(out, StandardCharsets.UTF_8), pm, ontology);
+	}
+
+	@Override
+	public void enter(Node<OWLClass> node, int depth) throws IOException {
+		String parent = parents.isEmpty() ? "" : name(parents.peek());
+		for(OWLClass clazz : node) {
+			String label = OntologyReasoner.getLabelOfClass(ontology, clazz);
+			printer.printRecord(depth, name(clazz), label == null ? "" : label, parent);
+		}
+		parents.push(node.getRepresentativeElement());
+	}
+
+	@Override
+	public void leave(Node<OWLClass> node, int depth) {
+		parents.pop();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		printer.flush();
+	}
+
+	private String name(OWLClass clazz) {
+		return pm != null ? pm.getShortForm(clazz) : clazz.getIRI().toString();
+	}
+}
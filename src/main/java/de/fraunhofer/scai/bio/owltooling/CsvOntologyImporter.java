@@ -0,0 +1,306 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.regex.Pattern;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * streams CSV/TSV rows into an {@link OntologyBuilder}
+ *
+ * each row is a class: the id column names it, parent columns give its
+ * superclasses (owl:Thing if empty), label columns become annotations with a
+ * fixed language or one read from another column, mapping columns become
+ * someValuesFrom restrictions like the skos matches of checkMappings.
+ * Values with a scheme and an authority ("http://...") are taken as IRIs,
+ * others get the prefix of the column. Columns may hold several values with a separator.
+ *
+ * Parsing runs on its own thread and hands chunks of rows through a bounded
+ * queue, the axioms are added in batches. Rows without id are rejected. A
+ * failed import drops the changes still buffered, batches flushed at the
+ * threshold before stay in the ontology.
+ *
+ */
+@Slf4j
+public class CsvOntologyImporter {
+
+	private final static int CHUNK = 1_000;
+	private final static List<CSVRecord> END = Collections.emptyList();
+	private final static Pattern ABSOLUTE = Pattern.compile("^[A-Za-z][A-Za-z0-9+.-]*://");
+
+	private final OntologyBuilder builder;
+	private CSVFormat format = CSVFormat.DEFAULT.withFirstRecordAsHeader();
+	private int queueSize = 16;
+	private int flushThreshold = OntologyBuilder.DEFAULT_FLUSH_THRESHOLD;
+
+	private Column id;
+	private final List<Column> parents = new ArrayList<Column>();
+	private final List<LabelColumn> labels = new ArrayList<LabelColumn>();
+	private final List<MappingColumn> mappings = new ArrayList<MappingColumn>();
+
+	public CsvOntologyImporter(OntologyBuilder builder) {
+		this.builder = builder;
+	}
+
+	/**
+	 * @param format format of the file, the columns are looked up in its header
+	 */
+	public CsvOntologyImporter format(CSVFormat format) {
+		this.format = format;
+		return this;
+	}
+
+	/**
+	 * @param chunks number of parsed chunks waiting for insertion
+	 * @param flushThreshold number of changes applied at once
+	 */
+	public CsvOntologyImporter buffers(int chunks, int flushThreshold) {
+		this.queueSize = chunks;
+		this.flushThreshold = flushThreshold;
+		return this;
+	}
+
+	public CsvOntologyImporter id(String column, String prefix) {
+		this.id = new Column(column, prefix, null);
+		return this;
+	}
+
+	public CsvOntologyImporter parent(String column, String prefix, String separator) {
+		parents.add(new Column(column, prefix, separator));
+		return this;
+	}
+
+	/**
+	 * @param language language of all values, null for untagged ones
+	 */
+	public CsvOntologyImporter label(String column, IRI property, String language, String separator) {
+		labels.add(new LabelColumn(column, property, language, null, separator));
+		return this;
+	}
+
+	/**
+	 * @param languageColumn column holding the language of the row, empty for untagged values
+	 */
+	public CsvOntologyImporter labelWithLanguageColumn(String column, IRI property, String languageColumn, String separator) {
+		labels.add(new LabelColumn(column, property, null, languageColumn, separator));
+		return this;
+	}
+
+	/**
+	 * @param property mapping relation, e.g. {@link Prefixes#SKOS_EXACT}
+	 */
+	public CsvOntologyImporter mapping(String column, IRI property, String prefix, String separator) {
+		mappings.add(new MappingColumn(column, prefix, separator, property));
+		return this;
+	}
+
+	public ImportResult importFile(File file) throws IOException {
+		try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			return importFrom(reader);
+		}
+	}
+
+	public ImportResult importFrom(Reader reader) throws IOException {
+		if(id == null) throw new IllegalStateException("no id column");
+
+		log.info(" >> importing rows...");
+		long start = System.currentTimeMillis();
+
+		BlockingQueue<List<CSVRecord>> queue = new ArrayBlockingQueue<List<CSVRecord>>(queueSize);
+		Parser parser = new Parser(reader instanceof BufferedReader ? reader : new BufferedReader(reader), queue);
+		Thread thread = new Thread(parser, "csv-parser");
+		thread.setDaemon(true);
+		thread.start();
+
+		long rows = 0;
+		long rejected = 0;
+		long duplicates = 0;
+		try (OntologyBuilder.Batch batch = builder.batch(flushThreshold)) {
+			try {
+				for(List<CSVRecord> chunk = queue.take(); chunk != END; chunk = queue.take()) {
+					for(CSVRecord record : chunk) {
+						rows++;
+						if(!add(record)) {
+							rejected++;
+							log.debug("    rejected row {}", record.getRecordNumber());
+						}
+					}
+				}
+				if(parser.failure != null) throw parser.failure;
+			} catch (IOException | InterruptedException | RuntimeException e) {
+				// rows of a failed import are not committed, only those flushed before stay
+				batch.discard();
+				throw e;
+			}
+			duplicates = batch.getDuplicates();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("import interrupted", e);
+		} finally {
+			// a parser waiting on the full queue must not outlive a failed import
+			thread.interrupt();
+		}
+
+		ImportResult result = new ImportResult(rows, rejected, System.currentTimeMillis() - start);
+		log.info("    {} rows, {} rejected, {} duplicate axioms, {} rows/s", rows, rejected, duplicates, result.getRowsPerSecond());
+		return result;
+	}
+
+	/**
+	 * @return false if the row has no id
+	 */
+	private boolean add(CSVRecord record) {
+		InternPool pool = builder.getPool();
+		List<IRI> ids = id.iris(record, pool);
+		if(ids.isEmpty()) return false;
+		IRI iri = ids.get(0);
+
+		List<IRI> superClasses = new ArrayList<IRI>();
+		for(Column parent : parents) {
+			superClasses.addAll(parent.iris(record, pool));
+		}
+		if(superClasses.isEmpty()) {
+			superClasses.add(OWLRDFVocabulary.OWL_THING.getIRI());
+		}
+		OWLClass owlClass = null;
+		for(IRI superClass : superClasses) {
+			owlClass = builder.addClassWithSuperClass(iri, superClass);
+		}
+
+		for(LabelColumn column : labels) {
+			List<Label> values = column.labels(record, pool);
+			if(!values.isEmpty()) {
+				builder.addConceptAnnotation(iri, column.property, values);
+			}
+		}
+
+		for(MappingColumn column : mappings) {
+			for(IRI target : column.iris(record, pool)) {
+				builder.addSomeValues(owlClass, column.property, builder.getOWLClass(target));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * reads the file in chunks of rows
+	 */
+	private class Parser implements Runnable {
+
+		private final Reader reader;
+		private final BlockingQueue<List<CSVRecord>> queue;
+		private volatile IOException failure;
+
+		Parser(Reader reader, BlockingQueue<List<CSVRecord>> queue) {
+			this.reader = reader;
+			this.queue = queue;
+		}
+
+		@Override
+		public void run() {
+			try {
+				try (CSVParser parser = format.parse(reader)) {
+					List<CSVRecord> chunk = new ArrayList<CSVRecord>(CHUNK);
+					for(CSVRecord record : parser) {
+						chunk.add(record);
+						if(chunk.size() == CHUNK) {
+							queue.put(chunk);
+							chunk = new ArrayList<CSVRecord>(CHUNK);
+						}
+					}
+					if(!chunk.isEmpty()) queue.put(chunk);
+				} catch (IOException | RuntimeException e) {
+					failure = e instanceof IOException ? (IOException) e : new IOException(e);
+				}
+				queue.put(END);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static class Column {
+		final String name;
+		final String prefix;
+		final Pattern separator;
+
+		Column(String name, String prefix, String separator) {
+			this.name = name;
+			this.prefix = prefix;
+			this.separator = separator == null ? null : Pattern.compile(Pattern.quote(separator));
+		}
+
+		List<String> values(CSVRecord record) {
+			if(!record.isSet(name)) return Collections.emptyList();
+			String value = record.get(name).trim();
+			if(value.isEmpty()) return Collections.emptyList();
+			if(separator == null) return Collections.singletonList(value);
+
+			List<String> values = new ArrayList<String>();
+			for(String part : separator.split(value)) {
+				if(!part.trim().isEmpty()) values.add(part.trim());
+			}
+			return values;
+		}
+
+		List<IRI> iris(CSVRecord record, InternPool pool) {
+			List<IRI> iris = new ArrayList<IRI>();
+			for(String value : values(record)) {
+				iris.add(prefix == null || ABSOLUTE.matcher(value).find() ? pool.iri(value) : pool.iri(prefix + value));
+			}
+			return iris;
+		}
+	}
+
+	private static class LabelColumn extends Column {
+		final IRI property;
+		final String language;
+		final String languageColumn;
+
+		LabelColumn(String name, IRI property, String language, String languageColumn, String separator) {
+			super(name, null, separator);
+			this.property = property;
+			this.language = language;
+			this.languageColumn = languageColumn;
+		}
+
+		List<Label> labels(CSVRecord record, InternPool pool) {
+			String lang = language;
+			if(languageColumn != null && record.isSet(languageColumn) && !record.get(languageColumn).trim().isEmpty()) {
+				lang = record.get(languageColumn).trim();
+			}
+
+			List<Label> result = new ArrayList<Label>();
+			for(String value : values(record)) {
+				result.add(pool.label(value, lang));
+			}
+			return result;
+		}
+	}
+
+	private static class MappingColumn extends Column {
+		final IRI property;
+
+		MappingColumn(String name, String prefix, String separator, IRI property) {
+			super(name, prefix, separator);
+			this.property = property;
+		}
+	}
+}
@@ -0,0 +1,411 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+import org.eclipse.rdf4j.common.net.ParsedIRI;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.RDFWriter;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.BasicWriterSettings;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * streams the statements of a model as graph or RDF files
+ *
+ * nodes get dense ids in the order they are first seen, found in a hash map,
+ * so the memory grows with the nodes and not with the edges. Every statement
+ * is written while the model is iterated:
+ *
+ * - Gephi: edge and node table as ';' separated CSV
+ * - GraphML: a node is written before its first edge
+ * - edge list: compact binary file, see {@link #writeEdgeList(File)}
+ * - RDF: through an rdf4j writer with the prefixes of the model, relative
+ *   IRIs are resolved against the base IRI; without one a file is written
+ *   by the (slower) Jena writer instead, like before
+ *
+ * Statements with literal objects are no edges and are left out of the
+ * graph formats. Output is buffered and UTF-8.
+ *
+ */
+@Slf4j
+public class GraphExporter {
+
+	// "OTEL"
+	public final static int EDGE_LIST_MAGIC = 0x4F54454C;
+	public final static int EDGE_LIST_VERSION = 1;
+
+	private final static int BUFFER = 1 << 16;
+	private final static String NEWLINE = System.getProperty("line.separator");
+	private final static ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private final Model model;
+	// null if relative IRIs are left to the Jena writers
+	private final ParsedIRI base;
+
+	public GraphExporter(Model model) {
+		this(model, null);
+	}
+
+	/**
+	 * @param base IRI the relative IRIs of the model are resolved against
+	 */
+	public GraphExporter(Model model, String base) {
+		this.model = model;
+		this.base = base == null ? null : ParsedIRI.create(base);
+	}
+
+	/**
+	 * @param name format name of {@link RDFBuilder#writeModelToFile(String, String, Model)}
+	 * @return null if it is no RDF format
+	 */
+	public static RDFFormat rdfFormat(String name) {
+		switch(name) {
+		case "N3": 			return RDFFormat.N3;
+		case "RDF/XML": 	return RDFFormat.RDFXML;
+		case "N-TRIPLE": 	return RDFFormat.NTRIPLES;
+		case "TURTLE":
+		case "TTL": 		return RDFFormat.TURTLE;
+		default: 			return null;
+		}
+	}
+
+	/**
+	 * @return number of statements
+	 */
+	public long writeRdf(File file, RDFFormat format) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file.toPath()), BUFFER)) {
+			return writeRdf(out, format);
+		} catch (RelativeIRIException e) {
+			log.warn("    relative IRI {} without base, writing {} with Jena", e.getMessage(), file.getName());
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file.toPath()), BUFFER)) {
+				model.write(out, jenaLanguage(format));
+			}
+			return model.size();
+		}
+	}
+
+	/**
+	 * @return number of statements
+	 * @throws IOException also for a relative IRI if there is no base
+	 */
+	public long writeRdf(OutputStream out, RDFFormat format) throws IOException {
+		RDFWriter writer = Rio.createWriter(format, out);
+		// pretty printing makes turtle about eight times slower
+		writer.getWriterConfig().set(BasicWriterSettings.PRETTY_PRINT, false);
+		long count = 0;
+		StmtIterator iter = model.listStatements();
+		try {
+			writer.startRDF();
+			for(Map.Entry<String, String> ns : model.getNsPrefixMap().entrySet()) {
+				writer.handleNamespace(ns.getKey(), ns.getValue());
+			}
+			while(iter.hasNext()) {
+				Statement stmt = iter.nextStatement();
+				writer.handleStatement(vf.createStatement(
+						(Resource) value(stmt.getSubject()), iri(stmt.getPredicate().getURI()), value(stmt.getObject())));
+				count++;
+			}
+			writer.endRDF();
+		} catch (RDFHandlerException e) {
+			if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+			throw e;
+		} catch (IllegalArgumentException e) {
+			throw new IOException("invalid IRI: " + e.getMessage(), e);
+		} finally {
+			iter.close();
+		}
+		return count;
+	}
+
+	/**
+	 * writes the edge table (Source;Target;Label;Class) and then the node table
+	 * (Id;Label;Class) with the part of the IRI after and before the last '/'
+	 *
+	 * @return number of edges
+	 */
+	public long writeGephi(File edgeTable, File nodeTable) throws IOException {
+		Nodes nodes = new Nodes();
+		long count;
+
+		try (Writer out = writer(edgeTable)) {
+			out.write("Source;Target;Label;Class");
+			out.write(NEWLINE);
+			count = edges(nodes, (from, to, predicate) -> {
+				String label = nodes.predicateLabels.get(predicate);
+				out.write(Integer.toString(from));
+				out.write(';');
+				out.write(Integer.toString(to));
+				out.write(';');
+				out.write(label);
+				out.write(';');
+				out.write(label);
+				out.write(NEWLINE);
+			});
+		}
+
+		try (Writer out = writer(nodeTable)) {
+			out.write("Id;Label;Class");
+			out.write(NEWLINE);
+			for(int i=0; i<nodes.keys.size(); i++) {
+				String key = nodes.keys.get(i);
+				int idx = key.lastIndexOf('/');
+				out.write(Integer.toString(i));
+				out.write(";\"");
+				out.write(key, idx+1, key.length()-idx-1);
+				out.write("\";\"");
+				if(idx > 0) out.write(key, 0, idx);
+				out.write('"');
+				out.write(NEWLINE);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * writes a directed graph, nodes carry the IRI and the part after the last
+	 * '/' or '#' as label, edges the label of the predicate
+	 *
+	 * @return number of edges
+	 */
+	public long writeGraphMl(File file) throws IOException {
+		try (Writer out = writer(file)) {
+			return writeGraphMl(out);
+		}
+	}
+
+	public long writeGraphMl(Writer out) throws IOException {
+		out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n"
+				+ "  <key id=\"iri\" for=\"node\" attr.name=\"iri\" attr.type=\"string\"/>\n"
+				+ "  <key id=\"label\" for=\"node\" attr.name=\"label\" attr.type=\"string\"/>\n"
+				+ "  <key id=\"predicate\" for=\"edge\" attr.name=\"label\" attr.type=\"string\"/>\n"
+				+ "  <graph id=\"G\" edgedefault=\"directed\">\n");
+
+		Nodes nodes = new Nodes();
+		int[] written = { 0 };
+		long count = edges(nodes, (from, to, predicate) -> {
+			for(; written[0] < nodes.keys.size(); written[0]++) {
+				String key = nodes.keys.get(written[0]);
+				out.write("    <node id=\"n" + written[0] + "\"><data key=\"iri\">");
+				escape(out, key);
+				out.write("</data><data key=\"label\">");
+				escape(out, localName(key));
+				out.write("</data></node>\n");
+			}
+			out.write("    <edge source=\"n" + from + "\" target=\"n" + to + "\"><data key=\"predicate\">");
+			escape(out, nodes.predicateLabels.get(predicate));
+			out.write("</data></edge>\n");
+		});
+
+		out.write("  </graph>\n</graphml>\n");
+		out.flush();
+		return count;
+	}
+
+	/**
+	 * writes the edges as ints followed by the string tables, all big endian:
+	 *
+	 * header: magic, version, edges (long), nodes, predicates
+	 * edges: source, target, predicate per edge
+	 * nodes and predicates: length and UTF-8 bytes of the IRI per id
+	 *
+	 * The counts of the header are filled in at the end.
+	 *
+	 * @return number of edges
+	 */
+	public long writeEdgeList(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER);
+			buffer.putInt(EDGE_LIST_MAGIC).putInt(EDGE_LIST_VERSION).putLong(0).putInt(0).putInt(0);
+
+			Nodes nodes = new Nodes();
+			long count = edges(nodes, (from, to, predicate) -> {
+				if(buffer.remaining() < 12) drain(channel, buffer);
+				buffer.putInt(from).putInt(to).putInt(predicate);
+			});
+
+			for(String key : nodes.keys) putString(channel, buffer, key);
+			for(String predicate : nodes.predicates) putString(channel, buffer, predicate);
+			drain(channel, buffer);
+
+			ByteBuffer header = ByteBuffer.allocate(16);
+			header.putLong(count).putInt(nodes.keys.size()).putInt(nodes.predicates.size()).flip();
+			while(header.hasRemaining()) channel.write(header, 8 + header.position());
+			return count;
+		}
+	}
+
+	private interface Edge {
+		void write(int from, int to, int predicate) throws IOException;
+	}
+
+	/**
+	 * dense ids of the nodes and predicates seen so far
+	 */
+	private static class Nodes {
+		final Map<String, Integer> ids = new HashMap<String, Integer>();
+		final List<String> keys = new ArrayList<String>();
+		final Map<String, Integer> predicateIds = new HashMap<String, Integer>();
+		final List<String> predicates = new ArrayList<String>();
+		final List<String> predicateLabels = new ArrayList<String>();
+
+		int id(String key) {
+			Integer id = ids.get(key);
+			if(id == null) {
+				id = keys.size();
+				ids.put(key, id);
+				keys.add(key);
+			}
+			return id;
+		}
+
+		int predicate(String iri) {
+			Integer id = predicateIds.get(iri);
+			if(id == null) {
+				id = predicates.size();
+				predicateIds.put(iri, id);
+				predicates.add(iri);
+				predicateLabels.add(localName(iri));
+			}
+			return id;
+		}
+	}
+
+	private long edges(Nodes nodes, Edge edge) throws IOException {
+		long count = 0;
+		StmtIterator iter = model.listStatements();
+		try {
+			while(iter.hasNext()) {
+				Statement stmt = iter.nextStatement();
+				if(stmt.getObject().isLiteral()) continue;
+
+				int from = nodes.id(key(stmt.getSubject()));
+				int to = nodes.id(key(stmt.getObject()));
+				edge.write(from, to, nodes.predicate(stmt.getPredicate().getURI()));
+				count++;
+			}
+		} finally {
+			iter.close();
+		}
+		return count;
+	}
+
+	private static String key(RDFNode node) {
+		org.apache.jena.rdf.model.Resource resource = node.asResource();
+		return resource.isAnon() ? "_:" + resource.getId().getLabelString() : resource.getURI();
+	}
+
+	/**
+	 * @return part after the last '#' or '/'
+	 */
+	static String localName(String iri) {
+		int idx = iri.lastIndexOf('#');
+		if(idx < 0) idx = iri.lastIndexOf('/');
+		return iri.substring(idx+1);
+	}
+
+	private Value value(RDFNode node) throws RelativeIRIException {
+		if(node.isLiteral()) {
+			Literal literal = node.asLiteral();
+			if(!literal.getLanguage().isEmpty()) return vf.createLiteral(literal.getLexicalForm(), literal.getLanguage());
+			return vf.createLiteral(literal.getLexicalForm(), vf.createIRI(literal.getDatatypeURI()));
+		}
+		org.apache.jena.rdf.model.Resource resource = node.asResource();
+		if(resource.isAnon()) return vf.createBNode(resource.getId().getLabelString());
+		return iri(resource.getURI());
+	}
+
+	private IRI iri(String iri) throws RelativeIRIException {
+		// rdf4j only takes IRIs with a scheme
+		if(iri.indexOf(':') >= 0) return vf.createIRI(iri);
+		if(base == null) throw new RelativeIRIException(iri);
+		return vf.createIRI(base.resolve(iri));
+	}
+
+	/**
+	 * @return name of the Jena writer for the format
+	 */
+	static String jenaLanguage(RDFFormat format) {
+		if(format.equals(RDFFormat.RDFXML)) return "RDF/XML";
+		if(format.equals(RDFFormat.NTRIPLES)) return "N-TRIPLE";
+		if(format.equals(RDFFormat.N3)) return "N3";
+		return "TURTLE";
+	}
+
+	private static class RelativeIRIException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		RelativeIRIException(String iri) {
+			super(iri);
+		}
+	}
+
+	private static Writer writer(File file) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8), BUFFER);
+	}
+
+	private static void escape(Writer out, String text) throws IOException {
+		int start = 0;
+		for(int i=0; i<text.length(); i++) {
+			String entity;
+			switch(text.charAt(i)) {
+			case '<': entity = "&lt;"; break;
+			case '>': entity = "&gt;"; break;
+			case '&': entity = "&amp;"; break;
+			case '"': entity = "&quot;"; break;
+			default: continue;
+			}
+			out.write(text, start, i-start);
+			out.write(entity);
+			start = i+1;
+		}
+		out.write(text, start, text.length()-start);
+	}
+
+	private static void putString(FileChannel channel, ByteBuffer buffer, String text) throws IOException {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		if(buffer.remaining() < 4 + bytes.length) drain(channel, buffer);
+		buffer.putInt(bytes.length);
+		if(buffer.remaining() < bytes.length) {
+			drain(channel, buffer);
+			ByteBuffer large = ByteBuffer.wrap(bytes);
+			while(large.hasRemaining()) channel.write(large);
+		} else {
+			buffer.put(bytes);
+		}
+	}
+
+	private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()) channel.write(buffer);
+		buffer.clear();
+	}
+}
@@ -0,0 +1,35 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.io.IOException;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.reasoner.Node;
+
+/**
+ * receives the events of a {@link HierarchyWalker}
+ *
+ */
+public interface HierarchySink {
+
+	/**
+	 * a node is visited, its children follow before {@link #leave(Node, int)}
+	 */
+	void enter(Node<OWLClass> node, int depth) throws IOException;
+
+	/**
+	 * direct subclass relation, reported even if the child is beyond the maximum depth
+	 */
+	default void edge(Node<OWLClass> parent, Node<OWLClass> child) throws IOException {}
+
+	/**
+	 * the visited node has more than one (equivalent) class
+	 */
+	default void cycle(Node<OWLClass> node) throws IOException {}
+
+	default void leave(Node<OWLClass> node, int depth) throws IOException {}
+
+	/**
+	 * the walk is done, buffered output has to be written
+	 */
+	default void flush() throws IOException {}
+}
@@ -0,0 +1,109 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import lombok.Getter;
+
+/**
+ * depth first walk over the inferred class hierarchy with an explicit stack
+ *
+ * by default the hierarchy is unfolded into a tree, a class with several
+ * parents is visited below each of them. With visitOnce every node is entered
+ * only below its first parent, while the edges to all parents are still reported.
+ * The bottom node is never visited.
+ *
+ */
+public class HierarchyWalker {
+
+	private final OWLReasoner reasoner;
+	@Getter private final int maxDepth;
+	@Getter private final boolean visitOnce;
+
+	/**
+	 * @param maxDepth nodes at this depth are not visited, 0 for no limit
+	 * @param visitOnce enter shared subtrees only once
+	 */
+	public HierarchyWalker(OWLReasoner reasoner, int maxDepth, boolean visitOnce) {
+		this.reasoner = reasoner;
+		this.maxDepth = maxDepth;
+		this.visitOnce = visitOnce;
+	}
+
+	public HierarchyWalker(OWLReasoner reasoner, int maxDepth) {
+		this(reasoner, maxDepth, false);
+	}
+
+	/**
+	 * @return number of visited nodes
+	 */
+	public int walk(Node<OWLClass> start, HierarchySink sink) throws IOException {
+		return walk(start, 0, sink);
+	}
+
+	/**
+	 * @param depth depth of the start node
+	 * @return number of visited nodes
+	 */
+	public int walk(Node<OWLClass> start, int depth, HierarchySink sink) throws IOException {
+		Set<Node<OWLClass>> visited = visitOnce ? new HashSet<Node<OWLClass>>() : null;
+		Deque<Frame> stack = new ArrayDeque<Frame>();
+		int count = 0;
+
+		if(!skip(start, depth, visited)) {
+			stack.push(enter(start, depth, sink));
+			count++;
+		}
+
+		while(!stack.isEmpty()) {
+			Frame frame = stack.peek();
+
+			if(frame.children.hasNext()) {
+				Node<OWLClass> child = frame.children.next();
+				if(!child.isBottomNode()) { sink.edge(frame.node, child); }
+
+				if(!skip(child, frame.depth+1, visited)) {
+					stack.push(enter(child, frame.depth+1, sink));
+					count++;
+				}
+			} else {
+				stack.pop();
+				sink.leave(frame.node, frame.depth);
+			}
+		}
+
+		sink.flush();
+		return count;
+	}
+
+	private boolean skip(Node<OWLClass> node, int depth, Set<Node<OWLClass>> visited) {
+		if(node.isBottomNode() || (depth >= maxDepth && maxDepth > 0)) return true;
+		return visited != null && !visited.add(node);
+	}
+
+	private Frame enter(Node<OWLClass> node, int depth, HierarchySink sink) throws IOException {
+		sink.enter(node, depth);
+		if(node.getSize() > 1) { sink.cycle(node); }
+		return new Frame(node, depth, reasoner.getSubClasses(node.getRepresentativeElement(), true).iterator());
+	}
+
+	private static class Frame {
+		final Node<OWLClass> node;
+		final int depth;
+		final Iterator<Node<OWLClass>> children;
+
+		Frame(Node<OWLClass> node, int depth, Iterator<Node<OWLClass>> children) {
+			this.node = node;
+			this.depth = depth;
+			this.children = children;
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import lombok.Getter;
+
+/**
+ * counts of a streaming import
+ *
+ */
+@Getter
+public class ImportResult {
+
+	private final long rows;
+	private final long rejected;
+	private final long millis;
+
+	public ImportResult(long rows, long rejected, long millis) {
+		this.rows = rows;
+		this.rejected = rejected;
+		this.millis = millis;
+	}
+
+	public long getRowsPerSecond() {
+		return millis == 0 ? rows * 1000 : rows * 1000 / millis;
+	}
+}
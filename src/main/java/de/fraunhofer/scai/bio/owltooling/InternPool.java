@@ -0,0 +1,145 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLLiteral;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.Getter;
+
+/**
+ * shared instances of IRIs, annotation properties, literals and labels of an ontology build
+ *
+ * repeated values are created once, so builds keep one instance per distinct
+ * value instead of one per row. The pools are either bounded in size or hold
+ * their values weakly. Interned labels are shared and must not be modified.
+ * All methods are thread-safe.
+ *
+ */
+public class InternPool {
+
+	public final static long DEFAULT_MAXIMUM_SIZE = 1_000_000;
+
+	private final OWLDataFactory df;
+	private final Pool<String, IRI> iris;
+	private final Pool<IRI, OWLAnnotationProperty> properties;
+	private final Pool<String, OWLLiteral> literals;
+	private final Pool<String, Label> labels;
+
+	public InternPool(OWLDataFactory df) {
+		this(df, DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * @param maximumSize entries per pool, 0 to hold the values weakly instead
+	 */
+	public InternPool(OWLDataFactory df, long maximumSize) {
+		this.df = df;
+		this.iris = new Pool<String, IRI>(maximumSize);
+		this.properties = new Pool<IRI, OWLAnnotationProperty>(maximumSize);
+		this.literals = new Pool<String, OWLLiteral>(maximumSize);
+		this.labels = new Pool<String, Label>(maximumSize);
+	}
+
+	public IRI iri(String iri) {
+		return iris.get(iri, IRI::create);
+	}
+
+	public OWLAnnotationProperty property(IRI iri) {
+		return properties.get(iri, df::getOWLAnnotationProperty);
+	}
+
+	/**
+	 * @param lang language tag, null or empty for untagged literals
+	 */
+	public OWLLiteral literal(String text, String lang) {
+		if(lang == null || lang.isEmpty()) {
+			return literals.get(text, df::getOWLLiteral);
+		}
+		return literals.get(key(text, lang), key -> df.getOWLLiteral(text, lang));
+	}
+
+	public Label label(String content, String language) {
+		if(content == null) return new Label(content, language);
+		return labels.get(key(content, language), key -> new Label(content, language));
+	}
+
+	private static String key(String text, String lang) {
+		// the separator does not occur in language tags
+		return lang == null ? text : text + '\u0000' + lang;
+	}
+
+	/**
+	 * @return statistics per pool
+	 */
+	public Map<String, Stats> getStats() {
+		Map<String, Stats> stats = new LinkedHashMap<String, Stats>();
+		stats.put("iris", iris.stats());
+		stats.put("properties", properties.stats());
+		stats.put("literals", literals.stats());
+		stats.put("labels", labels.stats());
+		return stats;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		getStats().forEach((name, stats) -> sb.append(sb.length() == 0 ? "" : ", ").append(name).append(' ').append(stats));
+		return sb.toString();
+	}
+
+	@Getter
+	public static class Stats {
+		private final long lookups;
+		private final long hits;
+		private final long size;
+
+		Stats(long lookups, long hits, long size) {
+			this.lookups = lookups;
+			this.hits = hits;
+			this.size = size;
+		}
+
+		public double getHitRate() {
+			return lookups == 0 ? 0 : (double) hits / lookups;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d of %d hits (%.1f%%), %d entries", hits, lookups, 100 * getHitRate(), size);
+		}
+	}
+
+	private static class Pool<K, V> {
+		private final Cache<K, V> cache;
+		private final LongAdder lookups = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+
+		Pool(long maximumSize) {
+			this.cache = maximumSize > 0
+					? Caffeine.newBuilder().maximumSize(maximumSize).build()
+					: Caffeine.newBuilder().weakValues().build();
+		}
+
+		V get(K key, Function<K, V> create) {
+			lookups.increment();
+			return cache.get(key, k -> {
+				misses.increment();
+				return create.apply(k);
+			});
+		}
+
+		Stats stats() {
+			long total = lookups.sum();
+			return new Stats(total, total - misses.sum(), cache.estimatedSize());
+		}
+	}
+}
@@ -0,0 +1,217 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+import com.google.common.collect.MapMaker;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * literal annotations of an ontology indexed by subject, property and language tag
+ *
+ * the index is built in one parallel pass over the annotation assertions and
+ * registers itself as change listener, so later additions and removals are
+ * reflected. {@link #release(OWLOntology)} unregisters the listener when the
+ * ontology is removed from its manager. Untagged literals are stored under the
+ * empty language "". Equal literals share one instance.
+ *
+ */
+@Slf4j
+public class LabelIndex implements OWLOntologyChangeListener {
+
+	// identity keyed, ontologies with the same id in different managers do not collide
+	private final static Map<OWLOntology, LabelIndex> INDEXES = new MapMaker().weakKeys().makeMap();
+	private final static Map<String, IRI> PROPERTIES = new ConcurrentHashMap<String, IRI>();
+	private final static DefaultPrefixManager PM = new DefaultPrefixManager();
+
+	private final WeakReference<OWLOntology> ontology;
+	private final ConcurrentMap<IRI, ConcurrentMap<IRI, ConcurrentMap<String, OWLLiteral[]>>> index = new ConcurrentHashMap<IRI, ConcurrentMap<IRI, ConcurrentMap<String, OWLLiteral[]>>>();
+	private final ConcurrentMap<OWLLiteral, OWLLiteral> literals = new ConcurrentHashMap<OWLLiteral, OWLLiteral>();
+
+	private LabelIndex(OWLOntology ontology) {
+		this.ontology = new WeakReference<OWLOntology>(ontology);
+
+		long start = System.currentTimeMillis();
+		ontology.axioms(AxiomType.ANNOTATION_ASSERTION).parallel().forEach(this::add);
+		log.debug("    indexed {} subjects in {} ms", index.size(), System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * @return the index of the ontology, built and registered on first use
+	 */
+	public static LabelIndex of(OWLOntology ontology) {
+		LabelIndex result = INDEXES.get(ontology);
+		if(result == null) {
+			synchronized (INDEXES) {
+				result = INDEXES.get(ontology);
+				if(result == null) {
+					result = new LabelIndex(ontology);
+					ontology.getOWLOntologyManager().addOntologyChangeListener(result);
+					INDEXES.put(ontology, result);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * drops the index of the ontology and removes its change listener
+	 */
+	public static void release(OWLOntology ontology) {
+		LabelIndex index;
+		synchronized (INDEXES) {
+			index = INDEXES.remove(ontology);
+		}
+		if(index != null) {
+			ontology.getOWLOntologyManager().removeOntologyChangeListener(index);
+			index.clear();
+		}
+	}
+
+	/**
+	 * @param property abbreviated ("rdfs:label") or full ("&lt;http://...&gt;") property IRI
+	 */
+	public static IRI resolve(String property) {
+		return PROPERTIES.computeIfAbsent(property, p -> {
+			if(p.startsWith("<") && p.endsWith(">")) return IRI.create(p.substring(1, p.length()-1));
+			return PM.getIRI(p);
+		});
+	}
+
+	/**
+	 * @return literals of the subject per language, empty if there are none
+	 */
+	public Map<String, List<OWLLiteral>> get(IRI subject, IRI property) {
+		Map<String, OWLLiteral[]> languages = languages(subject, property);
+		if(languages == null) return Collections.emptyMap();
+
+		Map<String, List<OWLLiteral>> result = new TreeMap<String, List<OWLLiteral>>();
+		languages.forEach((lang, values) -> result.put(lang, Collections.unmodifiableList(Arrays.asList(values))));
+		return result;
+	}
+
+	/**
+	 * @param language exact language tag, "" for untagged literals
+	 */
+	public List<OWLLiteral> get(IRI subject, IRI property, String language) {
+		Map<String, OWLLiteral[]> languages = languages(subject, property);
+		OWLLiteral[] values = languages == null ? null : languages.get(language);
+		if(values == null) return Collections.emptyList();
+		return Collections.unmodifiableList(Arrays.asList(values));
+	}
+
+	/**
+	 * @param language prefix of the language tag or null for any literal
+	 * @return first matching literal, an exact tag before longer ones, else in tag order;
+	 * for any literal "en" first, then untagged ones, then the other languages
+	 */
+	public Optional<OWLLiteral> find(IRI subject, IRI property, String language) {
+		Map<String, OWLLiteral[]> languages = languages(subject, property);
+		if(languages == null) return Optional.empty();
+
+		OWLLiteral[] values = languages.get(language == null ? "en" : language);
+		if(values == null && language == null) values = languages.get("");
+		if(values != null) return Optional.of(values[0]);
+
+		String first = null;
+		for(String lang : languages.keySet()) {
+			if(language == null || (!lang.isEmpty() && lang.startsWith(language))) {
+				if(first == null || lang.compareTo(first) < 0) first = lang;
+			}
+		}
+		values = first == null ? null : languages.get(first);
+		return values == null ? Optional.empty() : Optional.of(values[0]);
+	}
+
+	private Map<String, OWLLiteral[]> languages(IRI subject, IRI property) {
+		Map<IRI, ConcurrentMap<String, OWLLiteral[]>> properties = index.get(subject);
+		return properties == null ? null : properties.get(property);
+	}
+
+	@Override
+	public void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+		OWLOntology indexed = ontology.get();
+		if(indexed == null) {
+			// collected without release, keep only the empty listener
+			clear();
+			return;
+		}
+
+		for(OWLOntologyChange change : changes) {
+			// ids are unique within the manager, changes may carry the unwrapped ontology
+			if(!change.isAxiomChange() || !change.getOntology().equals(indexed)) continue;
+
+			OWLAxiom axiom = change.getAxiom();
+			if(!axiom.isOfType(AxiomType.ANNOTATION_ASSERTION)) continue;
+
+			if(change.isAddAxiom()) {
+				add((OWLAnnotationAssertionAxiom) axiom);
+			} else if(change.isRemoveAxiom()) {
+				remove(indexed, (OWLAnnotationAssertionAxiom) axiom);
+			}
+		}
+	}
+
+	private void add(OWLAnnotationAssertionAxiom axiom) {
+		if(!axiom.getSubject().isIRI() || !axiom.getValue().isLiteral()) return;
+
+		OWLLiteral literal = intern(axiom.getValue().asLiteral().get());
+		index.computeIfAbsent((IRI) axiom.getSubject(), s -> new ConcurrentHashMap<IRI, ConcurrentMap<String, OWLLiteral[]>>(4))
+		.computeIfAbsent(axiom.getProperty().getIRI(), p -> new ConcurrentHashMap<String, OWLLiteral[]>(4))
+		.compute(literal.getLang(), (lang, values) -> {
+			if(values == null) return new OWLLiteral[] { literal };
+			for(OWLLiteral value : values) {
+				if(value.equals(literal)) return values;
+			}
+			OWLLiteral[] result = Arrays.copyOf(values, values.length+1);
+			result[values.length] = literal;
+			return result;
+		});
+	}
+
+	private void remove(OWLOntology indexed, OWLAnnotationAssertionAxiom axiom) {
+		if(!axiom.getSubject().isIRI() || !axiom.getValue().isLiteral()) return;
+
+		// the same literal may still be asserted by an axiom with other axiom annotations
+		boolean asserted = indexed.annotationAssertionAxioms(axiom.getSubject())
+				.anyMatch(other -> other.getProperty().equals(axiom.getProperty()) && other.getValue().equals(axiom.getValue()));
+		if(asserted) return;
+
+		Map<String, OWLLiteral[]> languages = languages((IRI) axiom.getSubject(), axiom.getProperty().getIRI());
+		if(languages == null) return;
+
+		OWLLiteral literal = axiom.getValue().asLiteral().get();
+		languages.computeIfPresent(literal.getLang(), (lang, values) -> {
+			OWLLiteral[] result = Arrays.stream(values).filter(value -> !value.equals(literal)).toArray(OWLLiteral[]::new);
+			return result.length == 0 ? null : result;
+		});
+	}
+
+	private void clear() {
+		index.clear();
+		literals.clear();
+	}
+
+	private OWLLiteral intern(OWLLiteral literal) {
+		OWLLiteral known = literals.putIfAbsent(literal, literal);
+		return known == null ? literal : known;
+	}
+}
@@ -0,0 +1,179 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.semanticweb.owlapi.model.IRI;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * streams concepts with {@link Label} lists from JSON into an {@link OntologyBuilder}
+ *
+ * the input is an array of concept objects (or concept objects one after
+ * another), only one concept is held at a time:
+ * <pre>
+ * [ { "iri": "...", "prefLabels": [ { "language": "en", "content": "..." } ], "altLabels": [...], "definitions": [...] } ]
+ * </pre>
+ * Label fields are mapped to annotation properties, other fields are skipped.
+ * Concepts without id are rejected.
+ *
+ */
+@Slf4j
+public class LabelJsonImporter {
+
+	private final static JsonFactory factory = new JsonFactory();
+
+	private final OntologyBuilder builder;
+	private final Map<String, IRI> properties = new HashMap<String, IRI>();
+	private String idField = "iri";
+	private String prefix = null;
+	private IRI root = null;
+	private int flushThreshold = OntologyBuilder.DEFAULT_FLUSH_THRESHOLD;
+
+	/**
+	 * maps prefLabels, altLabels and definitions to the skos properties
+	 */
+	public LabelJsonImporter(OntologyBuilder builder) {
+		this.builder = builder;
+		properties.put("prefLabels", Prefixes.SKOS_PREF);
+		properties.put("altLabels", Prefixes.SKOS_ALT);
+		properties.put("definitions", Prefixes.SKOS_DEF);
+	}
+
+	public LabelJsonImporter idField(String field) {
+		this.idField = field;
+		return this;
+	}
+
+	/**
+	 * @param property annotation property of the labels in the field, null to skip the field
+	 */
+	public LabelJsonImporter property(String field, IRI property) {
+		if(property == null) properties.remove(field);
+		else properties.put(field, property);
+		return this;
+	}
+
+	/**
+	 * @param prefix put in front of every label
+	 */
+	public LabelJsonImporter prefix(String prefix) {
+		this.prefix = prefix;
+		return this;
+	}
+
+	/**
+	 * @param root superclass of all concepts, null to add the annotations only
+	 */
+	public LabelJsonImporter root(IRI root) {
+		this.root = root;
+		return this;
+	}
+
+	public LabelJsonImporter flushThreshold(int flushThreshold) {
+		this.flushThreshold = flushThreshold;
+		return this;
+	}
+
+	public ImportResult importFile(File file) throws IOException {
+		try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+			return importFrom(in);
+		}
+	}
+
+	public ImportResult importFrom(InputStream in) throws IOException {
+		log.info(" >> importing concepts...");
+		long start = System.currentTimeMillis();
+
+		long concepts = 0;
+		long rejected = 0;
+		long duplicates = 0;
+		try (JsonParser parser = factory.createParser(in); OntologyBuilder.Batch batch = builder.batch(flushThreshold)) {
+			JsonToken token = parser.nextToken();
+			boolean array = token == JsonToken.START_ARRAY;
+			if(array) token = parser.nextToken();
+
+			for(; token == JsonToken.START_OBJECT; token = parser.nextToken()) {
+				concepts++;
+				if(!readConcept(parser)) rejected++;
+			}
+
+			if(token != null && !(array && token == JsonToken.END_ARRAY)) {
+				throw new IOException("concept expected at " + parser.getCurrentLocation());
+			}
+			duplicates = batch.getDuplicates();
+		}
+
+		ImportResult result = new ImportResult(concepts, rejected, System.currentTimeMillis() - start);
+		log.info("    {} concepts, {} rejected, {} duplicate axioms, {} concepts/s", concepts, rejected, duplicates, result.getRowsPerSecond());
+		return result;
+	}
+
+	/**
+	 * @return false if the concept has no id
+	 */
+	private boolean readConcept(JsonParser parser) throws IOException {
+		String id = null;
+		Map<IRI, List<Label>> labels = new LinkedHashMap<IRI, List<Label>>();
+
+		while(parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken token = parser.nextToken();
+
+			IRI property = properties.get(field);
+			if(field.equals(idField) && token == JsonToken.VALUE_STRING) {
+				id = parser.getText();
+			} else if(property != null && token == JsonToken.START_ARRAY) {
+				List<Label> values = labels.computeIfAbsent(property, p -> new ArrayList<Label>());
+				while(parser.nextToken() == JsonToken.START_OBJECT) {
+					values.add(readLabel(parser, builder.getPool()));
+				}
+			} else {
+				parser.skipChildren();
+			}
+		}
+
+		if(id == null || id.isEmpty()) return false;
+
+		IRI iri = builder.getPool().iri(id);
+		if(root != null) {
+			builder.addClassWithSuperClass(iri, root);
+		}
+		for(Map.Entry<IRI, List<Label>> entry : labels.entrySet()) {
+			builder.addConceptAnnotation(iri, entry.getKey(), entry.getValue(), prefix);
+		}
+		return true;
+	}
+
+	private static Label readLabel(JsonParser parser, InternPool pool) throws IOException {
+		String content = null;
+		String language = null;
+
+		while(parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			parser.nextToken();
+
+			if(field.equals("content")) {
+				content = parser.getValueAsString();
+			} else if(field.equals("language")) {
+				language = parser.getValueAsString();
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return pool.label(content, language);
+	}
+}
@@ -0,0 +1,188 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.Locale;
+
+/**
+ * cleans label texts and language tags before they become literals
+ *
+ * all steps run in one pass over the characters: removal of single
+ * characters, stripping of entity references like "&amp;amp;" (all or only
+ * some names) and collapsing of whitespace. Entities are matched on the
+ * already cleaned text, as if the steps ran one after another. Texts that
+ * need no change are returned as they are.
+ *
+ * Language tags are cut to their primary subtag ("en-GB" becomes "en") and
+ * lower cased, unless full tags are kept.
+ *
+ * Configure before use, normalizing is thread-safe.
+ *
+ */
+public class LabelNormalizer {
+
+	private boolean[] removed = new boolean[0];
+	private boolean entities = false;
+	private String[] entityNames = null;
+	private boolean collapse = false;
+	private boolean primaryLanguage = true;
+
+	/**
+	 * the normalizer of label contents, strips all entities
+	 */
+	public static LabelNormalizer labels() {
+		return new LabelNormalizer().stripEntities();
+	}
+
+	/**
+	 * the normalizer of preferred labels, removes {}&lt;&gt;, and &amp;lt;
+	 */
+	public static LabelNormalizer prefLabels() {
+		return new LabelNormalizer().removeCharacters("{}<>,").stripEntities("lt");
+	}
+
+	public LabelNormalizer removeCharacters(String characters) {
+		for(int i=0; i<characters.length(); i++) {
+			char c = characters.charAt(i);
+			if(c >= removed.length) {
+				boolean[] grown = new boolean[c+1];
+				System.arraycopy(removed, 0, grown, 0, removed.length);
+				removed = grown;
+			}
+			removed[c] = true;
+		}
+		return this;
+	}
+
+	/**
+	 * strips all named and numeric entities
+	 */
+	public LabelNormalizer stripEntities() {
+		this.entities = true;
+		this.entityNames = null;
+		return this;
+	}
+
+	/**
+	 * @param names entity names without &amp; and ;
+	 */
+	public LabelNormalizer stripEntities(String... names) {
+		this.entities = true;
+		this.entityNames = names.clone();
+		return this;
+	}
+
+	/**
+	 * trims and replaces whitespace runs by one space
+	 */
+	public LabelNormalizer collapseWhitespace() {
+		this.collapse = true;
+		return this;
+	}
+
+	/**
+	 * keeps the subtags of language tags, "en_GB" becomes "en-gb"
+	 */
+	public LabelNormalizer fullLanguageTags() {
+		this.primaryLanguage = false;
+		return this;
+	}
+
+	public String normalize(String text) {
+		if(text == null) return null;
+
+		int length = text.length();
+		// null as long as the output is the same as the input
+		char[] out = null;
+		int size = 0;
+		int amp = -1;
+
+		for(int i=0; i<length; i++) {
+			char c = text.charAt(i);
+			boolean drop = false;
+
+			if(c < removed.length && removed[c]) {
+				drop = true;
+			} else if(collapse && Character.isWhitespace(c)) {
+				char last = size == 0 ? ' ' : (out == null ? text.charAt(size-1) : out[size-1]);
+				if(last == ' ') drop = true;
+				else if(c != ' ') {
+					if(out == null) out = copy(text, size);
+					c = ' ';
+				}
+			} else if(entities && c == ';' && amp >= 0 && isEntity(text, out, amp+1, size)) {
+				if(out == null) out = copy(text, size);
+				size = amp;
+				amp = -1;
+				continue;
+			}
+
+			if(drop) {
+				if(out == null) out = copy(text, size);
+				continue;
+			}
+
+			if(c == '&') amp = size;
+			else if(!isNameChar(c) && !(c == '#' && size == amp+1)) amp = -1;
+
+			if(out != null) out[size] = c;
+			size++;
+		}
+
+		if(collapse && size > 0 && (out == null ? text.charAt(size-1) : out[size-1]) == ' ') {
+			size--;
+		}
+
+		if(out == null) return size == length ? text : text.substring(0, size);
+		return new String(out, 0, size);
+	}
+
+	/**
+	 * @return canonical language tag, null for null
+	 */
+	public String language(String tag) {
+		if(tag == null) return null;
+
+		int end = tag.length();
+		if(primaryLanguage) {
+			for(int i=0; i<end; i++) {
+				char c = tag.charAt(i);
+				if(c == '-' || c == '_') {
+					end = i;
+					break;
+				}
+			}
+		}
+
+		String language = end == tag.length() ? tag : tag.substring(0, end);
+		language = language.trim().toLowerCase(Locale.ROOT);
+		return primaryLanguage ? language : language.replace('_', '-');
+	}
+
+	private static char[] copy(String text, int size) {
+		char[] out = new char[text.length()];
+		text.getChars(0, size, out, 0);
+		return out;
+	}
+
+	private static boolean isNameChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+	}
+
+	/**
+	 * @return true if the output between from and to is an entity name to strip
+	 */
+	private boolean isEntity(String text, char[] out, int from, int to) {
+		if(from < to && (out == null ? text.charAt(from) : out[from]) == '#') from++;
+		if(from >= to) return false;
+		if(entityNames == null) return true;
+
+		for(String name : entityNames) {
+			if(name.length() != to - from) continue;
+			boolean same = true;
+			for(int i=0; same && i<name.length(); i++) {
+				same = name.charAt(i) == (out == null ? text.charAt(from+i) : out[from+i]);
+			}
+			if(same) return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,267 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import lombok.Getter;
+
+/**
+ * finds label problems of all classes in one parallel pass
+ *
+ * for each requested language the last rdfs:label of a class is checked,
+ * "und" stands for untagged labels. Reported are classes without label in a
+ * language (MISSING), classes with the same label in two languages (SAME) and
+ * labels shared by several classes within a language (DUPLICATE).
+ *
+ * Findings are handed to a sink while the classes are visited, only the counts
+ * and the labels needed for DUPLICATE are kept. Their order is not fixed.
+ *
+ */
+public class LabelQualityAnalyzer {
+
+	public enum Kind { MISSING, SAME, DUPLICATE }
+
+	// findings handed to the sink at once
+	private final static int BLOCK = 1024;
+
+	private final OWLOntology ontology;
+	private final String[] languages;
+
+	public LabelQualityAnalyzer(OWLOntology ontology, Collection<String> languages) {
+		this.ontology = ontology;
+		this.languages = languages.toArray(new String[0]);
+	}
+
+	/**
+	 * @return counts only, the findings are dropped
+	 */
+	public Report analyze() {
+		return analyze(finding -> {});
+	}
+
+	/**
+	 * @param sink gets each finding once it is found, in no particular order and
+	 * from one thread at a time; duplicates come at the end
+	 */
+	public Report analyze(Consumer<Finding> sink) {
+		LabelIndex index = LabelIndex.of(ontology);
+		List<OWLClass> classes = ontology.classesInSignature().collect(Collectors.toList());
+
+		Accumulator result = classes.parallelStream().collect(Collector.of(
+				() -> new Accumulator(languages.length, sink),
+				(accumulator, clazz) -> accumulator.add(index, clazz),
+				Accumulator::merge));
+
+		return result.report(classes.size());
+	}
+
+	/**
+	 * @return thread-safe sink writing the findings as CSV rows below a header
+	 */
+	public static Sink csv(Writer out) throws IOException {
+		CSVPrinter printer = new CSVPrinter(out instanceof BufferedWriter ? out : new BufferedWriter(out),
+				CSVFormat.DEFAULT.withDelimiter(';').withHeader("Finding", "Class", "Language", "Label", "Related"));
+		return new Sink(printer) {
+			@Override
+			void write(Finding finding) throws IOException {
+				printer.printRecord(finding.getKind(), finding.getClazz().getIRI(), finding.getLanguage(), finding.getLabel(), finding.getRelated());
+			}
+		};
+	}
+
+	/**
+	 * @return thread-safe sink writing one JSON object per line and finding
+	 */
+	public static Sink jsonLines(Writer out) throws IOException {
+		JsonGenerator json = new JsonFactory().createGenerator(out instanceof BufferedWriter ? out : new BufferedWriter(out));
+		json.setRootValueSeparator(null);
+		return new Sink(json) {
+			@Override
+			void write(Finding finding) throws IOException {
+				json.writeStartObject();
+				json.writeStringField("finding", finding.getKind().name());
+				json.writeStringField("class", finding.getClazz().getIRI().toString());
+				json.writeStringField("language", finding.getLanguage());
+				json.writeStringField("label", finding.getLabel());
+				json.writeStringField("related", finding.getRelated());
+				json.writeEndObject();
+				json.writeRaw('\n');
+			}
+		};
+	}
+
+	/**
+	 * per thread counts, findings are passed on in blocks
+	 */
+	private class Accumulator {
+		final Consumer<Finding> sink;
+		final long[] missing;
+		final long[] counts = new long[Kind.values().length];
+		final List<Finding> pending = new ArrayList<Finding>();
+		final List<Map<String, List<OWLClass>>> labels = new ArrayList<Map<String, List<OWLClass>>>();
+
+		Accumulator(int size, Consumer<Finding> sink) {
+			this.sink = sink;
+			missing = new long[size];
+			for(int i=0; i<size; i++) { labels.add(new HashMap<String, List<OWLClass>>()); }
+		}
+
+		void add(LabelIndex index, OWLClass clazz) {
+			Map<String, List<OWLLiteral>> byLanguage = index.get(clazz.getIRI(), Prefixes.RDFS_LABEL);
+
+			String[] chosen = new String[languages.length];
+			for(int i=0; i<languages.length; i++) {
+				List<OWLLiteral> literals = byLanguage.get(languages[i].equals("und") ? "" : languages[i]);
+				if(literals == null) {
+					missing[i]++;
+					found(new Finding(Kind.MISSING, clazz, languages[i], "", ""));
+				} else {
+					chosen[i] = literals.get(literals.size()-1).getLiteral();
+					labels.get(i).computeIfAbsent(chosen[i], label -> new ArrayList<OWLClass>(1)).add(clazz);
+				}
+			}
+
+			for(int i=0; i<languages.length; i++) {
+				for(int j=i+1; j<languages.length; j++) {
+					if(chosen[i] != null && chosen[i].equals(chosen[j])) {
+						found(new Finding(Kind.SAME, clazz, languages[i], chosen[i], languages[j]));
+					}
+				}
+			}
+		}
+
+		void found(Finding finding) {
+			counts[finding.getKind().ordinal()]++;
+			pending.add(finding);
+			if(pending.size() >= BLOCK) { drain(); }
+		}
+
+		void drain() {
+			synchronized (sink) {
+				pending.forEach(sink);
+			}
+			pending.clear();
+		}
+
+		Accumulator merge(Accumulator other) {
+			other.drain();
+			for(int i=0; i<missing.length; i++) {
+				missing[i] += other.missing[i];
+				Map<String, List<OWLClass>> mine = labels.get(i);
+				other.labels.get(i).forEach((label, owners) -> mine.merge(label, owners, (a, b) -> { a.addAll(b); return a; }));
+			}
+			for(int i=0; i<counts.length; i++) { counts[i] += other.counts[i]; }
+			return this;
+		}
+
+		Report report(long classes) {
+			for(int i=0; i<languages.length; i++) {
+				for(Map.Entry<String, List<OWLClass>> entry : labels.get(i).entrySet()) {
+					List<OWLClass> owners = entry.getValue();
+					if(owners.size() < 2) continue;
+
+					// the related class does not depend on the merge order
+					Collections.sort(owners);
+					for(OWLClass owner : owners) {
+						OWLClass related = owner.equals(owners.get(0)) ? owners.get(1) : owners.get(0);
+						found(new Finding(Kind.DUPLICATE, owner, languages[i], entry.getKey(), related.getIRI().toString()));
+					}
+				}
+			}
+			drain();
+
+			Map<String, Long> missingPerLanguage = new LinkedHashMap<String, Long>();
+			for(int i=0; i<languages.length; i++) { missingPerLanguage.put(languages[i], missing[i]); }
+
+			Map<Kind, Long> countPerKind = new EnumMap<Kind, Long>(Kind.class);
+			for(Kind kind : Kind.values()) { countPerKind.put(kind, counts[kind.ordinal()]); }
+
+			return new Report(classes, missingPerLanguage, countPerKind);
+		}
+	}
+
+	@Getter
+	public static class Finding {
+		private final Kind kind;
+		private final OWLClass clazz;
+		private final String language;
+		private final String label;
+		/** other language for SAME, another class with the label for DUPLICATE */
+		private final String related;
+
+		Finding(Kind kind, OWLClass clazz, String language, String label, String related) {
+			this.kind = kind;
+			this.clazz = clazz;
+			this.language = language;
+			this.label = label;
+			this.related = related;
+		}
+	}
+
+	/**
+	 * writer of findings, failures are thrown as {@link UncheckedIOException}
+	 */
+	public static abstract class Sink implements Consumer<Finding>, Flushable {
+		private final Flushable out;
+
+		private Sink(Flushable out) {
+			this.out = out;
+		}
+
+		abstract void write(Finding finding) throws IOException;
+
+		@Override
+		public synchronized void accept(Finding finding) {
+			try {
+				write(finding);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public synchronized void flush() throws IOException {
+			out.flush();
+		}
+	}
+
+	@Getter
+	public static class Report {
+		private final long classes;
+		private final Map<String, Long> missing;
+		private final Map<Kind, Long> counts;
+
+		Report(long classes, Map<String, Long> missing, Map<Kind, Long> counts) {
+			this.classes = classes;
+			this.missing = Collections.unmodifiableMap(missing);
+			this.counts = Collections.unmodifiableMap(counts);
+		}
+
+		public long count(Kind kind) {
+			return counts.get(kind);
+		}
+	}
+}
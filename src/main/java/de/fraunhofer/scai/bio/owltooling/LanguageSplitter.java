@@ -0,0 +1,315 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
+import org.eclipse.rdf4j.model.vocabulary.OWL;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.RDFWriter;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * splits an ontology file into one file per language in a single pass
+ *
+ * streaming counterpart of {@link OntologyReasoner#getLanguageOntologies}, the
+ * literals of classes are kept like {@link OntologyReasoner#filterLabelLanguageTags}:
+ * one rdfs:label in the language (otherwise an untagged one) and all literals in
+ * the language, untagged ones only for "und". Axiom annotations of such a literal
+ * follow it, the imports of the source go to every header. Everything else goes to
+ * every file.
+ *
+ * Only the triples of the current subject are held, which needs the input grouped
+ * by subject as written by the OWLAPI, Jena and rdf4j. Nested blank nodes do not
+ * end a group. A subject with literals or a class type that comes back after its
+ * group fails the split with an IOException, unsorted N-Triples have to be sorted
+ * first. Axiom annotations have to follow the group of their subject, as the
+ * OWLAPI writes them. Unlike the OWLAPI variant, annotations with IRI values are
+ * kept since they look like any other triple in the stream.
+ *
+ */
+@Slf4j
+public class LanguageSplitter {
+
+	private final static ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private final Collection<String> languages;
+	private final RDFFormat format;
+
+	/**
+	 * @param languages languages to write, "und" for untagged literals
+	 * @param format format of the written files
+	 */
+	public LanguageSplitter(Collection<String> languages, RDFFormat format) {
+		this.languages = languages;
+		this.format = format;
+	}
+
+	/**
+	 * @return written file per language
+	 */
+	public Map<String, File> split(File input, File directory, String name) throws IOException {
+		RDFFormat inputFormat = Rio.getParserFormatForFileName(input.getName())
+				.orElseThrow(() -> new IOException("unknown format of " + input.getName()));
+
+		log.info(" >> splitting {} into {} languages...", input.getName(), languages.size());
+
+		Map<String, File> files = new LinkedHashMap<String, File>();
+		List<OutputStream> streams = new ArrayList<OutputStream>();
+		try (InputStream in = new BufferedInputStream(new FileInputStream(input))) {
+			Map<String, RDFWriter> writers = new LinkedHashMap<String, RDFWriter>();
+			for(String lang : languages) {
+				File file = new File(directory, name + "_lang-" + lang + "." + format.getDefaultFileExtension());
+				OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+				streams.add(out);
+				files.put(lang, file);
+				writers.put(lang, Rio.createWriter(format, out));
+			}
+
+			RDFParser parser = Rio.createParser(inputFormat);
+			Splitter splitter = new Splitter(writers, name);
+			parser.setRDFHandler(splitter);
+			parser.parse(in, input.toURI().toString());
+
+			log.info("    {} triples, {} classes filtered", splitter.triples, splitter.classes);
+		} catch (RDFHandlerException e) {
+			if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+			throw e;
+		} finally {
+			for(OutputStream out : streams) { out.close(); }
+		}
+
+		return files;
+	}
+
+	/**
+	 * @return IRI of the bin, same as the {@link TMOntology} of getLanguageOntologies
+	 */
+	static IRI binIRI(String name, String lang) {
+		try {
+			return vf.createIRI("https://bio.scai.fraunhofer.de/ontology/"
+					+ URLEncoder.encode((name + "_lang-" + lang).replaceAll("TM_BIN", "").trim().replaceAll("\\s", "_"), "UTF-8"));
+		} catch (UnsupportedEncodingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return whether the literal of a class stays in the language, the label was chosen before
+	 */
+	static boolean keep(Statement statement, String lang, Literal label) {
+		Literal literal = (Literal) statement.getObject();
+		if(statement.getPredicate().equals(RDFS.LABEL) && !literal.equals(label)) {
+			return false;
+		}
+		return literal.getLanguage()
+				.map(tag -> tag.equalsIgnoreCase(lang))
+				.orElse(lang.equals("und"));
+	}
+
+	private static class Splitter extends AbstractRDFHandler {
+
+		private final Map<String, RDFWriter> writers;
+		private final String name;
+
+		private Resource ontology;
+		private Resource subject;
+		private boolean isClass;
+		private final List<Statement> literals = new ArrayList<Statement>();
+		// blank nodes of the group, axiom annotations among them
+		private final List<Statement> nested = new ArrayList<Statement>();
+		// subjects whose literals were decided
+		private final Set<Resource> flushed = new HashSet<Resource>();
+
+		long triples = 0;
+		long classes = 0;
+
+		Splitter(Map<String, RDFWriter> writers, String name) {
+			this.writers = writers;
+			this.name = name;
+		}
+
+		@Override
+		public void startRDF() {
+			writers.values().forEach(RDFWriter::startRDF);
+		}
+
+		@Override
+		public void handleNamespace(String prefix, String uri) {
+			writers.values().forEach(writer -> writer.handleNamespace(prefix, uri));
+		}
+
+		@Override
+		public void handleStatement(Statement statement) {
+			triples++;
+
+			// the header of the source is replaced by the one of the bins
+			if(ontology == null && statement.getPredicate().equals(RDF.TYPE) && statement.getObject().equals(OWL.ONTOLOGY)) {
+				ontology = statement.getSubject();
+				writeHeaders();
+			}
+			if(statement.getSubject().equals(ontology)) {
+				if(statement.getPredicate().equals(OWL.IMPORTS)) {
+					writers.forEach((lang, writer) -> writer.handleStatement(vf.createStatement(binIRI(name, lang), OWL.IMPORTS, statement.getObject())));
+				}
+				return;
+			}
+
+			// nested blank nodes belong to the current group
+			if(statement.getSubject() instanceof IRI) {
+				if(!statement.getSubject().equals(subject)) {
+					flush();
+					subject = statement.getSubject();
+				}
+				if(statement.getPredicate().equals(RDF.TYPE) && statement.getObject().equals(OWL.CLASS)) {
+					checkGrouped();
+					isClass = true;
+				}
+				if(statement.getObject() instanceof Literal) {
+					checkGrouped();
+					literals.add(statement);
+					return;
+				}
+			} else {
+				nested.add(statement);
+				return;
+			}
+
+			writers.values().forEach(writer -> writer.handleStatement(statement));
+		}
+
+		@Override
+		public void endRDF() {
+			flush();
+			writers.values().forEach(RDFWriter::endRDF);
+		}
+
+		private void writeHeaders() {
+			String oid = ontology.stringValue();
+			for(Map.Entry<String, RDFWriter> writer : writers.entrySet()) {
+				IRI bin = binIRI(name, writer.getKey());
+				writer.getValue().handleStatement(vf.createStatement(bin, RDF.TYPE, OWL.ONTOLOGY));
+				writer.getValue().handleStatement(vf.createStatement(bin, DCTERMS.IS_VERSION_OF, vf.createLiteral(oid)));
+				writer.getValue().handleStatement(vf.createStatement(bin, DCTERMS.LANGUAGE, vf.createLiteral(writer.getKey())));
+				writer.getValue().handleStatement(vf.createStatement(bin, DCTERMS.PROVENANCE, vf.createLiteral("filtered for lang:" + writer.getKey())));
+			}
+		}
+
+		private void checkGrouped() {
+			if(flushed.contains(subject)) {
+				throw new RDFHandlerException(new IOException("input not grouped by subject, " + subject + " comes back"));
+			}
+		}
+
+		/**
+		 * decides on the literals of the finished subject
+		 */
+		private void flush() {
+			if(isClass) {
+				classes++;
+			}
+			if(isClass || !literals.isEmpty()) {
+				flushed.add(subject);
+			}
+			Map<Resource, Statement> annotated = annotatedLiterals();
+
+			for(Map.Entry<String, RDFWriter> writer : writers.entrySet()) {
+				String lang = writer.getKey();
+
+				Literal label = null;
+				if(isClass) {
+					// the label to keep: the last one in the language, otherwise an undefined one
+					Literal untagged = null;
+					for(Statement statement : literals) {
+						if(!statement.getPredicate().equals(RDFS.LABEL)) continue;
+						Literal literal = (Literal) statement.getObject();
+						if(!literal.getLanguage().isPresent()) {
+							untagged = literal;
+						} else if(literal.getLanguage().get().equalsIgnoreCase(lang)) {
+							label = literal;
+						}
+					}
+					if(label == null) label = untagged;
+				}
+
+				for(Statement statement : literals) {
+					if(!isClass || keep(statement, lang, label)) {
+						writer.getValue().handleStatement(statement);
+					}
+				}
+				for(Statement statement : nested) {
+					// an axiom annotation goes where its literal goes
+					Statement literal = annotated.get(statement.getSubject());
+					if(!annotated.containsKey(statement.getSubject()) || (literal != null && (!isClass || keep(literal, lang, label)))) {
+						writer.getValue().handleStatement(statement);
+					}
+				}
+			}
+
+			literals.clear();
+			nested.clear();
+			isClass = false;
+		}
+
+		/**
+		 * @return the annotated literal per axiom annotation of the group, those of the ontology are dropped
+		 */
+		private Map<Resource, Statement> annotatedLiterals() {
+			Map<Resource, Resource> sources = new HashMap<Resource, Resource>();
+			Map<Resource, IRI> properties = new HashMap<Resource, IRI>();
+			Map<Resource, Literal> targets = new HashMap<Resource, Literal>();
+			for(Statement statement : nested) {
+				if(statement.getPredicate().equals(OWL.ANNOTATEDSOURCE) && statement.getObject() instanceof Resource) {
+					sources.put(statement.getSubject(), (Resource) statement.getObject());
+				} else if(statement.getPredicate().equals(OWL.ANNOTATEDPROPERTY) && statement.getObject() instanceof IRI) {
+					properties.put(statement.getSubject(), (IRI) statement.getObject());
+				} else if(statement.getPredicate().equals(OWL.ANNOTATEDTARGET) && statement.getObject() instanceof Literal) {
+					targets.put(statement.getSubject(), (Literal) statement.getObject());
+				}
+			}
+
+			Map<Resource, Statement> result = new HashMap<Resource, Statement>();
+			sources.forEach((axiom, source) -> {
+				if(source.equals(ontology)) {
+					result.put(axiom, null);
+				} else if(targets.containsKey(axiom) && properties.containsKey(axiom)) {
+					if(!source.equals(subject)) {
+						throw new RDFHandlerException(new IOException("axiom annotation of " + source + " outside its group"));
+					}
+					result.put(axiom, vf.createStatement(source, properties.get(axiom), targets.get(axiom)));
+				}
+			});
+			return result;
+		}
+	}
+}
@@ -0,0 +1,302 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.DCTerms;
+import org.apache.jena.vocabulary.RDFS;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+import lombok.Getter;
+
+/**
+ * finds the mappings of an ontology in one parallel pass
+ *
+ * a mapping is a subclass axiom with a someValuesFrom superclass whose
+ * property is one of the mapping properties, the skos matches by default.
+ * Subject and object must be named classes.
+ *
+ * The writers stream the mappings as SSSOM TSV or N-Triples after a
+ * provenance header (see {@link RDFBuilder#createProvenance(String, String, String)}).
+ * Every thread collects lines in a buffer of its own that is written when
+ * full, so the order of the lines is not fixed and the mappings are not held
+ * in memory.
+ *
+ */
+public class MappingExtractor {
+
+	public final static Set<IRI> SKOS_MATCHES = Collections.unmodifiableSet(new HashSet<IRI>(Arrays.asList(
+			Prefixes.SKOS_EXACT, Prefixes.SKOS_CLOSE, Prefixes.SKOS_BROAD, Prefixes.SKOS_NARROW, Prefixes.SKOS_RELATED)));
+
+	private final static int BUFFER = 1 << 16;
+	private final static String PROV = "http://www.w3.org/ns/prov#";
+	private final static String SKOS = "http://www.w3.org/2004/02/skos/core#";
+
+	private final OWLOntology ontology;
+	private final Set<IRI> properties;
+	private ShortFormResolver prefixManager = null;
+
+	public MappingExtractor(OWLOntology ontology) {
+		this(ontology, SKOS_MATCHES);
+	}
+
+	/**
+	 * @param properties IRIs of the mapping properties
+	 */
+	public MappingExtractor(OWLOntology ontology, Set<IRI> properties) {
+		this.ontology = ontology;
+		this.properties = properties;
+	}
+
+	/**
+	 * @param pm prefixes for the CURIEs of the SSSOM file, IRIs without prefix are written in full
+	 */
+	public MappingExtractor prefixes(DefaultPrefixManager pm) {
+		this.prefixManager = ShortFormResolver.of(pm);
+		return this;
+	}
+
+	/**
+	 * @return mappings in the order of the axioms
+	 */
+	public List<Mapping> extract() {
+		return stream().collect(Collectors.toList());
+	}
+
+	/**
+	 * @return parallel stream of the mappings, nothing is collected
+	 */
+	public Stream<Mapping> stream() {
+		return ontology.axioms(AxiomType.SUBCLASS_OF).parallel()
+				.map(this::toMapping)
+				.filter(mapping -> mapping != null);
+	}
+
+	/**
+	 * @return null if the axiom is no mapping
+	 */
+	private Mapping toMapping(OWLSubClassOfAxiom axiom) {
+		OWLClassExpression superClass = axiom.getSuperClass();
+		if(!(superClass instanceof OWLObjectSomeValuesFrom) || axiom.getSubClass().isAnonymous()) return null;
+
+		OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) superClass;
+		if(some.getProperty().isAnonymous() || some.getFiller().isAnonymous()) return null;
+
+		IRI property = some.getProperty().asOWLObjectProperty().getIRI();
+		if(!properties.contains(property)) return null;
+
+		return new Mapping(axiom.getSubClass().asOWLClass().getIRI(), property, some.getFiller().asOWLClass().getIRI());
+	}
+
+	/**
+	 * writes a SSSOM table with the provenance as metadata block
+	 *
+	 * @return number of mappings
+	 */
+	public long writeSssom(Writer out, Model provenance) throws IOException {
+		BufferedWriter writer = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out);
+
+		Map<String, String> curies = new TreeMap<String, String>();
+		curies.put("skos", SKOS);
+		curies.put("semapv", "https://w3id.org/semapv/vocab/");
+		if(prefixManager != null) {
+			prefixManager.getPrefixName2PrefixMap().forEach((prefix, iri) -> {
+				if(prefix.length() > 1) curies.put(prefix.substring(0, prefix.length()-1), iri);
+			});
+		}
+
+		writer.write("# curie_map:\n");
+		for(Map.Entry<String, String> curie : curies.entrySet()) {
+			writer.write("#   " + curie.getKey() + ": \"" + curie.getValue() + "\"\n");
+		}
+		writeMetadata(writer, provenance);
+		writer.write("subject_id\tpredicate_id\tobject_id\tmapping_justification\n");
+
+		long count = write(writer, (sb, mapping) -> sb
+				.append(curie(mapping.getSubject())).append('\t')
+				.append(curie(mapping.getPredicate())).append('\t')
+				.append(curie(mapping.getObject())).append('\t')
+				.append("semapv:UnspecifiedMatching\n"));
+		writer.flush();
+		return count;
+	}
+
+	/**
+	 * writes the provenance triples followed by one triple per mapping
+	 *
+	 * @return number of mappings
+	 */
+	public long writeNTriples(Writer out, Model provenance) throws IOException {
+		BufferedWriter writer = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out);
+		provenance.write(writer, "N-TRIPLE");
+
+		long count = write(writer, (sb, mapping) -> {
+			appendIri(sb, mapping.getSubject()).append(' ');
+			appendIri(sb, mapping.getPredicate()).append(' ');
+			appendIri(sb, mapping.getObject()).append(" .\n");
+		});
+		writer.flush();
+		return count;
+	}
+
+	/**
+	 * IRIREF of N-Triples, the characters it does not allow are written as UCHAR escapes
+	 */
+	static StringBuilder appendIri(StringBuilder sb, IRI iri) {
+		String value = iri.getIRIString();
+		sb.append('<');
+		for(int i=0; i<value.length(); i++) {
+			char c = value.charAt(i);
+			if(c <= 0x20 || "<>\"{}|^`\\".indexOf(c) >= 0) {
+				sb.append(String.format("\\u%04X", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append('>');
+	}
+
+	/**
+	 * the mapping set of the provenance as SSSOM metadata
+	 */
+	private static void writeMetadata(Writer writer, Model provenance) throws IOException {
+		Property title = provenance.createProperty(DCTerms.title.getURI());
+		for(Resource set : provenance.listSubjectsWithProperty(title).toList()) {
+			writer.write("# mapping_set_id: " + set.getURI() + "\n");
+			writer.write("# mapping_set_title: " + set.getProperty(title).getString() + "\n");
+
+			Statement derived = set.getProperty(provenance.createProperty(PROV + "wasDerivedFrom"));
+			if(derived != null) writer.write("# mapping_provider: " + derived.getObject() + "\n");
+
+			Statement agent = set.getProperty(provenance.createProperty(PROV + "wasAttributedTo"));
+			Statement tool = agent == null ? null : agent.getResource().getProperty(RDFS.label);
+			if(tool != null) writer.write("# mapping_tool: " + tool.getString() + "\n");
+
+			Statement activity = set.getProperty(provenance.createProperty(PROV + "wasGeneratedBy"));
+			Statement time = activity == null ? null : activity.getResource().getProperty(provenance.createProperty(PROV + "atTime"));
+			if(time != null) writer.write("# mapping_date: " + time.getLiteral().getLexicalForm().substring(0, 10) + "\n");
+		}
+	}
+
+	private String curie(IRI iri) {
+		if(prefixManager != null) {
+			String curie = prefixManager.getPrefixIRI(iri);
+			if(curie != null && !curie.startsWith(":")) return curie;
+		}
+		String value = iri.getIRIString();
+		if(value.startsWith(SKOS)) return "skos:" + value.substring(SKOS.length());
+		return value;
+	}
+
+	private interface Format {
+		void append(StringBuilder sb, Mapping mapping);
+	}
+
+	private long write(Writer writer, Format format) throws IOException {
+		Sink sink = new Sink(writer);
+		try {
+			Buffer all = ontology.axioms(AxiomType.SUBCLASS_OF).parallel()
+					.collect(Collector.of(() -> new Buffer(sink, format), Buffer::add, Buffer::merge));
+			all.flush();
+			return all.count;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * the writer shared by the buffers
+	 */
+	private static class Sink {
+		private final Writer writer;
+
+		Sink(Writer writer) {
+			this.writer = writer;
+		}
+
+		synchronized void write(StringBuilder sb) {
+			try {
+				writer.append(sb);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * lines of one thread
+	 */
+	private class Buffer {
+		final Sink sink;
+		final Format format;
+		final StringBuilder sb = new StringBuilder();
+		long count = 0;
+
+		Buffer(Sink sink, Format format) {
+			this.sink = sink;
+			this.format = format;
+		}
+
+		void add(OWLSubClassOfAxiom axiom) {
+			Mapping mapping = toMapping(axiom);
+			if(mapping == null) return;
+
+			format.append(sb, mapping);
+			count++;
+			if(sb.length() >= BUFFER) flush();
+		}
+
+		Buffer merge(Buffer other) {
+			sb.append(other.sb);
+			count += other.count;
+			if(sb.length() >= BUFFER) flush();
+			return this;
+		}
+
+		void flush() {
+			if(sb.length() == 0) return;
+			sink.write(sb);
+			sb.setLength(0);
+		}
+	}
+
+	@Getter
+	public static class Mapping {
+		private final IRI subject;
+		private final IRI predicate;
+		private final IRI object;
+
+		Mapping(IRI subject, IRI predicate, IRI object) {
+			this.subject = subject;
+			this.predicate = predicate;
+			this.object = object;
+		}
+
+		@Override
+		public String toString() {
+			return subject + " " + predicate + " " + object;
+		}
+	}
+}
@@ -0,0 +1,503 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * mappings of one or many ontologies for fast lookups
+ *
+ * every IRI gets an int id in UTF-8 byte order, the targets of each match type
+ * are kept as compressed adjacency (offsets and ids). The adjacency is closed
+ * under the skos semantics: exact, close and related matches hold in both
+ * directions, a broad match is a narrow match of the target and vice versa.
+ * The exact matches are grouped into equivalence clusters with a union-find
+ * pass, so all equivalents of an IRI are one contiguous range.
+ *
+ * The index lives in a single buffer with the layout of its file, so a written
+ * index is memory mapped instead of read. Files are limited to 2 GB.
+ *
+ */
+public class MappingIndex {
+
+	public enum MatchType {
+		EXACT(Prefixes.SKOS_EXACT), CLOSE(Prefixes.SKOS_CLOSE), BROAD(Prefixes.SKOS_BROAD),
+		NARROW(Prefixes.SKOS_NARROW), RELATED(Prefixes.SKOS_RELATED);
+
+		private final IRI iri;
+
+		MatchType(IRI iri) {
+			this.iri = iri;
+		}
+
+		public IRI getIRI() {
+			return iri;
+		}
+
+		/**
+		 * @return null for other properties
+		 */
+		public static MatchType of(IRI property) {
+			for(MatchType type : values()) {
+				if(type.iri.equals(property)) return type;
+			}
+			return null;
+		}
+	}
+
+	private final static int MAGIC = 0x4F574C4D; // OWLM
+	private final static int VERSION = 1;
+	private final static MatchType[] TYPES = MatchType.values();
+
+	private final ByteBuffer buffer;
+	private final int size;
+	private final String[] sources;
+	private final IntBuffer iriOffsets;
+	private final ByteBuffer iriBytes;
+	private final IntBuffer nodeSources;
+	private final IntBuffer[] offsets = new IntBuffer[TYPES.length];
+	private final IntBuffer[] targets = new IntBuffer[TYPES.length];
+	private final IntBuffer clusterOf;
+	private final IntBuffer clusterOffsets;
+	private final IntBuffer clusterMembers;
+
+	private MappingIndex(ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		Cursor cursor = new Cursor(buffer);
+
+		if(cursor.next() != MAGIC) throw new IOException("not a mapping index");
+		if(cursor.next() != VERSION) throw new IOException("unsupported mapping index version");
+		size = cursor.next();
+		int clusters = cursor.next();
+
+		sources = new String[cursor.next()];
+		for(int i=0; i<sources.length; i++) {
+			sources[i] = new String(cursor.bytes(cursor.next()), StandardCharsets.UTF_8);
+		}
+
+		iriOffsets = cursor.ints(size+1);
+		iriBytes = cursor.slice(iriOffsets.get(size));
+		nodeSources = cursor.ints(size);
+		for(int t=0; t<TYPES.length; t++) {
+			offsets[t] = cursor.ints(size+1);
+			targets[t] = cursor.ints(offsets[t].get(size));
+		}
+		clusterOf = cursor.ints(size);
+		clusterOffsets = cursor.ints(clusters+1);
+		clusterMembers = cursor.ints(size);
+	}
+
+	/**
+	 * indexes the skos matches of the ontologies, the ontology IRIs are the sources
+	 */
+	public static MappingIndex of(Collection<OWLOntology> ontologies) {
+		Builder builder = new Builder();
+		for(OWLOntology ontology : ontologies) {
+			String source = ontology.getOntologyID().getOntologyIRI().map(IRI::toString).orElse("");
+			for(MappingExtractor.Mapping mapping : new MappingExtractor(ontology).extract()) {
+				builder.add(mapping.getSubject().toString(), MatchType.of(mapping.getPredicate()), mapping.getObject().toString(), source);
+			}
+		}
+		return builder.build();
+	}
+
+	public static MappingIndex of(OWLOntology... ontologies) {
+		return of(Arrays.asList(ontologies));
+	}
+
+	/**
+	 * maps a written index, the file must not change while it is used
+	 */
+	public static MappingIndex map(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if(channel.size() > Integer.MAX_VALUE) throw new IOException("mapping index too large: " + file);
+			return new MappingIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	public void write(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer content = buffer.duplicate();
+			content.clear();
+			while(content.hasRemaining()) {
+				channel.write(content);
+			}
+		}
+	}
+
+	/**
+	 * @return number of IRIs
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return id of the IRI, -1 if it has no mappings
+	 */
+	public int id(String iri) {
+		byte[] key = iri.getBytes(StandardCharsets.UTF_8);
+		int low = 0;
+		int high = size-1;
+		while(low <= high) {
+			int middle = (low + high) >>> 1;
+			int compared = compare(middle, key);
+			if(compared < 0) low = middle+1;
+			else if(compared > 0) high = middle-1;
+			else return middle;
+		}
+		return -1;
+	}
+
+	public String iri(int id) {
+		int start = iriOffsets.get(id);
+		byte[] bytes = new byte[iriOffsets.get(id+1) - start];
+		for(int i=0; i<bytes.length; i++) {
+			bytes[i] = iriBytes.get(start+i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return ontology the IRI is mapped from, null if it is only a target
+	 */
+	public String getSource(String iri) {
+		int id = id(iri);
+		if(id < 0 || nodeSources.get(id) < 0) return null;
+		return sources[nodeSources.get(id)];
+	}
+
+	public List<String> getSources() {
+		return Collections.unmodifiableList(Arrays.asList(sources));
+	}
+
+	/**
+	 * @return IRIs connected by exact matches, directly or not, without the IRI itself
+	 */
+	public List<String> getEquivalents(String iri) {
+		int id = id(iri);
+		if(id < 0) return Collections.emptyList();
+
+		int cluster = clusterOf.get(id);
+		List<String> equivalents = new ArrayList<String>();
+		for(int i=clusterOffsets.get(cluster); i<clusterOffsets.get(cluster+1); i++) {
+			if(clusterMembers.get(i) != id) equivalents.add(iri(clusterMembers.get(i)));
+		}
+		return equivalents;
+	}
+
+	/**
+	 * @return broad match targets and narrow match sources of the IRI
+	 */
+	public List<String> getBroader(String iri) {
+		return getTargets(iri, MatchType.BROAD);
+	}
+
+	public List<String> getNarrower(String iri) {
+		return getTargets(iri, MatchType.NARROW);
+	}
+
+	public List<String> getTargets(String iri, MatchType type) {
+		int id = id(iri);
+		if(id < 0) return Collections.emptyList();
+
+		IntBuffer offset = offsets[type.ordinal()];
+		IntBuffer target = targets[type.ordinal()];
+		List<String> result = new ArrayList<String>(offset.get(id+1) - offset.get(id));
+		for(int i=offset.get(id); i<offset.get(id+1); i++) {
+			result.add(iri(target.get(i)));
+		}
+		return result;
+	}
+
+	/**
+	 * @return number of mappings of the type, counted in both directions for the symmetric ones
+	 */
+	public int count(MatchType type) {
+		return offsets[type.ordinal()].get(size);
+	}
+
+	public int getClusterCount() {
+		return clusterOffsets.limit() - 1;
+	}
+
+	private int compare(int id, byte[] key) {
+		int start = iriOffsets.get(id);
+		int length = iriOffsets.get(id+1) - start;
+		for(int i=0; i<Math.min(length, key.length); i++) {
+			int compared = (iriBytes.get(start+i) & 0xff) - (key[i] & 0xff);
+			if(compared != 0) return compared;
+		}
+		return length - key.length;
+	}
+
+	/**
+	 * reads the sections of the buffer one after another, all aligned to 4 bytes
+	 */
+	private static class Cursor {
+		private final ByteBuffer buffer;
+		private int position = 0;
+
+		Cursor(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		int next() {
+			int value = buffer.getInt(position);
+			position += 4;
+			return value;
+		}
+
+		ByteBuffer slice(int length) {
+			ByteBuffer view = buffer.duplicate();
+			view.clear().position(position).limit(position + length);
+			position += (length + 3) & ~3;
+			return view.slice();
+		}
+
+		byte[] bytes(int length) {
+			byte[] bytes = new byte[length];
+			slice(length).get(bytes);
+			return bytes;
+		}
+
+		IntBuffer ints(int count) {
+			return slice(4 * count).asIntBuffer();
+		}
+	}
+
+	/**
+	 * collects mappings and lays out the buffer of the index
+	 */
+	static class Builder {
+		private final Map<String, Integer> ids = new HashMap<String, Integer>();
+		private final List<String> iris = new ArrayList<String>();
+		private final Map<String, Integer> sourceIds = new HashMap<String, Integer>();
+		private final List<String> sources = new ArrayList<String>();
+		private int[] nodeSources = new int[16];
+		private final IntList[] edges = new IntList[TYPES.length];
+
+		Builder() {
+			for(int t=0; t<TYPES.length; t++) { edges[t] = new IntList(); }
+		}
+
+		/**
+		 * @param type null to skip the mapping
+		 */
+		void add(String subject, MatchType type, String object, String source) {
+			if(type == null) return;
+
+			int from = id(subject);
+			int to = id(object);
+			if(nodeSources[from] < 0) {
+				nodeSources[from] = sourceIds.computeIfAbsent(source, s -> { sources.add(s); return sources.size()-1; });
+			}
+			edges[type.ordinal()].add(from);
+			edges[type.ordinal()].add(to);
+		}
+
+		private int id(String iri) {
+			Integer id = ids.get(iri);
+			if(id != null) return id;
+
+			id = iris.size();
+			ids.put(iri, id);
+			iris.add(iri);
+			if(id == nodeSources.length) nodeSources = Arrays.copyOf(nodeSources, 2*id);
+			nodeSources[id] = -1;
+			return id;
+		}
+
+		MappingIndex build() {
+			int n = iris.size();
+
+			// ids in byte order of the IRIs
+			byte[][] bytes = new byte[n][];
+			Integer[] order = new Integer[n];
+			for(int i=0; i<n; i++) {
+				bytes[i] = iris.get(i).getBytes(StandardCharsets.UTF_8);
+				order[i] = i;
+			}
+			Arrays.sort(order, (a, b) -> compare(bytes[a], bytes[b]));
+			int[] rank = new int[n];
+			for(int i=0; i<n; i++) { rank[order[i]] = i; }
+
+			// directed edges of each type after closing them
+			IntList[] directed = new IntList[TYPES.length];
+			for(int t=0; t<TYPES.length; t++) { directed[t] = new IntList(); }
+			for(MatchType type : TYPES) {
+				IntList list = edges[type.ordinal()];
+				for(int i=0; i<list.size; i+=2) {
+					int from = rank[list.values[i]];
+					int to = rank[list.values[i+1]];
+					directed[type.ordinal()].add(from);
+					directed[type.ordinal()].add(to);
+					MatchType inverse = type == MatchType.BROAD ? MatchType.NARROW : type == MatchType.NARROW ? MatchType.BROAD : type;
+					directed[inverse.ordinal()].add(to);
+					directed[inverse.ordinal()].add(from);
+				}
+			}
+
+			int[][] typeOffsets = new int[TYPES.length][];
+			int[][] typeTargets = new int[TYPES.length][];
+			for(int t=0; t<TYPES.length; t++) {
+				int[][] adjacency = adjacency(n, directed[t]);
+				typeOffsets[t] = adjacency[0];
+				typeTargets[t] = adjacency[1];
+			}
+
+			// union-find over the exact matches
+			int[] parent = new int[n];
+			int[] weight = new int[n];
+			for(int i=0; i<n; i++) { parent[i] = i; weight[i] = 1; }
+			IntList exact = directed[MatchType.EXACT.ordinal()];
+			for(int i=0; i<exact.size; i+=2) {
+				int a = find(parent, exact.values[i]);
+				int b = find(parent, exact.values[i+1]);
+				if(a == b) continue;
+				if(weight[a] < weight[b]) { int swap = a; a = b; b = swap; }
+				parent[b] = a;
+				weight[a] += weight[b];
+			}
+
+			int[] clusterOf = new int[n];
+			int[] clusterIds = new int[n];
+			Arrays.fill(clusterIds, -1);
+			int clusters = 0;
+			for(int i=0; i<n; i++) {
+				int root = find(parent, i);
+				if(clusterIds[root] < 0) clusterIds[root] = clusters++;
+				clusterOf[i] = clusterIds[root];
+			}
+			int[] clusterOffsets = new int[clusters+1];
+			for(int i=0; i<n; i++) { clusterOffsets[clusterOf[i]+1]++; }
+			for(int c=0; c<clusters; c++) { clusterOffsets[c+1] += clusterOffsets[c]; }
+			int[] clusterMembers = new int[n];
+			int[] fill = Arrays.copyOf(clusterOffsets, clusters);
+			for(int i=0; i<n; i++) { clusterMembers[fill[clusterOf[i]]++] = i; }
+
+			int[] iriOffsets = new int[n+1];
+			for(int i=0; i<n; i++) { iriOffsets[i+1] = iriOffsets[i] + bytes[order[i]].length; }
+			int[] sortedSources = new int[n];
+			for(int i=0; i<n; i++) { sortedSources[i] = nodeSources[order[i]]; }
+
+			// layout
+			byte[][] sourceBytes = new byte[sources.size()][];
+			long length = 5 * 4;
+			for(int s=0; s<sourceBytes.length; s++) {
+				sourceBytes[s] = sources.get(s).getBytes(StandardCharsets.UTF_8);
+				length += 4 + padded(sourceBytes[s].length);
+			}
+			length += 4L * (n+1) + padded(iriOffsets[n]) + 4L * n;
+			for(int t=0; t<TYPES.length; t++) { length += 4L * (n+1) + 4L * typeTargets[t].length; }
+			length += 4L * n + 4L * (clusters+1) + 4L * n;
+			if(length > Integer.MAX_VALUE) throw new IllegalStateException("mapping index too large");
+
+			ByteBuffer buffer = ByteBuffer.allocate((int) length);
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(clusters).putInt(sourceBytes.length);
+			for(byte[] source : sourceBytes) {
+				buffer.putInt(source.length);
+				put(buffer, source);
+			}
+			putInts(buffer, iriOffsets);
+			int start = buffer.position();
+			for(int i=0; i<n; i++) { buffer.put(bytes[order[i]]); }
+			buffer.position(start + padded(iriOffsets[n]));
+			putInts(buffer, sortedSources);
+			for(int t=0; t<TYPES.length; t++) {
+				putInts(buffer, typeOffsets[t]);
+				putInts(buffer, typeTargets[t]);
+			}
+			putInts(buffer, clusterOf);
+			putInts(buffer, clusterOffsets);
+			putInts(buffer, clusterMembers);
+			buffer.clear();
+
+			try {
+				return new MappingIndex(buffer);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		/**
+		 * @return offsets and sorted distinct targets per node
+		 */
+		private static int[][] adjacency(int n, IntList edges) {
+			int[] offsets = new int[n+1];
+			for(int i=0; i<edges.size; i+=2) { offsets[edges.values[i]+1]++; }
+			for(int i=0; i<n; i++) { offsets[i+1] += offsets[i]; }
+			int[] targets = new int[offsets[n]];
+			int[] fill = Arrays.copyOf(offsets, n);
+			for(int i=0; i<edges.size; i+=2) { targets[fill[edges.values[i]]++] = edges.values[i+1]; }
+
+			// drop duplicates in place
+			int[] compact = new int[n+1];
+			int size = 0;
+			for(int i=0; i<n; i++) {
+				Arrays.sort(targets, offsets[i], offsets[i+1]);
+				for(int j=offsets[i]; j<offsets[i+1]; j++) {
+					if(j == offsets[i] || targets[j] != targets[j-1]) targets[size++] = targets[j];
+				}
+				compact[i+1] = size;
+			}
+			return new int[][] { compact, Arrays.copyOf(targets, size) };
+		}
+
+		private static int find(int[] parent, int node) {
+			while(parent[node] != node) {
+				parent[node] = parent[parent[node]];
+				node = parent[node];
+			}
+			return node;
+		}
+
+		private static int compare(byte[] a, byte[] b) {
+			for(int i=0; i<Math.min(a.length, b.length); i++) {
+				int compared = (a[i] & 0xff) - (b[i] & 0xff);
+				if(compared != 0) return compared;
+			}
+			return a.length - b.length;
+		}
+
+		private static int padded(int length) {
+			return (length + 3) & ~3;
+		}
+
+		private static void put(ByteBuffer buffer, byte[] bytes) {
+			int start = buffer.position();
+			buffer.put(bytes);
+			buffer.position(start + padded(bytes.length));
+		}
+
+		private static void putInts(ByteBuffer buffer, int[] values) {
+			buffer.asIntBuffer().put(values);
+			buffer.position(buffer.position() + 4 * values.length);
+		}
+	}
+
+	private static class IntList {
+		int[] values = new int[16];
+		int size = 0;
+
+		void add(int value) {
+			if(size == values.length) values = Arrays.copyOf(values, 2*size);
+			values[size++] = value;
+		}
+	}
+}
@@ -0,0 +1,349 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.semanticweb.HermiT.Configuration;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+import uk.ac.manchester.cs.owlapi.modularity.SyntacticLocalityModuleExtractor;
+
+/**
+ * classifies an ontology by splitting it into syntactic locality modules
+ *
+ * the classes are partitioned into groups and each group is classified by its
+ * own HermiT instance on the bottom module of the group signature. A bottom
+ * module contains all superclasses of its signature and preserves the
+ * subsumptions between them, so the direct superclasses found in the module
+ * are the direct superclasses in the whole ontology. The partial results are
+ * merged into one {@link Taxonomy}.
+ *
+ * A bottom module misses the assertions that make the ABox inconsistent, so
+ * consistency is checked once on the whole ontology, next to the modules.
+ *
+ */
+@Slf4j
+public class ModularClassifier {
+
+	public enum Partition {
+		/** one group per top level class of the told hierarchy */
+		ROOTS,
+		/** one group per set of classes connected by logical axioms */
+		COMPONENTS
+	}
+
+	private final OWLOntology ontology;
+	@Getter private final Partition partition;
+	@Getter private final int parallelism;
+
+	public ModularClassifier(OWLOntology ontology, Partition partition, int parallelism) {
+		this.ontology = ontology;
+		this.partition = partition;
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	public ModularClassifier(OWLOntology ontology) {
+		this(ontology, Partition.ROOTS, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @return merged class hierarchy of all modules
+	 */
+	public Taxonomy classify() {
+		long start = System.currentTimeMillis();
+		OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+
+		List<Set<OWLClass>> groups = bin(partition == Partition.ROOTS ? rootGroups() : componentGroups());
+		log.info(" >> modular classification of {} groups on {} threads", groups.size(), parallelism);
+
+		// extraction is sequential, the extractor keeps state between calls
+		SyntacticLocalityModuleExtractor extractor = new SyntacticLocalityModuleExtractor(
+				ontology.getOWLOntologyManager(), ontology.axioms(Imports.INCLUDED), ModuleType.BOT);
+
+		List<Callable<Map<OWLClass, Result>>> tasks = new ArrayList<Callable<Map<OWLClass, Result>>>();
+		for(Set<OWLClass> group : groups) {
+			Set<OWLAxiom> module = extractor.extract(new HashSet<OWLEntity>(group));
+			for(OWLClass clazz : group) { module.add(df.getOWLDeclarationAxiom(clazz)); }
+			tasks.add(() -> classify(group, module));
+		}
+
+		Map<OWLClass, Result> results = new HashMap<OWLClass, Result>();
+		boolean consistent;
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			Future<Boolean> consistency = pool.submit(() -> isConsistent(ontology));
+			for(Future<Map<OWLClass, Result>> future : pool.invokeAll(tasks)) {
+				results.putAll(future.get());
+			}
+			consistent = consistency.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ReasonerInterruptedException(e);
+		} catch (ExecutionException e) {
+			throw new OWLRuntimeException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		Taxonomy taxonomy = merge(results, consistent, df);
+		log.info("    {} nodes classified in {} ms", taxonomy.size(), System.currentTimeMillis() - start);
+		return taxonomy;
+	}
+
+	private static boolean isConsistent(OWLOntology ontology) {
+		OWLReasoner reasoner = new Reasoner(new Configuration(), ontology);
+		try {
+			return reasoner.isConsistent();
+		} finally {
+			reasoner.dispose();
+		}
+	}
+
+	/**
+	 * classifies one module and keeps the results for the classes of the group
+	 */
+	private static Map<OWLClass, Result> classify(Set<OWLClass> group, Set<OWLAxiom> module) throws Exception {
+		OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology(module);
+		OWLReasoner reasoner = new Reasoner(new Configuration(), ontology);
+
+		try {
+			Map<OWLClass, Result> results = new HashMap<OWLClass, Result>();
+
+			// assertions on the classes of the group are part of the module
+			if(!reasoner.isConsistent()) {
+				results.put(group.iterator().next(), new Result(false, false, null, null));
+				return results;
+			}
+			reasoner.precomputeInferences();
+
+			for(OWLClass clazz : group) {
+				if(!reasoner.isSatisfiable(clazz)) {
+					results.put(clazz, new Result(true, false, null, null));
+					continue;
+				}
+				results.put(clazz, new Result(true, true,
+						reasoner.getEquivalentClasses(clazz).entities().collect(Collectors.toSet()),
+						reasoner.getSuperClasses(clazz, true).entities().collect(Collectors.toSet())));
+			}
+			return results;
+		} finally {
+			reasoner.dispose();
+		}
+	}
+
+	/**
+	 * told subclasses of each top level class, shared classes go to the first root
+	 */
+	private List<Set<OWLClass>> rootGroups() {
+		OWLReasoner structural = new StructuralReasonerFactory().createReasoner(ontology);
+		Set<OWLClass> assigned = new HashSet<OWLClass>();
+		List<Set<OWLClass>> groups = new ArrayList<Set<OWLClass>>();
+
+		for(OWLClass root : OntologyReasoner.getRootClasses(structural, null, ontology, null, false)) {
+			Set<OWLClass> group = new HashSet<OWLClass>();
+			structural.getEquivalentClasses(root).entities().forEach(group::add);
+			structural.getSubClasses(root, false).entities().forEach(group::add);
+			group.removeIf(clazz -> clazz.isBuiltIn() || assigned.contains(clazz));
+			assigned.addAll(group);
+			if(!group.isEmpty()) groups.add(group);
+		}
+		structural.dispose();
+
+		Set<OWLClass> rest = ontology.classesInSignature(Imports.INCLUDED)
+				.filter(clazz -> !clazz.isBuiltIn() && !assigned.contains(clazz))
+				.collect(Collectors.toSet());
+		if(!rest.isEmpty()) groups.add(rest);
+
+		return groups;
+	}
+
+	/**
+	 * classes are connected when they occur in the same logical axiom
+	 */
+	private List<Set<OWLClass>> componentGroups() {
+		List<OWLClass> classes = ontology.classesInSignature(Imports.INCLUDED)
+				.filter(clazz -> !clazz.isBuiltIn())
+				.collect(Collectors.toList());
+		Map<OWLClass, Integer> ids = new HashMap<OWLClass, Integer>();
+		for(OWLClass clazz : classes) { ids.put(clazz, ids.size()); }
+
+		int[] components = new int[classes.size()];
+		for(int i=0; i<components.length; i++) { components[i] = i; }
+
+		ontology.logicalAxioms(Imports.INCLUDED).forEach(axiom -> {
+			int first = -1;
+			for(OWLClass clazz : (Iterable<OWLClass>) axiom.classesInSignature()::iterator) {
+				Integer id = ids.get(clazz);
+				if(id == null) continue;
+				if(first < 0) { first = id; } else { union(components, first, id); }
+			}
+		});
+
+		Map<Integer, Set<OWLClass>> groups = new HashMap<Integer, Set<OWLClass>>();
+		for(int i=0; i<components.length; i++) {
+			groups.computeIfAbsent(find(components, i), k -> new HashSet<OWLClass>()).add(classes.get(i));
+		}
+		return new ArrayList<Set<OWLClass>>(groups.values());
+	}
+
+	/**
+	 * joins small groups, a HermiT instance per class costs more than it saves
+	 */
+	private List<Set<OWLClass>> bin(List<Set<OWLClass>> groups) {
+		int total = groups.stream().mapToInt(Set::size).sum();
+		int target = Math.max(1, total / (parallelism * 4));
+
+		groups.sort(Comparator.comparingInt(Set<OWLClass>::size).reversed());
+
+		List<Set<OWLClass>> bins = new ArrayList<Set<OWLClass>>();
+		Set<OWLClass> current = null;
+		for(Set<OWLClass> group : groups) {
+			if(group.size() >= target) { bins.add(group); continue; }
+
+			if(current == null) { current = new HashSet<OWLClass>(); bins.add(current); }
+			current.addAll(group);
+			if(current.size() >= target) { current = null; }
+		}
+		return bins;
+	}
+
+	private static Taxonomy merge(Map<OWLClass, Result> results, boolean consistent, OWLDataFactory df) {
+		OWLClass thing = df.getOWLThing();
+		OWLClass nothing = df.getOWLNothing();
+
+		for(Result result : results.values()) {
+			if(!consistent || !result.consistent) {
+				return new Taxonomy(new OWLClass[][] { { thing }, { nothing } }, new int[][] { {}, { Taxonomy.TOP } }, false);
+			}
+		}
+
+		// equivalent classes may come from different modules
+		List<OWLClass> classes = new ArrayList<OWLClass>();
+		Map<OWLClass, Integer> ids = new HashMap<OWLClass, Integer>();
+		classes.add(thing); ids.put(thing, 0);
+		classes.add(nothing); ids.put(nothing, 1);
+		for(OWLClass clazz : results.keySet()) {
+			if(!ids.containsKey(clazz)) { ids.put(clazz, classes.size()); classes.add(clazz); }
+		}
+
+		int[] sets = new int[classes.size()];
+		for(int i=0; i<sets.length; i++) { sets[i] = i; }
+
+		results.forEach((clazz, result) -> {
+			int id = ids.get(clazz);
+			if(!result.satisfiable) { union(sets, Taxonomy.BOTTOM, id); return; }
+			for(OWLClass equivalent : result.equivalents) {
+				Integer other = ids.get(equivalent);
+				if(other != null) union(sets, id, other);
+			}
+		});
+
+		// top and bottom keep the ids 0 and 1
+		int[] nodeOf = new int[classes.size()];
+		Map<Integer, Integer> nodes = new HashMap<Integer, Integer>();
+		nodes.put(find(sets, Taxonomy.TOP), Taxonomy.TOP);
+		nodes.put(find(sets, Taxonomy.BOTTOM), Taxonomy.BOTTOM);
+		List<List<OWLClass>> members = new ArrayList<List<OWLClass>>();
+		members.add(new ArrayList<OWLClass>());
+		members.add(new ArrayList<OWLClass>());
+
+		for(int i=0; i<classes.size(); i++) {
+			Integer node = nodes.get(find(sets, i));
+			if(node == null) {
+				node = members.size();
+				nodes.put(find(sets, i), node);
+				members.add(new ArrayList<OWLClass>());
+			}
+			nodeOf[i] = node;
+			members.get(node).add(classes.get(i));
+		}
+
+		List<Set<Integer>> parents = new ArrayList<Set<Integer>>();
+		for(int i=0; i<members.size(); i++) { parents.add(new LinkedHashSet<Integer>()); }
+
+		results.forEach((clazz, result) -> {
+			int node = nodeOf[ids.get(clazz)];
+			if(node == Taxonomy.TOP || node == Taxonomy.BOTTOM) return;
+
+			for(OWLClass parent : result.parents) {
+				Integer id = ids.get(parent);
+				parents.get(node).add(id == null ? Taxonomy.TOP : nodeOf[id]);
+			}
+		});
+
+		// leaves are the parents of the bottom node
+		boolean[] hasChildren = new boolean[members.size()];
+		for(int i=2; i<members.size(); i++) {
+			if(parents.get(i).isEmpty()) { parents.get(i).add(Taxonomy.TOP); }
+			for(int parent : parents.get(i)) { hasChildren[parent] = true; }
+		}
+		for(int i=0; i<members.size(); i++) {
+			if(i != Taxonomy.BOTTOM && !hasChildren[i]) { parents.get(Taxonomy.BOTTOM).add(i); }
+		}
+
+		OWLClass[][] memberArray = new OWLClass[members.size()][];
+		int[][] parentArray = new int[members.size()][];
+		for(int i=0; i<members.size(); i++) {
+			memberArray[i] = members.get(i).toArray(new OWLClass[0]);
+			parentArray[i] = parents.get(i).stream().mapToInt(Integer::intValue).toArray();
+		}
+
+		return new Taxonomy(memberArray, parentArray, true);
+	}
+
+	private static int find(int[] sets, int i) {
+		while(sets[i] != i) {
+			sets[i] = sets[sets[i]];
+			i = sets[i];
+		}
+		return i;
+	}
+
+	private static void union(int[] sets, int a, int b) {
+		int rootA = find(sets, a);
+		int rootB = find(sets, b);
+		if(rootA == rootB) return;
+		// keep top and bottom as representatives
+		if(rootB < rootA) { sets[rootA] = rootB; } else { sets[rootB] = rootA; }
+	}
+
+	private static class Result {
+		final boolean consistent;
+		final boolean satisfiable;
+		final Collection<OWLClass> equivalents;
+		final Collection<OWLClass> parents;
+
+		Result(boolean consistent, boolean satisfiable, Collection<OWLClass> equivalents, Collection<OWLClass> parents) {
+			this.consistent = consistent;
+			this.satisfiable = satisfiable;
+			this.equivalents = equivalents;
+			this.parents = parents;
+		}
+	}
+}
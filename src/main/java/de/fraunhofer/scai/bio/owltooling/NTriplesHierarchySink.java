@@ -0,0 +1,83 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+
+/**
+ * writes every reported edge as rdfs:subClassOf triple between the representative classes
+ *
+ * classes of one node are written as owl:equivalentClass of the representative.
+ * Nothing is kept in memory, walk with visitOnce to avoid repeated triples.
+ *
+ */
+public class NTriplesHierarchySink implements HierarchySink {
+
+	private final static String SUBCLASS_OF = " " + ref(OWLRDFVocabulary.RDFS_SUBCLASS_OF.getIRI()) + " ";
+	private final static String EQUIVALENT_CLASS = " " + ref(OWLRDFVocabulary.OWL_EQUIVALENT_CLASS.getIRI()) + " ";
+
+	private final Writer out;
+
+	public NTriplesHierarchySink(Writer out) {
+		this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+	}
+
+	public NTriplesHierarchySink(OutputStream out) {
+		this(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public void enter(Node<OWLClass> node, int depth) {
+		// only edges and equivalences are written
+	}
+
+	@Override
+	public void edge(Node<OWLClass> parent, Node<OWLClass> child) throws IOException {
+		triple(child.getRepresentativeElement().getIRI(), SUBCLASS_OF, parent.getRepresentativeElement().getIRI());
+	}
+
+	@Override
+	public void cycle(Node<OWLClass> node) throws IOException {
+		OWLClass representative = node.getRepresentativeElement();
+		for(OWLClass clazz : node) {
+			if(!clazz.equals(representative)) triple(representative.getIRI(), EQUIVALENT_CLASS, clazz.getIRI());
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	private void triple(IRI subject, String predicate, IRI object) throws IOException {
+		out.write(ref(subject));
+		out.write(predicate);
+		out.write(ref(object));
+		out.write(" .\n");
+	}
+
+	/**
+	 * IRI reference with the characters not allowed in N-Triples escaped
+	 */
+	static String ref(IRI iri) {
+		String s = iri.toString();
+		StringBuilder sb = new StringBuilder(s.length() + 2).append('<');
+		for(int i=0; i<s.length(); i++) {
+			char c = s.charAt(i);
+			if(c <= 0x20 || "<>\"{}|^`\\".indexOf(c) >= 0) {
+				sb.append(String.format("\\u%04X", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append('>').toString();
+	}
+}
@@ -0,0 +1,116 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * assigns IRIs to name spaces with a prefix trie
+ *
+ * an IRI belongs to the prefix with the longest name space it starts with,
+ * as long as the rest is a local name like in the prefix manager. IRIs
+ * without prefix belong to the part before the first '#', the last '_' or
+ * the last '/'. Classification walks a {@link PrefixTrie} once and does not
+ * allocate for IRIs with prefix, the classifier is immutable and thread-safe.
+ *
+ */
+public class NamespaceClassifier {
+
+	public final static String SCAI = "https://bio.scai.fraunhofer.de/ontology/";
+	public final static String OBO = "http://purl.obolibrary.org/obo/";
+
+	private final PrefixTrie trie;
+
+	/**
+	 * @param prefixes name spaces by prefix name (with colon), the first name of a name space is used
+	 */
+	public NamespaceClassifier(Map<String, String> prefixes) {
+		// short forms not shorter than the IRI are not used
+		Map<String, String> usable = new TreeMap<String, String>();
+		prefixes.forEach((name, namespace) -> {
+			if(name.length() < namespace.length()) usable.put(name, namespace);
+		});
+		trie = new PrefixTrie(usable);
+	}
+
+	/**
+	 * the prefixes checkNameSpaces used to register: OBO IRIs give "GO:" for
+	 * ".../obo/GO", SCAI IRIs with '#' give "epilepsy:" for ".../ontology/epilepsy#"
+	 */
+	public static Map<String, String> detectPrefixes(Stream<String> iris) {
+		return iris.parallel()
+				.map(NamespaceClassifier::detectNamespace)
+				.filter(namespace -> namespace != null)
+				.distinct()
+				.collect(Collectors.toMap(
+						namespace -> namespace.startsWith(OBO)
+								? namespace.substring(OBO.length()) + ":"
+								: namespace.substring(SCAI.length(), namespace.length()-1) + ":",
+						namespace -> namespace,
+						(a, b) -> a.compareTo(b) <= 0 ? a : b,
+						TreeMap::new));
+	}
+
+	private static String detectNamespace(String iri) {
+		if(iri.startsWith(SCAI)) {
+			int hash = iri.indexOf('#');
+			return hash < 0 ? null : iri.substring(0, hash+1);
+		}
+		if(iri.startsWith(OBO)) {
+			int underscore = iri.indexOf('_', OBO.length());
+			return underscore < 0 ? null : iri.substring(0, underscore);
+		}
+		return null;
+	}
+
+	/**
+	 * @return prefix name, the name space for IRIs without prefix or null
+	 */
+	public String classify(String iri) {
+		int node = trie.match(iri);
+		return node > 0 ? trie.name(node) : fallback(iri);
+	}
+
+	/**
+	 * counts the IRIs per name space in parallel
+	 *
+	 * @return counts by prefix name or name space
+	 */
+	public Map<String, Long> count(Stream<String> iris) {
+		LongAdder[] counts = new LongAdder[trie.size()];
+		for(int node=0; node<counts.length; node++) {
+			if(trie.name(node) != null) counts[node] = new LongAdder();
+		}
+		Map<String, LongAdder> others = new ConcurrentHashMap<String, LongAdder>();
+
+		iris.parallel().forEach(iri -> {
+			int node = trie.match(iri);
+			if(node > 0) {
+				counts[node].increment();
+			} else {
+				String key = fallback(iri);
+				if(key != null) others.computeIfAbsent(key, k -> new LongAdder()).increment();
+			}
+		});
+
+		Map<String, Long> result = new TreeMap<String, Long>();
+		for(int node=0; node<counts.length; node++) {
+			if(counts[node] != null && counts[node].sum() > 0) result.merge(trie.name(node), counts[node].sum(), Long::sum);
+		}
+		others.forEach((key, count) -> result.merge(key, count.sum(), Long::sum));
+		return result;
+	}
+
+	private static String fallback(String iri) {
+		int hash = iri.indexOf('#');
+		if(hash >= 0) return iri.substring(0, hash);
+		int underscore = iri.lastIndexOf('_');
+		if(underscore > 0) return iri.substring(0, underscore);
+		int slash = iri.lastIndexOf('/');
+		if(slash > 0) return iri.substring(0, slash);
+		return null;
+	}
+}
@@ -1,30 +1,35 @@
 package de.fraunhofer.scai.bio.owltooling;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.eclipse.rdf4j.model.vocabulary.RDFS;
-import org.eclipse.rdf4j.model.vocabulary.SKOS;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.formats.OWLXMLDocumentFormat;
 import org.semanticweb.owlapi.formats.RDFXMLDocumentFormat;
 import org.semanticweb.owlapi.formats.TurtleDocumentFormat;
 import org.semanticweb.owlapi.io.StringDocumentTarget;
 import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.AddImport;
 import org.semanticweb.owlapi.model.AddOntologyAnnotation;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAnnotation;
-import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLLiteral;
 import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
 import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyAlreadyExistsException;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.model.OWLOntologyStorageException;
@@ -32,6 +37,7 @@ import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
 import org.semanticweb.owlapi.model.parameters.ChangeApplied;
 
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -44,19 +50,66 @@ import lombok.extern.slf4j.Slf4j;
 public class OntologyBuilder {
 	
 	public final static IRI OLS_LABEL = IRI.create("https://bio.scai.fraunhofer.de/ontology/OlsLabel");
+	public final static int DEFAULT_FLUSH_THRESHOLD = 100_000;
 
 	@Getter public OWLOntology ontology;
 	@Getter public OWLOntologyManager manager;
 	private OWLDataFactory df;
 	@Getter private IRI ontologyIRI;
+	private OntologyBuilder shared;
+	private Batch batch;
+	private OntologyContext context;
+	@Getter @Setter private InternPool pool;
+	@Getter @Setter private LabelNormalizer normalizer = LabelNormalizer.labels();
+	@Getter @Setter private LabelNormalizer prefNormalizer = LabelNormalizer.prefLabels();
 	
 	public OntologyBuilder(String iri) throws OWLOntologyCreationException {
 		manager = OWLManager.createOWLOntologyManager();
 		df = manager.getOWLDataFactory();
 		
+		pool = new InternPool(df);
 		ontologyIRI = IRI.create(iri);
 		ontology = manager.createOntology(ontologyIRI);
 	}
+
+	/**
+	 * creates the ontology in a manager of the context and uses its intern pool
+	 * 
+	 * an ontology IRI already taken in the context gets a manager of its own
+	 * and does not belong to the context
+	 */
+	public OntologyBuilder(String iri, OntologyContext context) throws OWLOntologyCreationException {
+		this.context = context;
+		pool = context.getPool();
+		ontologyIRI = pool.iri(iri);
+		try {
+			manager = context.nextManager();
+			ontology = manager.createOntology(ontologyIRI);
+		} catch (OWLOntologyAlreadyExistsException e) {
+			manager = context.createManager();
+			ontology = manager.createOntology(ontologyIRI);
+		}
+		if(!context.register(ontologyIRI, ontology)) {
+			log.warn("    {} exists in context, using own manager", ontologyIRI);
+		}
+		df = manager.getOWLDataFactory();
+	}
+
+	/**
+	 * removes the ontology from its manager, the builder must not be used afterwards
+	 */
+	public void release() {
+		// pending changes are applied like for saving
+		if(batch != null) batch.flush();
+		if(shared != null && manager.contains(shared.getOntology()) && manager.ontologies()
+				.filter(other -> other != ontology)
+				.noneMatch(other -> other.importsDeclarations().anyMatch(d -> d.getIRI().equals(shared.getOntologyIRI())))) {
+			shared.release();
+		}
+		LabelIndex.release(ontology);
+		manager.removeOntology(ontology);
+		if(context != null) context.release(ontologyIRI, ontology);
+	}
 	
 	public void addConceptLabel(IRI iri1, String label) {
 		addConceptAnnotation(iri1, getAnnotation(Prefixes.RDFS_LABEL, label));		
@@ -71,14 +124,14 @@ public class OntologyBuilder {
 		if(labelList != null && !labelList.isEmpty()) {
 			for(Label label : labelList) {
 				if(label.getContent()!= null) {
-					String displayString = label.getContent().replaceAll("&.+;", "");
+					String displayString = normalizer.normalize(label.getContent());
 					if(prefix != null) {
 						displayString = prefix + displayString;
 					}
 
 					if(label.getLanguage() != null) {
 						// English is preferred
-						if(label.getLanguage().startsWith("en") && iri2.toString().equals(SKOS.PREF_LABEL.toString())) {
+						if(label.getLanguage().startsWith("en") && iri2.equals(Prefixes.SKOS_PREF)) {
 							addConceptAnnotation(iri1, getAnnotation(OLS_LABEL, displayString));							
 						}						
 						addConceptAnnotation(iri1, getAnnotation(iri2, displayString, label.getLanguage()));
@@ -109,15 +162,15 @@ public class OntologyBuilder {
 
 	public OWLAnnotation getPrefAnnotation(String annotation, String lang) {
 		if(annotation == null) return null;
-		return getAnnotation(Prefixes.SKOS_PREF, annotation.replaceAll("[{}<>,]", "").replaceAll("&lt;", ""), lang);
+		return getAnnotation(Prefixes.SKOS_PREF, prefNormalizer.normalize(annotation), lang);
 	}
 
 	public OWLAnnotation getAnnotation(IRI iri, String annotation, String lang) {
 		if(annotation == null || iri == null) return null;
 		else if(lang == null) return getAnnotation(iri, annotation);
 		else return df.getOWLAnnotation(
-				df.getOWLAnnotationProperty(iri), 
-				df.getOWLLiteral(annotation, lang.split("-")[0])
+				pool.property(iri), 
+				pool.literal(annotation, normalizer.language(lang))
 				);
 	}
 
@@ -125,15 +178,18 @@ public class OntologyBuilder {
 		if(annotation == null || iri == null || annotation.isEmpty()) return null;
 		else {
 			return df.getOWLAnnotation(
-					df.getOWLAnnotationProperty(iri), 
-					df.getOWLLiteral(annotation)
+					pool.property(iri), 
+					pool.literal(annotation, null)
 					);
 		}
 	}
 
+	/**
+	 * @return result of the change, inside a batch whether it was queued
+	 */
 	public ChangeApplied addOntologyAnnotation(OWLAnnotation annotation) {
 		if(annotation != null) {
-			return manager.applyChange(new AddOntologyAnnotation(ontology, annotation));
+			return apply(new AddOntologyAnnotation(ontology, annotation));
 		}
 		
 		return ChangeApplied.NO_OPERATION;
@@ -142,22 +198,25 @@ public class OntologyBuilder {
 	public OWLAxiom addConceptAnnotation(IRI conceptIRI, OWLAnnotation annotation) {
 		if(conceptIRI != null && annotation != null) {
 
+			IRI property = annotation.getProperty().getIRI();
+
 			// adding synonyms
-			if(annotation.getProperty().getIRI().toString().equals(RDFS.LABEL.toString())) { 
-				OWLAxiom axiom = df.getOWLAnnotationAssertionAxiom(conceptIRI,  getAnnotation(IRI.create(SKOS.ALT_LABEL.toString()), stripAnnotation(annotation), null)); 
-				manager.applyChange(new AddAxiom(ontology,axiom));
+			if(property.equals(Prefixes.RDFS_LABEL)) { 
+				OWLAxiom axiom = df.getOWLAnnotationAssertionAxiom(conceptIRI,  getAnnotation(Prefixes.SKOS_ALT, stripAnnotation(annotation), null)); 
+				apply(new AddAxiom(ontology,axiom));
 			}
 
 			// adding ols display
-			if(annotation.getProperty().getIRI().toString().equals(SKOS.PREF_LABEL.toString()) 
-					&& getAnnotationLanguage(annotation) != null 
-					&& getAnnotationLanguage(annotation).startsWith("en")) {
-				OWLAxiom axiom = df.getOWLAnnotationAssertionAxiom(conceptIRI,  getAnnotation(IRI.create(OLS_LABEL.toString()), stripAnnotation(annotation), null)); 
-				manager.applyChange(new AddAxiom(ontology,axiom));				
+			if(property.equals(Prefixes.SKOS_PREF)) {
+				String language = getAnnotationLanguage(annotation);
+				if(language != null && language.startsWith("en")) {
+					OWLAxiom axiom = df.getOWLAnnotationAssertionAxiom(conceptIRI,  getAnnotation(OLS_LABEL, stripAnnotation(annotation), null)); 
+					apply(new AddAxiom(ontology,axiom));
+				}
 			}
 
 			OWLAxiom axiom = df.getOWLAnnotationAssertionAxiom(conceptIRI, annotation);		
-			manager.applyChange(new AddAxiom(ontology,axiom));
+			apply(new AddAxiom(ontology,axiom));
 			
 			return axiom;
 		}
@@ -165,19 +224,120 @@ public class OntologyBuilder {
 		return null;
 	}
 
+	/**
+	 * @return lexical form of a literal value, the IRI of an IRI value
+	 */
 	public String stripAnnotation(OWLAnnotation annotation) {
-		return annotation.getValue().toString().split("@")[0].split("\\^\\^")[0].replaceAll("\"", "");
+		OWLAnnotationValue value = annotation.getValue();
+		if(value instanceof OWLLiteral) return ((OWLLiteral) value).getLiteral();
+		return value.toString();
 	}
 
+	/**
+	 * @return language tag of a literal value, null if there is none
+	 */
 	public String getAnnotationLanguage(OWLAnnotation annotation) {
-		if(annotation.getValue().toString().contains("@")) {
-			return annotation.getValue().toString().split("@")[1];
+		OWLAnnotationValue value = annotation.getValue();
+		if(value instanceof OWLLiteral && ((OWLLiteral) value).hasLang()) {
+			return ((OWLLiteral) value).getLang();
 		}
 		
 		return null;
 	}
 
+	/**
+	 * buffers the changes of all add methods until the batch is flushed or closed
+	 *
+	 * a {@link ChangeApplied} returned inside the batch tells whether the change
+	 * was queued (SUCCESSFULLY) or already queued (NO_OPERATION), not whether it
+	 * changes the ontology once applied.
+	 *
+	 * @param flushThreshold number of buffered changes applied at once
+	 */
+	public Batch batch(int flushThreshold) {
+		if(batch != null) throw new IllegalStateException("batch already open");
+		batch = new Batch(flushThreshold);
+		return batch;
+	}
+
+	public Batch batch() {
+		return batch(DEFAULT_FLUSH_THRESHOLD);
+	}
+
+	/**
+	 * @return result of the change, inside a batch whether it was queued
+	 */
+	private ChangeApplied apply(OWLOntologyChange change) {
+		if(batch != null) return batch.add(change) ? ChangeApplied.SUCCESSFULLY : ChangeApplied.NO_OPERATION;
+		return manager.applyChange(change);
+	}
+
+	/**
+	 * bulk session of an {@link OntologyBuilder}, repeated changes are buffered once
+	 */
+	public class Batch implements AutoCloseable {
+
+		private final int threshold;
+		private final Set<OWLOntologyChange> changes = new LinkedHashSet<OWLOntologyChange>();
+		@Getter private long applied = 0;
+		@Getter private long duplicates = 0;
+
+		private Batch(int threshold) {
+			this.threshold = threshold;
+		}
+
+		private boolean add(OWLOntologyChange change) {
+			if(!changes.add(change)) {
+				duplicates++;
+				return false;
+			}
+			if(changes.size() >= threshold) { flush(); }
+			return true;
+		}
+
+		/**
+		 * applies the buffered changes with a single change event
+		 */
+		public void flush() {
+			if(changes.isEmpty()) return;
+
+			manager.applyChanges(new ArrayList<OWLOntologyChange>(changes));
+			applied += changes.size();
+			changes.clear();
+		}
+
+		/**
+		 * drops the buffered changes, those flushed before stay applied
+		 */
+		public void discard() {
+			log.debug("    {} buffered changes discarded", changes.size());
+			changes.clear();
+		}
+
+		@Override
+		public void close() {
+			flush();
+			batch = null;
+			log.debug("    {} changes applied, {} duplicates skipped", applied, duplicates);
+		}
+	}
+
+	/**
+	 * imports the ontology of a builder on the same manager instead of copying its axioms
+	 *
+	 * it is written next to this ontology on the first save and released with
+	 * the last ontology importing it.
+	 */
+	public void share(OntologyBuilder builder) {
+		if(builder.getManager() != manager) throw new IllegalArgumentException(builder.getOntologyIRI() + " is in another manager");
+		shared = builder;
+		apply(new AddImport(ontology, df.getOWLImportsDeclaration(builder.getOntologyIRI())));
+	}
+
 	public String printOntology() throws OWLOntologyStorageException {
+		// pending changes are written as well
+		if(batch != null) batch.flush();
+
 		// display in console
 		StringDocumentTarget target = new StringDocumentTarget();
 		manager.saveOntology(ontology, new RDFXMLDocumentFormat(), target);
@@ -185,7 +345,7 @@ public class OntologyBuilder {
 	}
 	
 	public OWLClass getOWLClass(String str) {
-		return df.getOWLClass(IRI.create(ontologyIRI+str));
+		return df.getOWLClass(pool.iri(ontologyIRI+str));
 	}
 
 	public OWLClass getOWLClass(IRI iri) {
@@ -197,8 +357,7 @@ public class OntologyBuilder {
 		OWLClass superClass = df.getOWLClass(superIRI);
 
 		OWLAxiom axiom = df.getOWLSubClassOfAxiom(owlClass, superClass);
-		AddAxiom addAxiom = new AddAxiom(ontology, axiom);
-		manager.applyChange(addAxiom);
+		apply(new AddAxiom(ontology, axiom));
 
 		return owlClass;
 	}
@@ -207,15 +366,14 @@ public class OntologyBuilder {
 		OWLIndividual individual = df.getOWLNamedIndividual(iri);
     
 		OWLClassAssertionAxiom axiom = df.getOWLClassAssertionAxiom(getOWLClass(classIRI), individual);
-		AddAxiom addAxiom = new AddAxiom(ontology, axiom);
-		manager.applyChange(addAxiom);
+		apply(new AddAxiom(ontology, axiom));
 
 		return individual;
 	}
 	
 	public OWLSubClassOfAxiom addSomeValues(OWLClass owlClass, OWLObjectSomeValuesFrom owlObjectSomeValuesFrom) {		
 		OWLSubClassOfAxiom ax = df.getOWLSubClassOfAxiom(owlClass, owlObjectSomeValuesFrom);
-		ontology.add(ax);
+		apply(new AddAxiom(ontology, ax));
 		return ax;
 	}
 
@@ -232,23 +390,38 @@ public class OntologyBuilder {
 	}
 	
 	public void saveOntology(String name, String format) throws OWLOntologyStorageException {
+		// pending changes are written as well
+		if(batch != null) batch.flush();
+
+		File file = saveOntology(ontology, name, format);
+		if(file != null && shared != null && !"file".equals(manager.getOntologyDocumentIRI(shared.getOntology()).getScheme())) {
+			// written once for all ontologies importing it
+			File sharedFile = saveOntology(shared.getOntology(), new File(file.getParentFile(), shared.getOntologyIRI().getShortForm()).getPath(), format);
+			manager.setOntologyDocumentIRI(shared.getOntology(), IRI.create(sharedFile.toURI()));
+		}
+	}
 
+	/**
+	 * @return written file, null for an unknown format
+	 */
+	private File saveOntology(OWLOntology ontology, String name, String format) throws OWLOntologyStorageException {
+		File file = null;
 		if(format.toLowerCase().equals("rdf")) {
-			File file = new File(name+".rdf");
+			file = new File(name+".rdf");
 			manager.saveOntology(ontology, new RDFXMLDocumentFormat(), IRI.create(file.toURI()));
 			log.info("Written " + file.getName());
-			
+		
 		} else if (format.toLowerCase().equals("ttl")) {
-			File file = new File(name+".ttl");
+			file = new File(name+".ttl");
 			TurtleDocumentFormat ttlFormat = new TurtleDocumentFormat();
 			if (ontology.getNonnullFormat().isPrefixOWLDocumentFormat()) {
 				ttlFormat.copyPrefixesFrom(ontology.getNonnullFormat().asPrefixOWLDocumentFormat());
 			}
 			manager.saveOntology(ontology, ttlFormat, IRI.create(file.toURI()));
 			log.info("Written " + file.getName());
-			
+		
 		} else if (format.toLowerCase().equals("owl")) {
-			File file = new File(name+".owl");
+			file = new File(name+".owl");
 			OWLXMLDocumentFormat owlxmlFormat = new OWLXMLDocumentFormat();
 			if (ontology.getNonnullFormat().isPrefixOWLDocumentFormat()) {
 				owlxmlFormat.copyPrefixesFrom(ontology.getNonnullFormat().asPrefixOWLDocumentFormat());
@@ -256,26 +429,30 @@ public class OntologyBuilder {
 			manager.saveOntology(ontology, owlxmlFormat, IRI.create(file.toURI()));
 			log.info("Written " + file.getName());
 		}
-
+		return file;
 	}
 
-	public void setOLSLabel(List<OWLClass> toBeFixed) {
-		for(OWLClass clazz : toBeFixed) {
-			Set<OWLAnnotationAssertionAxiom> annotations = ontology.annotationAssertionAxioms(clazz.getIRI())
-					.filter(annotation -> annotation.getProperty().toString().equals("rdfs:label")).collect(Collectors.toSet());
-			
-			log.info(clazz.getIRI().toString());
-			
-			// take first label
-			if(!annotations.isEmpty()) {
-				addConceptAnnotation(clazz.getIRI(), getAnnotation(OLS_LABEL, 
-						annotations.iterator().next().getValue().asLiteral().get().getLiteral()
-					));	
-			} else {
-				log.info("   PROBLEM: " + clazz.getIRI().toString());
-			}
+	/**
+	 * adds an OLS label from an rdfs:label to each class, all in one batch of changes
+	 */
+	public ChangeSummary setOLSLabel(List<OWLClass> toBeFixed) {
+		// labels still buffered are looked up as well
+		if(batch != null) batch.flush();
+		LabelIndex index = LabelIndex.of(ontology);
+
+		List<OWLOntologyChange> changes = toBeFixed.parallelStream()
+				.map(clazz -> index.find(clazz.getIRI(), Prefixes.RDFS_LABEL, null)
+						.map(label -> getAnnotation(OLS_LABEL, label.getLiteral()))
+						.map(annotation -> df.getOWLAnnotationAssertionAxiom(clazz.getIRI(), annotation)))
+				.filter(Optional::isPresent)
+				.map(axiom -> new AddAxiom(ontology, axiom.get()))
+				.collect(Collectors.toList());
+
+		if(changes.size() < toBeFixed.size()) {
+			log.warn("   PROBLEM: {} classes without rdfs:label", toBeFixed.size() - changes.size());
 		}
+
+		return ChangeSummary.apply(manager, changes, changes.size());
 	}
 
-	
 }
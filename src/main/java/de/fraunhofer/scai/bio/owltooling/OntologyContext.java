@@ -0,0 +1,105 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import lombok.Getter;
+import uk.ac.manchester.cs.owl.owlapi.OWLOntologyManagerImpl;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.NoOpReadWriteLock;
+
+/**
+ * data factory and intern pool shared by the ontologies of one build
+ *
+ * builders and providers created with the same context share their entities
+ * and literals instead of each setting up its own. By default every ontology
+ * gets a plain manager of its own on the shared data factory, so bins built
+ * on several threads do not wait for a common lock. A shared manager is only
+ * used when it is passed in, it must be thread-safe (like the concurrent one
+ * of the owlapi) if the ontologies are built concurrently. Ontologies belong
+ * to the context until they are released.
+ *
+ */
+public class OntologyContext {
+
+	// parsers, storers and factories of the owlapi for the own managers
+	private final static OWLOntologyManager TEMPLATE = OWLManager.createOWLOntologyManager();
+
+	// null if every ontology has its own manager
+	@Getter private final OWLOntologyManager manager;
+	@Getter private final OWLDataFactory dataFactory;
+	@Getter private final InternPool pool;
+	private final ConcurrentMap<IRI, OWLOntology> ontologies;
+
+	public OntologyContext() {
+		this(null);
+	}
+
+	/**
+	 * @param manager shared by all ontologies, null for a manager per ontology
+	 */
+	public OntologyContext(OWLOntologyManager manager) {
+		this.manager = manager;
+		this.dataFactory = manager != null ? manager.getOWLDataFactory() : OWLManager.getOWLDataFactory();
+		this.pool = new InternPool(dataFactory);
+		this.ontologies = new ConcurrentHashMap<IRI, OWLOntology>();
+	}
+
+	private OntologyContext(OntologyContext context, OWLOntologyManager manager) {
+		this.manager = manager;
+		this.dataFactory = context.dataFactory;
+		this.pool = context.pool;
+		this.ontologies = context.ontologies;
+	}
+
+	/**
+	 * @param manager on the data factory of the context
+	 * @return the same context with all ontologies in the manager, e.g. for imports among them
+	 */
+	public OntologyContext withManager(OWLOntologyManager manager) {
+		if(manager.getOWLDataFactory() != dataFactory) throw new IllegalArgumentException("manager on another data factory");
+		return new OntologyContext(this, manager);
+	}
+
+	/**
+	 * @return the shared manager or a new one on the data factory of the context
+	 */
+	public OWLOntologyManager nextManager() {
+		return manager != null ? manager : createManager();
+	}
+
+	/**
+	 * @return a new manager without locking on the data factory of the context
+	 */
+	public OWLOntologyManager createManager() {
+		OWLOntologyManager result = new OWLOntologyManagerImpl(dataFactory, new NoOpReadWriteLock());
+		result.getOntologyFactories().set(TEMPLATE.getOntologyFactories());
+		result.getOntologyParsers().set(TEMPLATE.getOntologyParsers());
+		result.getOntologyStorers().set(TEMPLATE.getOntologyStorers());
+		result.getIRIMappers().set(TEMPLATE.getIRIMappers());
+		return result;
+	}
+
+	/**
+	 * @return false if the IRI is already taken in the context
+	 */
+	boolean register(IRI iri, OWLOntology ontology) {
+		return ontologies.putIfAbsent(iri, ontology) == null;
+	}
+
+	void release(IRI iri, OWLOntology ontology) {
+		ontologies.remove(iri, ontology);
+	}
+
+	/**
+	 * @return number of ontologies of the context
+	 */
+	public long size() {
+		return ontologies.size();
+	}
+}
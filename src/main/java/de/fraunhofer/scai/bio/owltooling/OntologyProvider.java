@@ -26,6 +26,7 @@ public abstract class OntologyProvider {
 	@Getter private DefaultPrefixManager prefixManager;
 	@Getter private OntologyBuilder builder;
 	@Getter @Setter private String source;
+	@Getter private OntologyContext context;
 	
 	public abstract Map<IRI, String> getAnnotations();
 	public abstract IRI getOntologyIRI();
@@ -34,7 +35,9 @@ public abstract class OntologyProvider {
 
 	protected void init() throws OWLOntologyCreationException {
 
-		builder = new OntologyBuilder(getOntologyIRI().toString());
+		builder = context == null
+				? new OntologyBuilder(getOntologyIRI().toString())
+				: new OntologyBuilder(getOntologyIRI().toString(), context);
 		ontology = builder.getOntology();
 
 		prefixManager = new DefaultPrefixManager(getOntologyIRI().getIRIString());
@@ -50,4 +53,20 @@ public abstract class OntologyProvider {
 		init();
 	}
 
+	/**
+	 * subclasses call init themselves once their IRI is known
+	 * 
+	 * @param context shared data factory and intern pool of the ontology, null for none
+	 */
+	protected OntologyProvider(OntologyContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * removes the ontology from its manager and its context
+	 */
+	public void release() {
+		builder.release();
+	}
+
 }
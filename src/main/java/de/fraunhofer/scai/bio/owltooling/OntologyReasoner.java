@@ -1,21 +1,37 @@
 package de.fraunhofer.scai.bio.owltooling;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.ModelFactory;
 import org.semanticweb.HermiT.Configuration;
 import org.semanticweb.HermiT.Reasoner;
 import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.AddImport;
 import org.semanticweb.owlapi.model.AxiomType;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
@@ -23,10 +39,12 @@ import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLLiteral;
-import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
 import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.semanticweb.owlapi.model.RemoveAxiom;
 import org.semanticweb.owlapi.reasoner.ConsoleProgressMonitor;
 import org.semanticweb.owlapi.reasoner.Node;
 import org.semanticweb.owlapi.reasoner.NodeSet;
@@ -44,28 +62,43 @@ import lombok.extern.slf4j.Slf4j;
 public class OntologyReasoner {
 
     public static Set<String> checkHierarchy(OWLReasoner reasoner, DefaultPrefixManager pm, OWLOntology ontology, int maxDepth) {
-        Model model = ModelFactory.createDefaultModel();
-        Set<String> cycles = new TreeSet<String>();
-        
+        TextHierarchySink sink = new TextHierarchySink(new OutputStreamWriter(System.out), pm, ontology);
+
         Node<OWLClass> topNode = reasoner.getTopClassNode();		
-        int i = printHierarchy(topNode, reasoner, 0, pm, ontology, maxDepth, model, cycles, 0);
+        int i = walkHierarchy(topNode, reasoner, maxDepth, sink);
 
         log.info("    {} classes in hierarchy up to depth {}.\n", i, maxDepth);
 
-        return cycles;
+        return sink.getCycles();
     }
 
     public static Set<String> checkHierarchy(OWLReasoner reasoner, IRI rootIRI, DefaultPrefixManager pm, OWLOntology ontology, int maxDepth) {
-        Model model = ModelFactory.createDefaultModel();
-        Set<String> cycles = new TreeSet<String>();
+        TextHierarchySink sink = new TextHierarchySink(new OutputStreamWriter(System.out), pm, ontology);
 
         OWLClass root = ontology.entitiesInSignature(rootIRI).findFirst().get().asOWLClass();		
         Node<OWLClass> topNode = reasoner.getEquivalentClasses(root);		
-        int i = printHierarchy(topNode, reasoner, 0, pm, ontology, maxDepth, model, cycles, 0);
+        int i = walkHierarchy(topNode, reasoner, maxDepth, sink);
 
         log.info("    " + i + " classes in hierarchy" + (maxDepth>0 ? " up to depth " + maxDepth : "") + ".\n");
 
-        return cycles;
+        return sink.getCycles();
+    }
+
+    /**
+     * streams the hierarchy below the start node to the sink
+     * 
+     * @return number of visited nodes
+     */
+    public static int checkHierarchy(Node<OWLClass> start, OWLReasoner reasoner, int maxDepth, boolean visitOnce, HierarchySink sink) throws IOException {
+        return new HierarchyWalker(reasoner, maxDepth, visitOnce).walk(start, sink);
+    }
+
+    private static int walkHierarchy(Node<OWLClass> start, OWLReasoner reasoner, int maxDepth, HierarchySink sink) {
+        try {
+            return new HierarchyWalker(reasoner, maxDepth).walk(start, sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
 
@@ -78,11 +111,18 @@ public class OntologyReasoner {
     }
 
     public static boolean checkIsInTree(OWLClass clazz, OWLClass root, OWLReasoner reasoner) {
+        if(reasoner instanceof TaxonomyReasoner) {
+            return checkIsInTree(clazz, root, ((TaxonomyReasoner) reasoner).getIndex());
+        }
 
         NodeSet<OWLClass> subClses = reasoner.getSubClasses(root, false);
         return subClses.containsEntity(clazz);
     }
 
+    public static boolean checkIsInTree(OWLClass clazz, OWLClass root, TaxonomyIndex index) {
+        return index.isDescendant(clazz, root);
+    }
+
     public static List<OWLClass> checkSuperClasses(OWLClass clazz, OWLReasoner reasoner) {
 
         // Now use the reasoner to obtain the subclasses of vegetarian. We can
@@ -112,6 +152,9 @@ public class OntologyReasoner {
     }
 
     public static List<OWLClass> checkSubClasses(OWLClass clazz, OWLReasoner reasoner, boolean print) {
+        if(reasoner instanceof TaxonomyReasoner) {
+            return checkSubClasses(clazz, ((TaxonomyReasoner) reasoner).getIndex(), print);
+        }
 
         // Now use the reasoner to obtain the subclasses of vegetarian. We can
         // ask for the direct subclasses of vegetarian or all of the (proper)
@@ -128,13 +171,33 @@ public class OntologyReasoner {
         // class B and class C. In this case, we don't particularly care about
         // the equivalences, so we will flatten this set of sets and print the
         // result
-        if(print) {
-            log.info(" >> Subclasses of: " + clazz.getIRI());        
-            subClses.entities().forEach(cls -> log.info("    " + cls));        
-            log.info("\n");
-        }
+        List<OWLClass> subClasses = subClses.entities().collect(Collectors.toList());
+        if(print) { printSubClasses(clazz, subClasses); }
+
+        return subClasses;
+    }
 
-        return subClses.entities().collect(Collectors.toList());
+    /**
+     * direct subclasses from the index, like the reasoner all members of the child nodes
+     */
+    public static List<OWLClass> checkSubClasses(OWLClass clazz, TaxonomyIndex index, boolean print) {
+        int id = index.getId(clazz);
+        // unknown classes only have the bottom node below them
+        IntStream children = id < 0 ? IntStream.of(Taxonomy.BOTTOM) : index.getTaxonomy().getChildIds(id);
+
+        List<OWLClass> subClasses = children
+                .mapToObj(child -> index.getTaxonomy().getNode(child))
+                .flatMap(Node::entities)
+                .collect(Collectors.toList());
+        if(print) { printSubClasses(clazz, subClasses); }
+
+        return subClasses;
+    }
+
+    private static void printSubClasses(OWLClass clazz, List<OWLClass> subClasses) {
+        log.info(" >> Subclasses of: " + clazz.getIRI());        
+        subClasses.forEach(cls -> log.info("    " + cls));        
+        log.info("\n");
     }
 
     public static Set<OWLClass> checkUnsatisfiable(OWLReasoner reasoner) {
@@ -215,6 +278,17 @@ public class OntologyReasoner {
             config = new SimpleConfiguration(progressMonitor);
             reasoner =  reasonerFactory.createReasoner(ontology, config);
         }
+        if(name.equals("MODULAR")) {
+            reasoner = new TaxonomyReasoner(ontology, new ModularClassifier(ontology).classify());
+        }
+        if(name.equals("PROGRESSIVE")) {
+            // answers from told axioms until HermiT is done in the background
+            reasoner = new ProgressiveReasoner(ontology);
+        }
+        if(name.equals("MODULAR_COMPONENTS")) {
+            reasoner = new TaxonomyReasoner(ontology, new ModularClassifier(ontology, ModularClassifier.Partition.COMPONENTS,
+                    Runtime.getRuntime().availableProcessors()).classify());
+        }
 
         log.info(reasoner.getReasonerName() + " (" + reasoner.getReasonerVersion() + ")");
 
@@ -223,6 +297,62 @@ public class OntologyReasoner {
         return reasoner;
     }
 
+    /**
+     * restores the class hierarchy from the snapshot file if it was computed for the same axioms
+     * by the same reasoner, otherwise the reasoner is created as usual and its hierarchy is written
+     * to the snapshot file
+     */
+    public static OWLReasoner createReasoner(OWLOntology ontology, String name, File snapshot) {
+        String hash = TaxonomySnapshot.hash(ontology);
+        String key = reasonerKey(name);
+
+        if(snapshot.exists()) {
+            try {
+                Taxonomy taxonomy = TaxonomySnapshot.read(snapshot, hash, key, ontology.getOWLOntologyManager().getOWLDataFactory());
+                if(taxonomy != null) {
+                    log.info("    restored {} nodes from {}", taxonomy.size(), snapshot);
+                    return new TaxonomyReasoner(ontology, taxonomy);
+                }
+                log.info("    snapshot {} is outdated", snapshot);
+            } catch (IOException e) {
+                log.warn("    could not read snapshot {}: {}", snapshot, e.getMessage());
+            }
+        }
+
+        OWLReasoner reasoner = createReasoner(ontology, name);
+
+        if(reasoner instanceof ProgressiveReasoner) {
+            // only the inferred hierarchy is worth keeping
+            ((ProgressiveReasoner) reasoner).getInferred().thenAccept(inferred -> writeSnapshot(inferred, hash, key, snapshot));
+        } else {
+            writeSnapshot(reasoner, hash, key, snapshot);
+        }
+
+        return reasoner;
+    }
+
+    /**
+     * the requested reasoner with the versions of HermiT and the owlapi, which compute all hierarchies
+     */
+    static String reasonerKey(String name) {
+        return name + " " + implementationVersion(Reasoner.class) + " " + implementationVersion(OWLReasoner.class);
+    }
+
+    private static String implementationVersion(Class<?> clazz) {
+        Package pkg = clazz.getPackage();
+        String version = pkg != null ? pkg.getImplementationVersion() : null;
+        return version != null ? version : "unknown";
+    }
+
+    private static void writeSnapshot(OWLReasoner reasoner, String hash, String key, File snapshot) {
+        try {
+            TaxonomySnapshot.write(Taxonomy.of(reasoner), hash, key, snapshot);
+            log.info("    written snapshot {}", snapshot);
+        } catch (IOException e) {
+            log.warn("    could not write snapshot {}: {}", snapshot, e.getMessage());
+        }
+    }
+
     public static boolean checkConsistent(OWLReasoner reasoner) {
         // We can determine if the ontology is actually consistent (in this
         // case, it should be).
@@ -238,11 +368,15 @@ public class OntologyReasoner {
 
         Node<OWLClass> bottomNode = reasoner.getBottomClassNode();		
 
+        // one index instead of a descendant set per leaf
+        TaxonomyIndex index = root != null ? TaxonomyIndex.of(reasoner) : null;
+        DefaultPrefixManager shortForms = details ? ShortFormResolver.of(pm) : pm;
+
         for (Node<OWLClass> parent : reasoner.getSuperClasses(bottomNode.getRepresentativeElement(), true)) {
             if(root != null 
-                    && !checkIsInTree(parent.getRepresentativeElement(), root, reasoner)) continue;
+                    && !checkIsInTree(parent.getRepresentativeElement(), root, index)) continue;
 
-            if(details) { printNode(parent, pm, ontology, null); }
+            if(details) { printNode(parent, shortForms, ontology, null); }
             leafs.add(parent.getRepresentativeElement());
         }
 
@@ -254,12 +388,13 @@ public class OntologyReasoner {
         List<OWLClass> roots = new ArrayList<OWLClass>();
 
         Node<OWLClass> topNode = reasoner.getTopClassNode();		
+        DefaultPrefixManager shortForms = details ? ShortFormResolver.of(pm) : pm;
 
         for (Node<OWLClass> child : reasoner.getSubClasses(topNode.getRepresentativeElement(), true)) {
             if(skipNode != null 
                     && child.getRepresentativeElement().getIRI().equals(skipNode)) continue;
 
-            if(details) { printNode(child, pm, ontology, null); }
+            if(details) { printNode(child, shortForms, ontology, null); }
             roots.add(child.getRepresentativeElement());
         }
 
@@ -267,140 +402,268 @@ public class OntologyReasoner {
     }
 
     public static List<TMOntology> getTextMiningOntologies(OWLReasoner reasoner, DefaultPrefixManager pm, OWLOntology ontology, boolean skipBFO, boolean details, String prefix) throws OWLOntologyCreationException {
+        return getTextMiningOntologies(reasoner, pm, ontology, skipBFO, details, prefix, 1);
+    }
 
-        log.info(" >> collecting text mining bins...");	
+    public static List<TMOntology> getTextMiningOntologies(OWLReasoner reasoner, DefaultPrefixManager pm, OWLOntology ontology, boolean skipBFO, boolean details, String prefix, int parallelism) throws OWLOntologyCreationException {
+        return getTextMiningOntologies(reasoner, pm, ontology, skipBFO, details, prefix, parallelism, new OntologyContext());
+    }
 
-        List<TMOntology> bins = new ArrayList<TMOntology>();
+    /**
+     * @param parallelism number of bins built at the same time, more than one reads
+     *      the hierarchy and annotations from a snapshot instead of the reasoner
+     * @param context shared by all bins
+     * @return bins in the order of the root classes
+     */
+    public static List<TMOntology> getTextMiningOntologies(OWLReasoner reasoner, DefaultPrefixManager pm, OWLOntology ontology, boolean skipBFO, boolean details, String prefix, int parallelism,
+            OntologyContext context) throws OWLOntologyCreationException {
+
+        log.info(" >> collecting text mining bins...");	
 
         IRI skipNode = null;
         if(skipBFO) {   // root node of BFO ontology
             skipNode = IRI.create("http://purl.obolibrary.org/obo/BFO_0000001");
         }
 
+        Map<OWLClass, String> roots = new LinkedHashMap<OWLClass, String>();
         for(OWLClass root: getRootClasses(reasoner, pm, ontology, skipNode, false)) {
 
             String label = getLabelOfClass(ontology, root);
 
             if(label != null) {
-                label = label.split("@")[0];
+                roots.put(root, label.split("@")[0]);
+            }
+        }
 
-                TMOntology tmo = new TMOntology("TM", label.toUpperCase());
-                tmo.getBuilder().addClassWithSuperClass(root.getIRI(), OWLRDFVocabulary.OWL_THING.getIRI());
-                bins.add(tmo);
+        List<TMOntology> bins = new ArrayList<TMOntology>();
 
-                ontology.annotationAssertionAxioms(root.getIRI())
-                .forEach(axiom -> {
-                    tmo.getBuilder().getManager().applyChange(new AddAxiom(tmo.getOntology(), axiom));
-                });
+        if(parallelism <= 1) {
+            for(Map.Entry<OWLClass, String> root : roots.entrySet()) {
+                bins.add(createBin(root.getKey(), root.getValue(), details, context, subClassesOf(reasoner),
+                        clazz -> ontology.annotationAssertionAxioms(clazz.getIRI())));
+            }
+            return bins;
+        }
 
-                addSubclasses(reasoner, root, ontology, tmo);
+        // neither the reasoner nor the ontology is touched by the bins
+        Taxonomy taxonomy = reasoner instanceof TaxonomyReasoner ? ((TaxonomyReasoner) reasoner).getTaxonomy() : Taxonomy.of(reasoner);
+        Map<IRI, List<OWLAnnotationAssertionAxiom>> annotations = ontology.axioms(AxiomType.ANNOTATION_ASSERTION)
+                .filter(axiom -> axiom.getSubject().isIRI())
+                .collect(Collectors.groupingBy(axiom -> (IRI) axiom.getSubject()));
+
+        Function<OWLClass, Stream<OWLClass>> subClasses = subClassesOf(taxonomy);
+        Function<OWLClass, Stream<OWLAnnotationAssertionAxiom>> annotationsOf =
+                clazz -> annotations.getOrDefault(clazz.getIRI(), Collections.emptyList()).stream();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<TMOntology>> futures = new ArrayList<Future<TMOntology>>();
+            for(Map.Entry<OWLClass, String> root : roots.entrySet()) {
+                futures.add(pool.submit(() -> createBin(root.getKey(), root.getValue(), details, context, subClasses, annotationsOf)));
             }
+            for(Future<TMOntology> future : futures) {
+                bins.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OWLOntologyCreationException(e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof OWLOntologyCreationException) throw (OWLOntologyCreationException) e.getCause();
+            throw new OWLRuntimeException(e.getCause());
+        } finally {
+            pool.shutdown();
         }
 
         return bins;
     }
 
+    private static TMOntology createBin(OWLClass root, String label, boolean details, OntologyContext context,
+            Function<OWLClass, Stream<OWLClass>> subClasses, Function<OWLClass, Stream<OWLAnnotationAssertionAxiom>> annotations) throws OWLOntologyCreationException {
+
+        TMOntology tmo = new TMOntology("TM", label.toUpperCase(), true, context);
+        tmo.getBuilder().addClassWithSuperClass(root.getIRI(), OWLRDFVocabulary.OWL_THING.getIRI());
+
+        annotations.apply(root)
+        .forEach(axiom -> {
+            tmo.getBuilder().getManager().applyChange(new AddAxiom(tmo.getOntology(), axiom));
+        });
+
+        int collapsed = addSubclasses(root, tmo, subClasses, annotations);
+        if(details) { log.info("    {}: {} axioms, {} shared paths collapsed", label, tmo.getOntology().getAxiomCount(), collapsed); }
+
+        return tmo;
+    }
+
+    /**
+     * one ontology per language, filtered like {@link #filterLabelLanguageTags(OWLOntology, String, boolean)}
+     * 
+     * all other axioms and the imports of the source are copied once into an
+     * ontology imported by every bin, the bins only hold the ontology annotations
+     * and the kept class annotations. The bins of one call share a manager of
+     * their own.
+     */
     public static List<TMOntology> getLanguageOntologies(DefaultPrefixManager pm, OWLOntology ontology, boolean details, String name) throws OWLOntologyCreationException {
+        return getLanguageOntologies(pm, ontology, details, name, new OntologyContext());
+    }
+
+    /**
+     * @param context shared by all bins
+     */
+    public static List<TMOntology> getLanguageOntologies(DefaultPrefixManager pm, OWLOntology ontology, boolean details, String name, OntologyContext context) throws OWLOntologyCreationException {
 
         String oid = ontology.getOntologyID().getOntologyIRI().get().getIRIString();
 
         String[] languages = printLanguages(ontology, pm, details);
 
+        Set<IRI> filtered = ontology.classesInSignature().map(OWLClass::getIRI).collect(Collectors.toSet());
+
+        // imports need the bins and the shared axioms in one manager
+        OntologyContext binContext = context.withManager(context.createManager());
+        TMOntology shared = new TMOntology("shared", name, false, binContext);
+        shared.getOntology().add(ontology.axioms()
+                .filter(axiom -> !axiom.isOfType(AxiomType.ANNOTATION_ASSERTION)
+                        || !filtered.contains(((OWLAnnotationAssertionAxiom) axiom).getSubject()))
+                .collect(Collectors.toList()));
+        shared.getBuilder().getManager().applyChanges(ontology.importsDeclarations()
+                .map(declaration -> new AddImport(shared.getOntology(), declaration))
+                .collect(Collectors.toList()));
+
         List<TMOntology> bins = new ArrayList<TMOntology>();
 
         for (String lang : languages) {
             log.info("    working on {}...", lang);
 
-            TMOntology tmo = new TMOntology("lang-"+lang, name, false);
+            TMOntology tmo = new TMOntology("lang-"+lang, name, false, binContext);
 
             tmo.getBuilder().addOntologyAnnotation(tmo.getBuilder().getAnnotation(pm.getIRI("<http://purl.org/dc/terms/isVersionOf>"), oid));
             tmo.getBuilder().addOntologyAnnotation(tmo.getBuilder().getAnnotation(pm.getIRI("<http://purl.org/dc/terms/language>"), lang));
-            tmo.getBuilder().addOntologyAnnotation(tmo.getBuilder().getAnnotation(pm.getIRI("<http://purl.org/dc/terms/provenance"), "filtered for lang:"+lang));
+            tmo.getBuilder().addOntologyAnnotation(tmo.getBuilder().getAnnotation(pm.getIRI("<http://purl.org/dc/terms/provenance>"), "filtered for lang:"+lang));
 
             bins.add(tmo);
 
-            tmo.getOntology().add(ontology.getAxioms());
-            filterLabelLanguageTags(tmo.getOntology(), lang, true);
+            List<OWLAnnotationAssertionAxiom> kept = partitionAnnotations(ontology, filtered, lang).get(true);
+            tmo.getOntology().add(kept);
 
-            log.info("    lang:{} # axioms:{}", lang, tmo.getOntology().getAxiomCount());
+            tmo.getBuilder().share(shared.getBuilder());
+
+            log.info("    lang:{} # annotations:{}", lang, kept.size());
         }
+        if(bins.isEmpty()) { shared.release(); }
         return bins;
     }
 
-    public static void filterLabelLanguageTags(OWLOntology ontology, String lang, boolean includeEmpty) {
-        Set<OWLClass> classes = ontology.classesInSignature().collect(Collectors.toSet());
-
-        // check all classes and remove all annotations except 1
-        for(OWLClass clazz : classes) {
-
-            // collect all labels of class
-            Set<OWLAnnotationAssertionAxiom> annotations = ontology.annotationAssertionAxioms(clazz.getIRI())
-                    .filter(annotation -> annotation.getProperty().toString().equals("rdfs:label")).collect(Collectors.toSet());
+    /**
+     * removes the class annotations not kept in the language with a single batch of changes
+     */
+    public static ChangeSummary filterLabelLanguageTags(OWLOntology ontology, String lang, boolean includeEmpty) {
+        Set<IRI> classes = ontology.classesInSignature().map(OWLClass::getIRI).collect(Collectors.toSet());
+
+        List<OWLAnnotationAssertionAxiom> removed = partitionAnnotations(ontology, classes, lang).get(false);
+        List<OWLOntologyChange> changes = removed.stream()
+                .map(annotation -> new RemoveAxiom(ontology, annotation))
+                .collect(Collectors.toList());
+        long touched = removed.stream().map(OWLAnnotationAssertionAxiom::getSubject).distinct().count();
+
+        return ChangeSummary.apply(ontology.getOWLOntologyManager(), changes, touched);
+    }
+
+    /**
+     * splits the annotations of the classes in one parallel read-only pass
+     * 
+     * kept are one rdfs:label in the language (otherwise an undefined one) and
+     * all other literals in the language, untagged ones only for "und".
+     * 
+     * @return kept annotations under true, the others under false
+     */
+    private static Map<Boolean, List<OWLAnnotationAssertionAxiom>> partitionAnnotations(OWLOntology ontology, Set<IRI> classes, String lang) {
+        LabelIndex index = LabelIndex.of(ontology);
+
+        return ontology.axioms(AxiomType.ANNOTATION_ASSERTION).parallel()
+                .filter(annotation -> classes.contains(annotation.getSubject()))
+                .collect(Collectors.partitioningBy(annotation -> {
+                    if(annotation.getProperty().getIRI().equals(Prefixes.RDFS_LABEL)
+                            && !annotation.getValue().equals(chosenLabel(index, (IRI) annotation.getSubject(), lang))) {
+                        return false;
+                    }
+                    return annotation.getValue().asLiteral()
+                            .map(literal -> literal.hasLang() ? lang.equals(literal.getLang()) : lang.equals("und"))
+                            .orElse(false);
+                }));
+    }
+
+    /**
+     * @return the label to keep: the last one in the language, otherwise an undefined one
+     */
+    private static OWLLiteral chosenLabel(LabelIndex index, IRI clazz, String lang) {
+        List<OWLLiteral> labels = index.get(clazz, Prefixes.RDFS_LABEL, lang);
+        if(labels.isEmpty()) {
+            labels = index.get(clazz, Prefixes.RDFS_LABEL, "");
+        }
+        return labels.isEmpty() ? null : labels.get(labels.size()-1);
+    }
 
-            String label = null;
-            OWLAxiom toBeKept = null;
+    /**
+     * copies the inferred subclasses of root with their annotations into the bin
+     * 
+     * @return number of paths to classes already copied, their subtrees are copied only once
+     */
+    public static int addSubclasses(OWLReasoner reasoner, OWLClass root, OWLOntology ontology, OntologyProvider tmo) {
+        return addSubclasses(root, tmo, subClassesOf(reasoner), clazz -> ontology.annotationAssertionAxioms(clazz.getIRI()));
+    }
 
-            // check rdfs:label languages
-            for(OWLAnnotationAssertionAxiom annotation : annotations ) {
-                // correct one
-                if(annotation.getValue().asLiteral().get().hasLang() &&
-                        lang.equals(annotation.getValue().asLiteral().get().getLang())) {
-                    label = annotation.getValue().asLiteral().get().getLiteral();
-                    toBeKept = annotation;
-                }
+    /**
+     * direct subclasses, one class per node, read from the index of a taxonomy reasoner
+     */
+    private static Function<OWLClass, Stream<OWLClass>> subClassesOf(OWLReasoner reasoner) {
+        if(reasoner instanceof TaxonomyReasoner) {
+            return subClassesOf(((TaxonomyReasoner) reasoner).getIndex().getTaxonomy());
+        }
+        return clazz -> reasoner.getSubClasses(clazz, true).nodes()
+                .map(Node::getRepresentativeElement)
+                .filter(subClass -> !subClass.isOWLNothing());
+    }
 
-                // only an undefined one
-                if(!annotation.getValue().asLiteral().get().hasLang() && label == null) {
-                    label = annotation.getValue().asLiteral().get().getLiteral();                    
-                    toBeKept = annotation;
-                }
-            }
+    private static Function<OWLClass, Stream<OWLClass>> subClassesOf(Taxonomy taxonomy) {
+        return clazz -> {
+            int id = taxonomy.getId(clazz);
+            if(id < 0) return Stream.empty();
+            return taxonomy.getChildIds(id)
+                    .mapToObj(child -> taxonomy.getNode(child).getRepresentativeElement())
+                    .filter(subClass -> !subClass.isOWLNothing());
+        };
+    }
 
-            if(toBeKept !=  null) { annotations.remove(toBeKept); }
-            ontology.remove(annotations);
+    private static int addSubclasses(OWLClass root, OntologyProvider tmo,
+            Function<OWLClass, Stream<OWLClass>> subClasses, Function<OWLClass, Stream<OWLAnnotationAssertionAxiom>> annotations) {
 
-            // check all language tags 
-            List<OWLAxiom> toKeepAll = new ArrayList<OWLAxiom>();
-            annotations = ontology.getAnnotationAssertionAxioms(clazz.getIRI());
+        OWLDataFactory df = tmo.getBuilder().getManager().getOWLDataFactory();
+        List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+        Set<OWLClass> visited = new HashSet<OWLClass>();
+        Deque<OWLClass> stack = new ArrayDeque<OWLClass>();
+        int collapsed = 0;
 
-            for(OWLAnnotationAssertionAxiom annotation : annotations ) {
-                // correct one
-                if(annotation.getValue().asLiteral().isPresent()) {
-                    if(annotation.getValue().asLiteral().get().hasLang() &&
-                            lang.equals(annotation.getValue().asLiteral().get().getLang())) {
-                        toKeepAll.add(annotation);
-                    }
-                    if(!annotation.getValue().asLiteral().get().hasLang() &&
-                            lang.equals("und")) {
-                        toKeepAll.add(annotation);
-                    }
-                }
-            }
+        visited.add(root);
+        stack.push(root);
 
-            annotations.removeAll(toKeepAll); 
-            ontology.remove(annotations);
-        }
-    }
+        while(!stack.isEmpty()) {
+            OWLClass parent = stack.pop();
 
+            for(OWLClass clazz : (Iterable<OWLClass>) subClasses.apply(parent)::iterator) {
+                // every edge is kept, the subtree is copied once
+                changes.add(new AddAxiom(tmo.getOntology(), df.getOWLSubClassOfAxiom(clazz, parent)));
 
-    public static void addSubclasses(OWLReasoner reasoner, OWLClass root, OWLOntology ontology, OntologyProvider tmo) {
-        NodeSet<OWLClass> subClses = reasoner.getSubClasses(root, true);
+                if(!visited.add(clazz)) {
+                    collapsed++;
+                    continue;
+                }
 
-        for(Node<OWLClass> subClass :  subClses) {
-            OWLClass clazz = subClass.getRepresentativeElement();
-            if(clazz.getIRI().equals(OWLRDFVocabulary.OWL_NOTHING.getIRI())) {
-                continue;
+                annotations.apply(clazz).forEach(axiom -> changes.add(new AddAxiom(tmo.getOntology(), axiom)));
+                stack.push(clazz);
             }
-
-            tmo.getBuilder().addClassWithSuperClass(clazz.getIRI(), root.getIRI());
-
-            ontology.annotationAssertionAxioms(clazz.getIRI())
-            .forEach(axiom -> {
-                tmo.getBuilder().getManager().applyChange(new AddAxiom(tmo.getOntology(), axiom));
-            });
-
-            addSubclasses(reasoner, clazz, ontology, tmo);
         }
+
+        tmo.getBuilder().getManager().applyChanges(changes);
+        return collapsed;
     }
 
     public static Map<String, List<String>> getTextMiningBins(OWLReasoner reasoner, DefaultPrefixManager pm, OWLOntology ontology, IRI skipNode, boolean details) {
@@ -408,6 +671,7 @@ public class OntologyReasoner {
         log.info(" >> collecting text mining bins...");	
 
         Map<String, List<String>> bins = new HashMap<String, List<String>>();
+        ShortFormResolver shortForms = ShortFormResolver.of(pm);
 
         for(OWLClass root: getRootClasses(reasoner, pm, ontology, skipNode, false)) {
             NodeSet<OWLClass> subClses = reasoner.getSubClasses(root, true);
@@ -420,7 +684,7 @@ public class OntologyReasoner {
                     if(!bins.containsKey(label)) {
                         bins.put(label, new ArrayList<String>());
                     }
-                    String concept = pm.getShortForm(subClass.getRepresentativeElement()).replaceAll(":_", ":");
+                    String concept = shortForms.getShortForm(subClass.getRepresentativeElement()).replaceAll(":_", ":");
                     if(!concept.contains("owl:")) {
                         bins.get(label).add(concept);
                     }
@@ -439,32 +703,24 @@ public class OntologyReasoner {
     }
 
     public static int printHierarchy(Node<OWLClass> parent, OWLReasoner reasoner, int depth, DefaultPrefixManager pm, OWLOntology ontology, int maxDepth, Model model, Set<String> cycles, int i) {
-        // We don't want to print out the bottom node (containing owl:Nothing
-        // and unsatisfiable classes) because this would appear as a leaf node
-        // everywhere
-        if (parent.isBottomNode() || (depth>=maxDepth && maxDepth>0)) {
-            return i;
-        }
-        // Print an indent to denote parent-child relationships
-        printIndent(depth);
-        // Now print the node (containing the child classes)
-        printNode(parent, pm, ontology, cycles);
-        i++;
-
-        for (Node<OWLClass> child : reasoner.getSubClasses(
-                parent.getRepresentativeElement(), true)) {
-            // Recurse to do the children. Note that we don't have to worry
-            // about cycles as there are non in the inferred class hierarchy
-            // graph - a cycle gets collapsed into a single node since each
-            // class in the cycle is equivalent.
-
-            if(!child.isBottomNode()) {
-                RDFBuilder.addSubClass(model, parent.entities().findFirst().get(), child.entities().findFirst().get());
+        // the walker skips the bottom node (containing owl:Nothing and 
+        // unsatisfiable classes), it would appear as a leaf node everywhere
+        TextHierarchySink sink = new TextHierarchySink(new OutputStreamWriter(System.out), pm, ontology) {
+            @Override
+            public void edge(Node<OWLClass> from, Node<OWLClass> to) {
+                if(model != null) {
+                    RDFBuilder.addSubClass(model, from.getRepresentativeElement(), to.getRepresentativeElement());
+                }
             }
+        };
 
-            i = printHierarchy(child, reasoner, depth + 1, pm, ontology, maxDepth, model, cycles, i);
+        try {
+            i += new HierarchyWalker(reasoner, maxDepth).walk(parent, depth, sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
 
+        if(cycles != null) { cycles.addAll(sink.getCycles()); }
         return i;
     }
 
@@ -520,22 +776,9 @@ public class OntologyReasoner {
 
     public static String getAnnotationOfClass(OWLOntology ontology, OWLClass cls, String property, String language) {
 
-        Optional<OWLAnnotationAssertionAxiom> axiom = null;
-
-        if(language == null) {
-            axiom = ontology.annotationAssertionAxioms(cls.getIRI())
-                    .filter(annotation -> annotation.getProperty().toString().equals(property))
-                    .findFirst();
-        } else {
-            axiom = ontology.annotationAssertionAxioms(cls.getIRI())
-                    .filter(annotation -> annotation.getProperty().toString().equals(property)
-                            && annotation.getValue().asLiteral().isPresent()
-                            && annotation.getValue().asLiteral().get().hasLang()
-                            && annotation.getValue().asLiteral().get().getLang().startsWith(language))
-                    .findFirst();
-        }
+        Optional<OWLLiteral> literal = LabelIndex.of(ontology).find(cls.getIRI(), LabelIndex.resolve(property), language);
 
-        if(axiom.isPresent()) return axiom.get().getValue().asLiteral().get().getLiteral().replaceAll("\n", "");
+        if(literal.isPresent()) return literal.get().getLiteral().replaceAll("\n", "");
         return null;
     }
 
@@ -546,18 +789,15 @@ public class OntologyReasoner {
     public static String printLabelsOfClass(OWLOntology ontology, OWLClass cls, String language) {
         StringBuilder sb = new StringBuilder();
 
-        ontology.annotationAssertionAxioms(cls.getIRI())
-        .filter(annotation -> annotation.getProperty().toString().equals("rdfs:label"))
-        .forEachOrdered(annotation -> {
+        LabelIndex.of(ontology).get(cls.getIRI(), Prefixes.RDFS_LABEL)
+        .forEach((lang, literals) -> {
 
             if(language == null || 
-                    (annotation.getValue().asLiteral().isPresent() 
-                            && annotation.getValue().asLiteral().get().hasLang()
-                            && annotation.getValue().asLiteral().get().getLang().startsWith(language)
-                            )
-                    ) {
+                    (!lang.isEmpty() && lang.startsWith(language))) {
 
-                sb.append((" " + annotation.getValue().toString().replaceAll("\n", "")));
+                for(OWLLiteral literal : literals) {
+                    sb.append((" " + literal.toString().replaceAll("\n", "")));
+                }
             }
         });
 
@@ -565,6 +805,9 @@ public class OntologyReasoner {
     }
 
 
+    /**
+     * collects the skos mappings into a model, see {@link MappingExtractor} for streaming them
+     */
     public static Model checkMappings(OWLOntology ontology, DefaultPrefixManager pm, String ontologyIri, String name, String origsource, boolean details) {
         log.info(" >> Checking mappings...");
 
@@ -573,38 +816,53 @@ public class OntologyReasoner {
                 RDFBuilder.createProvenance(ontologyIri, name, origsource)
                 );
 
-        // model.getNsPrefixMap();		
-
-        AtomicInteger i= new AtomicInteger(0);
-        ontology.axioms(AxiomType.SUBCLASS_OF)
-        .filter(ax -> ax.getSuperClass() instanceof OWLObjectSomeValuesFrom)
-        .forEach(ax -> {
-
-            OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) ax.getSuperClass();
-
-            if(some.getProperty().asOWLObjectProperty().getIRI().toString().contains("Match") ) {
-                if(details) {
-                    StringBuilder sb = new StringBuilder("    ");
-                    sb.append(printShortForm(pm, ax.getSubClass().asOWLClass()));
-                    sb.append(" ");
-                    sb.append(pm.getShortForm(some.getProperty().asOWLObjectProperty().getIRI()) + " ");
-                    sb.append(printShortForm(pm, some.getFiller().asOWLClass()));
-                    sb.append("\n");
-                    log.info(sb.toString());
-                }
-
-                RDFBuilder.addSubClassAxiom(model, ax, some);
-                i.incrementAndGet();
+        List<MappingExtractor.Mapping> mappings = new MappingExtractor(ontology).extract();
+        ShortFormResolver shortForms = details ? ShortFormResolver.of(pm) : null;
+
+        // Jena models are not thread-safe
+        for(MappingExtractor.Mapping mapping : mappings) {
+            if(details) {
+                StringBuilder sb = new StringBuilder("    ");
+                sb.append(shortForms.print(mapping.getSubject()));
+                sb.append(" ");
+                sb.append(shortForms.getShortForm(mapping.getPredicate()) + " ");
+                sb.append(shortForms.print(mapping.getObject()));
+                sb.append("\n");
+                log.info(sb.toString());
             }
+
+            RDFBuilder.addMapping(model, mapping);
         }
-                );
 
         if(details) log.info("\n");
-        log.info( "    " + i.toString() + " mappings found.\n");
+        log.info( "    " + mappings.size() + " mappings found.\n");
 
         return model;
     }
 
+    /**
+     * streams the provenance and the mappings as N-Triples, neither a model nor
+     * a list of mappings is built
+     * 
+     * @return number of mappings
+     */
+    public static long checkMappings(OWLOntology ontology, DefaultPrefixManager pm, String ontologyIri, String name, String origsource, boolean details, Writer out) throws IOException {
+        log.info(" >> Checking mappings...");
+
+        MappingExtractor extractor = new MappingExtractor(ontology);
+        if(details) {
+            ShortFormResolver shortForms = ShortFormResolver.of(pm);
+            extractor.stream().forEach(mapping -> log.info("    " + shortForms.print(mapping.getSubject())
+                    + " " + shortForms.getShortForm(mapping.getPredicate())
+                    + " " + shortForms.print(mapping.getObject()) + "\n"));
+            log.info("\n");
+        }
+
+        long count = extractor.writeNTriples(out, RDFBuilder.createProvenance(ontologyIri, name, origsource));
+        log.info( "    " + count + " mappings found.\n");
+        return count;
+    }
+
     public static String[] printLanguages(OWLOntology ontology, DefaultPrefixManager pm, boolean details) {
         return checkLanguages(ontology, pm, details).toArray(new String[0]);
     }
@@ -617,14 +875,11 @@ public class OntologyReasoner {
         Map<String, Integer>counts = new HashMap<String, Integer>();
 
         Set<OWLClass> classes = ontology.classesInSignature().collect(Collectors.toSet());
+        LabelIndex index = LabelIndex.of(ontology);
 
-        // building index
         for(OWLClass clazz : classes) {
-            Set<OWLAnnotationAssertionAxiom> annotations = ontology.annotationAssertionAxioms(clazz.getIRI())
-                    .filter(annotation -> annotation.getProperty().toString().equals("rdfs:label")).collect(Collectors.toSet());
-
-            for(OWLAnnotationAssertionAxiom annotation : annotations ) {
-                String language = annotation.getValue().asLiteral().get().getLang();
+            for(Map.Entry<String, List<OWLLiteral>> entry : index.get(clazz.getIRI(), Prefixes.RDFS_LABEL).entrySet()) {
+                String language = entry.getKey();
 
                 if(language.isEmpty()) {
                     language = "und";
@@ -635,7 +890,7 @@ public class OntologyReasoner {
                     if (!counts.containsKey(language)) {
                         counts.put(language, 0);
                     }
-                    counts.put(language, counts.get(language)+1);
+                    counts.put(language, counts.get(language)+entry.getValue().size());
                 }
             }
         }
@@ -648,152 +903,63 @@ public class OntologyReasoner {
         return languages;
     }
 
+    /**
+     * @param details writes all findings as CSV to System.out
+     * @return classes missing a label in the preferred language, null if there are none
+     */
     public static List<OWLClass> checkAnnotations(OWLOntology ontology, DefaultPrefixManager pm, String[] languages, boolean details, Object prefLanguage) {
         log.info(" >> Checking missing labels...");
 
-        Set<OWLClass> classes = ontology.classesInSignature().collect(Collectors.toSet());
-        List<OWLClass> toBeFixed = null;
-
-        Map<String, Map<OWLClass,Optional<OWLLiteral>>> labels = new HashMap<String, Map<OWLClass, Optional<OWLLiteral>>>();
-        for(String lang : languages) {
-            labels.put(lang, new HashMap<OWLClass,Optional<OWLLiteral>>());
-        }
-
-        // building index
-        for(OWLClass clazz : classes) {
-            Set<OWLAnnotationAssertionAxiom> annotations = ontology.annotationAssertionAxioms(clazz.getIRI())
-                    .filter(annotation -> annotation.getProperty().toString().equals("rdfs:label")).collect(Collectors.toSet());
-
-            for(OWLAnnotationAssertionAxiom annotation : annotations ) {
-                String lang = annotation.getValue().asLiteral().get().getLang();
-
-                if(!labels.containsKey(lang)) {
-                    labels.put(lang, new HashMap<OWLClass,Optional<OWLLiteral>>());
-                }				
-                labels.get(lang).put(clazz, annotation.getValue().asLiteral()); 
-            }
-        }
-
-        // searching languages
-        Map<String, Integer> missing = new HashMap<String, Integer>();
-        for(String lang : languages) {
-            for(OWLClass clazz : classes) {
-                if(!labels.get(lang).containsKey(clazz)) {
-                    if(details) {
-                        StringBuilder sb = new StringBuilder("    ERROR language " + lang + " tag missing for: ");
-
-                        sb.append(printShortForm(pm, clazz));
-                        sb.append(printLabelsOfClass(ontology, clazz));
-
-                        log.info(sb.toString());
-                    }
-
-                    if(prefLanguage != null && lang.equals(prefLanguage)) {
-                        if(toBeFixed == null) { toBeFixed = new ArrayList<OWLClass>(); }
-                        toBeFixed.add(clazz);
-                    }
-
-                    if(!missing.containsKey(lang)) { missing.put(lang, 0); }
-                    missing.put(lang, missing.get(lang)+1);
-                }
-            }
-
-            if(details) log.info("\n");
-            log.info( "    Language tag-" + lang + " missing " + missing.get(lang)  + " of " + ontology.classesInSignature().count() + " labels.");
-        }
-
-        if(details) log.info("\n");
-
-        int same = 0;
-        for(int i=0; i< languages.length; i++) {
-            for(int j=i+1; j< languages.length; j++) {
-
-                for(OWLClass clazz : labels.get(languages[j]).keySet()) {
-                    if(labels.get(languages[i]).containsKey(clazz)) {
-                        if(labels.get(languages[i]).get(clazz).get().getLiteral() .equals(labels.get(languages[j]).get(clazz).get().getLiteral())) {
-                            if(details) {
-                                StringBuilder sb = new StringBuilder("    WARN same: ");
-                                sb.append(pm.getShortForm(clazz));
-                                sb.append(printLabelsOfClass(ontology, clazz));
-                                log.info(sb.toString());
-                            }
-                            same++;
-                        }
-                    }
+        List<OWLClass> toBeFixed = new ArrayList<OWLClass>();
+        LabelQualityAnalyzer.Report report;
+        try {
+            LabelQualityAnalyzer.Sink csv = details ? LabelQualityAnalyzer.csv(new OutputStreamWriter(System.out)) : null;
+            report = new LabelQualityAnalyzer(ontology, Arrays.asList(languages)).analyze(finding -> {
+                if(prefLanguage != null && finding.getKind() == LabelQualityAnalyzer.Kind.MISSING && finding.getLanguage().equals(prefLanguage.toString())) {
+                    toBeFixed.add(finding.getClazz());
                 }
-            }
+                if(csv != null) { csv.accept(finding); }
+            });
+            if(csv != null) { csv.flush(); }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
 
-        log.info( "    Labels are same between languages: " + same + " of " + ontology.classesInSignature().count() + " labels.\n");
-
-        return toBeFixed;
-    }
+        report.getMissing().forEach((lang, count) ->
+            log.info( "    Language tag-" + lang + " missing " + count + " of " + report.getClasses() + " labels."));
+        log.info( "    Labels are same between languages: " + report.count(LabelQualityAnalyzer.Kind.SAME) + " of " + report.getClasses() + " labels.");
+        log.info( "    Labels shared by classes: " + report.count(LabelQualityAnalyzer.Kind.DUPLICATE) + " of " + report.getClasses() + " labels.\n");
 
-    private static String printShortForm(DefaultPrefixManager pm, OWLClass clazz) {
-        String pre1 = pm.getPrefixIRI(clazz.getIRI());
-        if(pre1 != null) {
-            String pre2 = pm.getPrefix(pre1.substring(0, pre1.indexOf(":")+1));
-            String post = clazz.getIRI().toString().substring(clazz.getIRI().toString().indexOf(pre2)+pre2.length());
-            return(pre1.substring(0, pre1.indexOf(":")+1)+post);
-        } else {
-            return(clazz.getIRI().toString());			
-        }
+        if(prefLanguage == null) return null;
+        return toBeFixed.isEmpty() ? null : toBeFixed;
     }
 
-
+    /**
+     * counts the classes per name space with a {@link NamespaceClassifier}
+     * 
+     * the prefixes detected for OBO and SCAI IRIs are registered in the prefix
+     * manager after counting.
+     */
     public static Map<String, Integer> checkNameSpaces(OWLOntology ontology, DefaultPrefixManager pm) {
         log.info(" >> Distribution over name spaces:");
 
-        Set<OWLClass> classes = ontology.classesInSignature().collect(Collectors.toSet());
+        // https://bio.scai.fraunhofer.de/ontology/epilepsy#focal_cognitive_seizure_with_conduction_dysphasia/aphasia
+        // https://bio.scai.fraunhofer.de/ontology/epilepsy#familial_(autosomal_dominant)_focal_epilepsy
+        // <https://bio.scai.fraunhofer.de/ontology/epilepsy#14Hz_and_6Hz_positive_spike>
+        // https://bio.scai.fraunhofer.de/ontology/epilepsyZung_self-rating_anxiety 1
+        // mental_disorder: 1 { https://bio.scai.fraunhofer.de/ontology/mental_disorder# }
+        // https://bio.scai.fraunhofer.de/ontology/78410c86_1712_44d7_afa8
+        //     epilepsy: 414 { https://bio.scai.fraunhofer.de/ontology/epilepsy# }
 
-        Map<String, Integer> nameSpaces = new TreeMap<String, Integer>();
-        for(OWLClass clazz : classes) {
-            String key = null;
-            String iri = clazz.getIRI().toString();
-
-            if(iri.startsWith("https://bio.scai.fraunhofer.de/ontology/")) {
-                if(iri.contains("#")) {
-                    String prefix = iri.substring(0,iri.indexOf("#")+1);
-                    String inputPrefixName = iri.substring(iri.indexOf("ontology/")+9,iri.indexOf("#"))+":";				 
-                    pm.setPrefix(inputPrefixName, prefix);
-                } else {
-                    iri.toString();
-                    // https://bio.scai.fraunhofer.de/ontology/0000419
-                }
+        Map<String, String> detected = NamespaceClassifier.detectPrefixes(ontology.classesInSignature().map(clazz -> clazz.getIRI().toString()));
+        Map<String, String> prefixes = new HashMap<String, String>(pm.getPrefixName2PrefixMap());
+        prefixes.putAll(detected);
 
-            }
-
-            // https://bio.scai.fraunhofer.de/ontology/epilepsy#focal_cognitive_seizure_with_conduction_dysphasia/aphasia
-            // https://bio.scai.fraunhofer.de/ontology/epilepsy#familial_(autosomal_dominant)_focal_epilepsy
-            // <https://bio.scai.fraunhofer.de/ontology/epilepsy#14Hz_and_6Hz_positive_spike>
-            // https://bio.scai.fraunhofer.de/ontology/epilepsyZung_self-rating_anxiety 1
-            // mental_disorder: 1 { https://bio.scai.fraunhofer.de/ontology/mental_disorder# }
-            // https://bio.scai.fraunhofer.de/ontology/78410c86_1712_44d7_afa8
-            //     epilepsy: 414 { https://bio.scai.fraunhofer.de/ontology/epilepsy# }
-
-            if(iri.startsWith("http://purl.obolibrary.org/obo/")) {				 
-                String prefix = iri.substring(0,iri.indexOf("_"));
-                String inputPrefixName = iri.substring(iri.indexOf("obo/")+4,iri.indexOf("_"))+":";				 
-                pm.setPrefix(inputPrefixName, prefix);
-            }
-
-            if(pm.getShortForm(clazz) != null && pm.getShortForm(clazz).length() < clazz.getIRI().toString().length()) {
-                key = pm.getShortForm(clazz).split(":")[0]+":";
-            } else if (iri.contains("#")) {
-                key = iri.split("#")[0];
-            } else if (iri.lastIndexOf("_") >0) {
-                key = iri.substring(0, clazz.getIRI().toString().lastIndexOf("_"));				
-            } else if (iri.lastIndexOf("/") >0) {
-                key = iri.substring(0, clazz.getIRI().toString().lastIndexOf("/"));
-            }
+        Map<String, Long> counts = new NamespaceClassifier(prefixes).count(ontology.classesInSignature().map(clazz -> clazz.getIRI().toString()));
+        detected.forEach(pm::setPrefix);
 
-            if(key != null) {
-                if(!nameSpaces.containsKey(key)) {
-                    nameSpaces.put(key, 0);
-                }
-                nameSpaces.put(key, nameSpaces.get(key)+1);
-            }
-        }
+        Map<String, Integer> nameSpaces = new TreeMap<String, Integer>();
+        counts.forEach((key, count) -> nameSpaces.put(key, count.intValue()));
 
         //		for(String nameSpace: nameSpaces.keySet()) {
         //			StringBuilder sb = new StringBuilder( "    " + nameSpace + " " + nameSpaces.get(nameSpace));
@@ -0,0 +1,173 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * longest prefix match of IRIs against name spaces
+ *
+ * a name space is usable for an IRI if the rest of the IRI is empty or a
+ * local name (letters, digits, '_', '-', '.', not starting with a digit, '-'
+ * or '.'), which is the rule of the owlapi prefix manager. Matching walks
+ * the trie once and does not allocate, the trie is immutable.
+ *
+ */
+class PrefixTrie {
+
+	// the children of a node are sorted by character
+	private final int[] childOffsets;
+	private final char[] childChars;
+	private final int[] childNodes;
+	private final String[] names;
+	private final int[] depths;
+
+	/**
+	 * @param prefixes name spaces by prefix name, the first name of a name space is used
+	 */
+	PrefixTrie(Map<String, String> prefixes) {
+		List<TreeMap<Character, Integer>> children = new ArrayList<TreeMap<Character, Integer>>();
+		List<String> nodeNames = new ArrayList<String>();
+		children.add(new TreeMap<Character, Integer>());
+		nodeNames.add(null);
+
+		for(Map.Entry<String, String> prefix : new TreeMap<String, String>(prefixes).entrySet()) {
+			String namespace = prefix.getValue();
+			if(namespace == null || namespace.isEmpty()) continue;
+
+			int node = 0;
+			for(int i=0; i<namespace.length(); i++) {
+				Integer child = children.get(node).get(namespace.charAt(i));
+				if(child == null) {
+					child = children.size();
+					children.get(node).put(namespace.charAt(i), child);
+					children.add(new TreeMap<Character, Integer>());
+					nodeNames.add(null);
+				}
+				node = child;
+			}
+			if(nodeNames.get(node) == null) nodeNames.set(node, prefix.getKey());
+		}
+
+		int n = children.size();
+		childOffsets = new int[n+1];
+		for(int node=0; node<n; node++) {
+			childOffsets[node+1] = childOffsets[node] + children.get(node).size();
+		}
+		childChars = new char[childOffsets[n]];
+		childNodes = new int[childOffsets[n]];
+		names = nodeNames.toArray(new String[n]);
+		depths = new int[n];
+		for(int node=0; node<n; node++) {
+			int i = childOffsets[node];
+			for(Map.Entry<Character, Integer> child : children.get(node).entrySet()) {
+				childChars[i] = child.getKey();
+				childNodes[i++] = child.getValue();
+				depths[child.getValue()] = depths[node] + 1;
+			}
+		}
+	}
+
+	/**
+	 * @return number of nodes, node ids are below
+	 */
+	int size() {
+		return names.length;
+	}
+
+	/**
+	 * @return prefix name of the node, null if no name space ends there
+	 */
+	String name(int node) {
+		return names[node];
+	}
+
+	/**
+	 * @return length of the name space of the node
+	 */
+	int depth(int node) {
+		return depths[node];
+	}
+
+	/**
+	 * @return node of the longest usable name space, 0 if there is none
+	 */
+	int match(String iri) {
+		int length = iri.length();
+		int lastInvalid = lastInvalid(iri);
+
+		int best = 0;
+		int node = 0;
+		for(int i=0; ; i++) {
+			if(names[node] != null && i > lastInvalid && (i == length || isNameStart(iri.charAt(i)))) {
+				best = node;
+			}
+			if(i == length) break;
+
+			node = child(node, iri.charAt(i));
+			if(node < 0) break;
+		}
+		return best;
+	}
+
+	/**
+	 * the choice of the owlapi prefix manager: the name space that ends where
+	 * the longest local name starts, else the longest usable one with a
+	 * non-empty rest
+	 *
+	 * @return node, 0 if there is none
+	 */
+	int matchLocalName(String iri) {
+		int length = iri.length();
+		int lastInvalid = lastInvalid(iri);
+
+		int split = lastInvalid+1;
+		while(split < length && !isNameStart(iri.charAt(split))) split++;
+
+		// no name space can end before the split
+		int best = 0;
+		int node = 0;
+		for(int i=0; ; i++) {
+			if(names[node] != null) {
+				if(i == split) return node;
+				if(i > split && i < length && isNameStart(iri.charAt(i))) best = node;
+			}
+			if(i == length) break;
+
+			node = child(node, iri.charAt(i));
+			if(node < 0) break;
+		}
+		return best;
+	}
+
+	/**
+	 * @return position of the last character that cannot be part of a local name, -1 if none
+	 */
+	private static int lastInvalid(String iri) {
+		for(int i=iri.length()-1; i>=0; i--) {
+			if(!isNameChar(iri.charAt(i))) return i;
+		}
+		return -1;
+	}
+
+	private int child(int node, char c) {
+		int low = childOffsets[node];
+		int high = childOffsets[node+1]-1;
+		while(low <= high) {
+			int middle = (low + high) >>> 1;
+			if(childChars[middle] < c) low = middle+1;
+			else if(childChars[middle] > c) high = middle-1;
+			else return childNodes[middle];
+		}
+		return -1;
+	}
+
+	private static boolean isNameStart(char c) {
+		return c == '_' || Character.isLetter(c);
+	}
+
+	private static boolean isNameChar(char c) {
+		return c == '_' || c == '-' || c == '.' || Character.isLetterOrDigit(c) || c == '\u00B7';
+	}
+}
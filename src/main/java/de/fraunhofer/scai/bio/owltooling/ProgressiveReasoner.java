@@ -0,0 +1,146 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.semanticweb.HermiT.Configuration;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * reasoner answering from the told axioms until HermiT has classified the ontology
+ *
+ * the structural reasoner is available at once, HermiT is precomputed on the
+ * executor and replaces it as soon as it is done. {@link #getLevel()} tells
+ * which answers a caller gets, {@link #getInferred()} completes with the
+ * precomputed HermiT reasoner. Both are wrapped in a {@link ConcurrentReasoner},
+ * so callers may query from several threads. If HermiT fails the structural
+ * answers stay. {@link #dispose()} interrupts a running classification.
+ *
+ */
+@Slf4j
+public class ProgressiveReasoner extends ForwardingReasoner {
+
+	public enum Level { STRUCTURAL, INFERRED }
+
+	private final OWLReasoner structural;
+	private final CompletableFuture<OWLReasoner> inferred;
+	private volatile OWLReasoner current;
+	private volatile Level level = Level.STRUCTURAL;
+	// HermiT while it classifies, guarded by this
+	private OWLReasoner running;
+	private boolean disposed;
+
+	/**
+	 * classifies on a new daemon thread
+	 */
+	public ProgressiveReasoner(OWLOntology ontology) {
+		this(ontology, daemonExecutor(), true);
+	}
+
+	public ProgressiveReasoner(OWLOntology ontology, Executor executor) {
+		this(ontology, executor, false);
+	}
+
+	private ProgressiveReasoner(OWLOntology ontology, Executor executor, boolean shutdown) {
+		this.structural = new ConcurrentReasoner(new StructuralReasonerFactory().createReasoner(ontology));
+		this.current = structural;
+
+		// dependent stages only run after the switch
+		this.inferred = CompletableFuture.supplyAsync(() -> classify(ontology), executor)
+				.whenComplete((reasoner, e) -> {
+					if(e != null) {
+						if(e.getCause() instanceof CancellationException || e.getCause() instanceof ReasonerInterruptedException) {
+							log.debug("    classification cancelled");
+						} else {
+							log.warn("    classification failed, keeping structural answers: {}", e.getMessage());
+						}
+					} else {
+						current = reasoner;
+						level = Level.INFERRED;
+						log.info("    switched to {}", reasoner.getReasonerName());
+					}
+					if(shutdown) { ((ExecutorService) executor).shutdown(); }
+				});
+	}
+
+	private OWLReasoner classify(OWLOntology ontology) {
+		OWLReasoner hermit = new Reasoner(new Configuration(), ontology);
+		synchronized (this) {
+			if(disposed) {
+				hermit.dispose();
+				throw new CancellationException();
+			}
+			running = hermit;
+		}
+
+		ConcurrentReasoner result = null;
+		try {
+			hermit.precomputeInferences();
+			result = new ConcurrentReasoner(hermit);
+			// builds the taxonomy before the switch
+			result.isConsistent();
+		} catch (RuntimeException e) {
+			if(result != null) { result.dispose(); } else { hermit.dispose(); }
+			throw e;
+		} finally {
+			synchronized (this) { running = null; }
+		}
+
+		synchronized (this) {
+			if(disposed) {
+				result.dispose();
+				throw new CancellationException();
+			}
+		}
+		return result;
+	}
+
+	private static ExecutorService daemonExecutor() {
+		return Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "progressive-reasoner");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@Override
+	protected OWLReasoner delegate() {
+		return current;
+	}
+
+	/**
+	 * @return level of the answers given right now
+	 */
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * @return completes with the (wrapped) HermiT reasoner once it answers all queries
+	 */
+	public CompletableFuture<OWLReasoner> getInferred() {
+		return inferred;
+	}
+
+	/**
+	 * interrupts HermiT if it still classifies, a result that arrives later is disposed as well
+	 */
+	@Override
+	public void dispose() {
+		synchronized (this) {
+			disposed = true;
+			if(running != null) { running.interrupt(); }
+		}
+		structural.dispose();
+		inferred.thenAccept(OWLReasoner::dispose);
+	}
+}
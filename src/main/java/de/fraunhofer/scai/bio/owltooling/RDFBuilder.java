@@ -3,21 +3,17 @@
  */
 package de.fraunhofer.scai.bio.owltooling;
 
-import java.io.FileOutputStream;
-import java.io.FileWriter;
+import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.List;
 
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.rdf.model.Statement;
-import org.apache.jena.rdf.model.StmtIterator;
 import org.apache.jena.vocabulary.RDFS;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.rio.RDFFormat;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
 import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
@@ -42,7 +38,7 @@ public class RDFBuilder {
 		Resource source = model.createResource(origsource);
 		Resource mappingSet = model.createResource("http://owltooling.bio.scai.fraunhofer.de/"+name+".rdf");
 		Resource owlTooling = model.createResource("http://owltooling.bio.scai.fraunhofer.de");
-		Resource fhg = model.createResource("www.scai.fraunhofer.de");
+		Resource fhg = model.createResource("https://www.scai.fraunhofer.de");
 
 		Calendar cal = Calendar. getInstance();
 		cal. setTime(new Date(System.currentTimeMillis()));
@@ -148,90 +144,39 @@ public class RDFBuilder {
 				);
 	}
 
-	public static void writeModelToFile(String name, String format, Model model) throws IOException {
+	public static void addMapping(Model model, MappingExtractor.Mapping mapping) {
+		model
+		.createResource(mapping.getSubject().toString())
+		.addProperty(
+				model.createProperty(mapping.getPredicate().toString()), 
+				model.createResource(mapping.getObject().toString())
+				);
+	}
 
-		if(format.equals("N3")
-				|| format.equals("RDF/XML")
-				|| format.equals("N-TRIPLE")
-				|| format.equals("TURTLE")
-				|| format.equals("TTL")
-				) {
+	/**
+	 * writes the model to ./name.rdf in an RDF format (N3, RDF/XML, N-TRIPLE,
+	 * TURTLE, TTL) or as graph: "gephi" (./name_edge_table.csv and
+	 * ./name_node_table.csv), "graphml" (./name.graphml) and "edgelist"
+	 * (./name.edges), streamed by a {@link GraphExporter}
+	 */
+	public static void writeModelToFile(String name, String format, Model model) throws IOException {
+		GraphExporter exporter = new GraphExporter(model);
 
-			FileOutputStream fout=new FileOutputStream("./" + name+".rdf");
-			model.write(fout, format);
-			fout.close();
+		RDFFormat rdfFormat = GraphExporter.rdfFormat(format);
+		if(rdfFormat != null) {
+			exporter.writeRdf(new File("./" + name + ".rdf"), rdfFormat);
 		}
 
 		if(format.equals("gephi")) {
+			exporter.writeGephi(new File("./" + name + "_edge_table.csv"), new File("./" + name + "_node_table.csv"));
+		}
 
-			FileWriter fw = null;
-			List<String> nodes = new ArrayList<String>();
-
-			try {
-				fw = new FileWriter( "./" + name + "_edge_table.csv" );
-				fw.write("Source;Target;Label;Class");
-				fw.append( System.getProperty("line.separator") );
-				
-				StmtIterator  iter = model.listStatements();
-				while(iter.hasNext()) {
-					Statement stmt = iter.nextStatement();
-					
-					String from = stmt.getSubject().getURI();
-					if(!nodes.contains(from)) nodes.add(from);
-					
-					String to = stmt.getObject().asNode().getURI();
-					if(!nodes.contains(to)) nodes.add(to);
-					
-					fw.write("" + nodes.lastIndexOf(from));
-					fw.write(";");
-					fw.write("" + nodes.lastIndexOf(to));
-					fw.write(";");
-					fw.write(model.shortForm(stmt.getPredicate().getURI().split("#")[1]));
-					fw.write(";");
-					fw.write(model.shortForm(stmt.getPredicate().getURI().split("#")[1]));
-					fw.append( System.getProperty("line.separator") );
-				}
-			}
-			catch ( IOException e ) {
-				System.err.println( "Konnte Datei nicht erstellen" );
-			}
-			finally {
-				if ( fw != null )
-					try { fw.close(); } catch ( IOException e ) { e.printStackTrace(); }
-			}
-
-			try {
-				fw = new FileWriter( "./" + name + "_node_table.csv" );
-				fw.write("Id;Label;Class");
-				fw.append( System.getProperty("line.separator") );
-				
-				for(int i=0; i<nodes.size(); i++) {
-
-					int idx = nodes.get(i).lastIndexOf("/");
-
-					String label = nodes.get(i).substring(idx+1);
-					String clazz = nodes.get(i).substring(0,idx);
-					
-					
-					fw.write( ""+i );
-					fw.write( ";" );
-					fw.write( "\"" + label + "\"" );
-					fw.write( ";" );
-					fw.write( "\"" + clazz + "\"" );
-					
-					fw.append( System.getProperty("line.separator") );
-				}
-			}
-			catch ( IOException e ) {
-				System.err.println( "Konnte Datei nicht erstellen" );
-			}
-			finally {
-				if ( fw != null )
-					try { fw.close(); } catch ( IOException e ) { e.printStackTrace(); }
-			}
+		if(format.equals("graphml")) {
+			exporter.writeGraphMl(new File("./" + name + ".graphml"));
+		}
 
+		if(format.equals("edgelist")) {
+			exporter.writeEdgeList(new File("./" + name + ".edges"));
 		}
 	}
-
-
 }
@@ -0,0 +1,167 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.PrefixManager;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * prefix manager with cached short forms
+ *
+ * the prefix table is compiled into a {@link PrefixTrie}, so a short form
+ * is found in one walk over the IRI instead of a scan over all prefixes.
+ * Short forms are kept in a bounded cache per IRI. The choice of the prefix
+ * is the one of the {@link DefaultPrefixManager}, changing a prefix rebuilds
+ * the trie and empties the cache.
+ *
+ * Lookups are thread-safe, change the prefixes before sharing the resolver.
+ *
+ */
+public class ShortFormResolver extends DefaultPrefixManager {
+
+	private static final long serialVersionUID = 1L;
+
+	public final static long DEFAULT_SIZE = 1 << 16;
+
+	// "" if the IRI has no short form, null if not cached
+	private final Cache<IRI, String> shortForms;
+	private transient volatile PrefixTrie trie;
+	// prefix name used for a name space, the last one set like in the superclass;
+	// filled by the superclass constructor, so it must not have an initializer
+	private Map<String, String> names;
+
+	public ShortFormResolver() {
+		this(DEFAULT_SIZE);
+	}
+
+	/**
+	 * @param size maximal number of cached short forms, 0 for none
+	 */
+	public ShortFormResolver(long size) {
+		super();
+		this.shortForms = size > 0 ? Caffeine.newBuilder().maximumSize(size).build() : null;
+	}
+
+	/**
+	 * @param pm prefixes to copy, only these are used
+	 */
+	public ShortFormResolver(PrefixManager pm) {
+		this(pm, DEFAULT_SIZE);
+	}
+
+	public ShortFormResolver(PrefixManager pm, long size) {
+		this(size);
+		clear();
+		copyPrefixesFrom(pm);
+		// keep the names the original chooses for name spaces with several
+		for(Map.Entry<String, String> prefix : pm.getPrefixName2PrefixMap().entrySet()) {
+			String name = pm.getPrefixIRI(IRI.create(prefix.getValue(), ""));
+			if(name != null && prefix.getKey().equals(name)) names().put(prefix.getValue(), name);
+		}
+		invalidate();
+	}
+
+	/**
+	 * @return the prefix manager itself if it is a resolver, else a resolver with a copy of its prefixes
+	 */
+	public static ShortFormResolver of(PrefixManager pm) {
+		if(pm == null) return null;
+		if(pm instanceof ShortFormResolver) return (ShortFormResolver) pm;
+		return new ShortFormResolver(pm);
+	}
+
+	/**
+	 * @return short form or the IRI without angle brackets
+	 */
+	public String print(IRI iri) {
+		String curie = getPrefixIRI(iri);
+		return curie != null ? curie : iri.toString();
+	}
+
+	@Override
+	public String getPrefixIRI(IRI iri) {
+		String curie = shortForms != null ? shortForms.get(iri, this::resolve) : resolve(iri);
+		return curie.isEmpty() ? null : curie;
+	}
+
+	@Override
+	public String getShortForm(IRI iri) {
+		String curie = getPrefixIRI(iri);
+		return curie != null ? curie : iri.toQuotedString();
+	}
+
+	@Override
+	public String getShortForm(OWLEntity entity) {
+		return getShortForm(entity.getIRI());
+	}
+
+	private String resolve(IRI iri) {
+		PrefixTrie current = trie();
+		String value = iri.toString();
+		int node = current.matchLocalName(value);
+		if(node == 0) return "";
+		return current.name(node) + value.substring(current.depth(node));
+	}
+
+	private PrefixTrie trie() {
+		PrefixTrie current = trie;
+		if(current == null) {
+			synchronized(this) {
+				if(trie == null) {
+					Map<String, String> prefixes = new HashMap<String, String>();
+					names().forEach((namespace, name) -> prefixes.put(name, namespace));
+					trie = new PrefixTrie(prefixes);
+				}
+				current = trie;
+			}
+		}
+		return current;
+	}
+
+	private Map<String, String> names() {
+		if(names == null) names = new HashMap<String, String>();
+		return names;
+	}
+
+	private void invalidate() {
+		trie = null;
+		// also null while the superclass constructor sets the default prefixes
+		if(shortForms != null) shortForms.invalidateAll();
+	}
+
+	@Override
+	public synchronized void setPrefix(String prefixName, String prefix) {
+		super.setPrefix(prefixName, prefix);
+		names().put(prefix, prefixName.endsWith(":") ? prefixName : prefixName + ":");
+		invalidate();
+	}
+
+	@Override
+	public synchronized void setDefaultPrefix(String defaultPrefix) {
+		String old = getPrefixName2PrefixMap().get(":");
+		super.setDefaultPrefix(defaultPrefix);
+		if(old != null) names().remove(old, ":");
+		if(defaultPrefix != null) names().putIfAbsent(defaultPrefix, ":");
+		invalidate();
+	}
+
+	@Override
+	public synchronized void unregisterNamespace(String namespace) {
+		super.unregisterNamespace(namespace);
+		names().remove(namespace);
+		invalidate();
+	}
+
+	@Override
+	public synchronized void clear() {
+		super.clear();
+		names().clear();
+		invalidate();
+	}
+}
@@ -31,6 +31,14 @@ public class TMOntology extends OntologyProvider {
 	}
 
 	public TMOntology(String name) throws OWLOntologyCreationException {
+		this(name, (OntologyContext) null);
+	}
+
+	/**
+	 * @param context shared data factory and intern pool of the bins, null for none
+	 */
+	public TMOntology(String name, OntologyContext context) throws OWLOntologyCreationException {
+		super(context);
 		setName(name);
 		super.init();
 	}
@@ -40,6 +48,11 @@ public class TMOntology extends OntologyProvider {
 	}
 
 	public TMOntology(String prefix, String label, boolean isPrefix) throws OWLOntologyCreationException {
+	    this(prefix, label, isPrefix, null);
+	}
+
+	public TMOntology(String prefix, String label, boolean isPrefix, OntologyContext context) throws OWLOntologyCreationException {
+       super(context);
        if(isPrefix) {
            setName(prefix+"_"+label);
            super.init();
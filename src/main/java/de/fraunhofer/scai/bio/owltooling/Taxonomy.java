@@ -0,0 +1,215 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.NodeSet;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.impl.OWLClassNode;
+import org.semanticweb.owlapi.reasoner.impl.OWLClassNodeSet;
+
+import lombok.Getter;
+
+/**
+ * immutable copy of an inferred class hierarchy
+ *
+ * every node (a set of equivalent classes) has a dense int id, node 0 is
+ * owl:Thing and node 1 is owl:Nothing together with all unsatisfiable classes.
+ * Parent and child links are kept in compressed (offset/target) int arrays.
+ *
+ */
+public class Taxonomy {
+
+	public final static int TOP = 0;
+	public final static int BOTTOM = 1;
+
+	final OWLClass[][] members;
+	final int[] parentOffsets;
+	final int[] parentIds;
+	final int[] childOffsets;
+	final int[] childIds;
+
+	private final Map<OWLClass, Integer> ids;
+	private final OWLClassNode[] nodes;
+	@Getter private final boolean consistent;
+
+	/**
+	 * @param members equivalent classes per node, index 0 and 1 are top and bottom
+	 * @param parents direct parent ids per node
+	 */
+	Taxonomy(OWLClass[][] members, int[][] parents, boolean consistent) {
+		this.members = members;
+		this.consistent = consistent;
+		this.nodes = new OWLClassNode[members.length];
+
+		int n = members.length;
+		parentOffsets = new int[n+1];
+		int[] childCounts = new int[n];
+		for(int i=0; i<n; i++) {
+			parentOffsets[i+1] = parentOffsets[i] + parents[i].length;
+			for(int parent : parents[i]) { childCounts[parent]++; }
+		}
+
+		parentIds = new int[parentOffsets[n]];
+		for(int i=0; i<n; i++) {
+			System.arraycopy(parents[i], 0, parentIds, parentOffsets[i], parents[i].length);
+		}
+
+		childOffsets = new int[n+1];
+		for(int i=0; i<n; i++) {
+			childOffsets[i+1] = childOffsets[i] + childCounts[i];
+		}
+		childIds = new int[childOffsets[n]];
+		int[] fill = Arrays.copyOf(childOffsets, n);
+		for(int i=0; i<n; i++) {
+			for(int parent : parents[i]) { childIds[fill[parent]++] = i; }
+		}
+
+		ids = new HashMap<OWLClass, Integer>(n*2);
+		for(int i=0; i<n; i++) {
+			for(OWLClass clazz : members[i]) { ids.put(clazz, i); }
+		}
+	}
+
+	/**
+	 * copies the class hierarchy of a precomputed reasoner
+	 */
+	public static Taxonomy of(OWLReasoner reasoner) {
+		OWLDataFactory df = reasoner.getRootOntology().getOWLOntologyManager().getOWLDataFactory();
+
+		if(!reasoner.isConsistent()) {
+			return new Taxonomy(
+					new OWLClass[][] { { df.getOWLThing() }, { df.getOWLNothing() } },
+					new int[][] { {}, { TOP } },
+					false);
+		}
+
+		List<OWLClass[]> members = new ArrayList<OWLClass[]>();
+		List<List<Integer>> parents = new ArrayList<List<Integer>>();
+		Map<OWLClass, Integer> ids = new HashMap<OWLClass, Integer>();
+
+		register(reasoner.getTopClassNode(), members, parents, ids);
+		register(reasoner.getBottomClassNode(), members, parents, ids);
+
+		Deque<Node<OWLClass>> queue = new ArrayDeque<Node<OWLClass>>();
+		queue.add(reasoner.getTopClassNode());
+
+		while(!queue.isEmpty()) {
+			Node<OWLClass> parent = queue.poll();
+			int parentId = ids.get(parent.getRepresentativeElement());
+
+			for(Node<OWLClass> child : reasoner.getSubClasses(parent.getRepresentativeElement(), true)) {
+				if(child.isBottomNode()) continue;
+
+				Integer childId = ids.get(child.getRepresentativeElement());
+				if(childId == null) {
+					childId = register(child, members, parents, ids);
+					queue.add(child);
+				}
+				parents.get(childId).add(parentId);
+			}
+		}
+
+		// leaves are the parents of the bottom node
+		boolean[] hasChildren = new boolean[members.size()];
+		for(List<Integer> list : parents) {
+			for(int parent : list) { hasChildren[parent] = true; }
+		}
+		for(int i=0; i<members.size(); i++) {
+			if(i != BOTTOM && !hasChildren[i]) { parents.get(BOTTOM).add(i); }
+		}
+
+		int[][] parentArray = new int[parents.size()][];
+		for(int i=0; i<parentArray.length; i++) {
+			parentArray[i] = parents.get(i).stream().mapToInt(Integer::intValue).toArray();
+		}
+
+		return new Taxonomy(members.toArray(new OWLClass[0][]), parentArray, true);
+	}
+
+	private static int register(Node<OWLClass> node, List<OWLClass[]> members, List<List<Integer>> parents, Map<OWLClass, Integer> ids) {
+		int id = members.size();
+		OWLClass[] classes = node.entities().toArray(OWLClass[]::new);
+		members.add(classes);
+		parents.add(new ArrayList<Integer>(2));
+		for(OWLClass clazz : classes) { ids.put(clazz, id); }
+		return id;
+	}
+
+	public int size() {
+		return members.length;
+	}
+
+	/**
+	 * @return the node id of the class or -1 if it is not part of the hierarchy
+	 */
+	public int getId(OWLClass clazz) {
+		Integer id = ids.get(clazz);
+		return id == null ? -1 : id;
+	}
+
+	public Node<OWLClass> getNode(int id) {
+		OWLClassNode node = nodes[id];
+		if(node == null) {
+			node = new OWLClassNode(Arrays.asList(members[id]));
+			nodes[id] = node;
+		}
+		return node;
+	}
+
+	/**
+	 * @return ids of the direct child nodes, the bottom node included
+	 */
+	public IntStream getChildIds(int id) {
+		return Arrays.stream(childIds, childOffsets[id], childOffsets[id+1]);
+	}
+
+	public NodeSet<OWLClass> getParents(int id, boolean direct) {
+		return collect(id, direct, parentOffsets, parentIds);
+	}
+
+	public NodeSet<OWLClass> getChildren(int id, boolean direct) {
+		return collect(id, direct, childOffsets, childIds);
+	}
+
+	private NodeSet<OWLClass> collect(int id, boolean direct, int[] offsets, int[] targets) {
+		OWLClassNodeSet result = new OWLClassNodeSet();
+
+		if(direct) {
+			for(int i=offsets[id]; i<offsets[id+1]; i++) {
+				result.addNode(getNode(targets[i]));
+			}
+			return result;
+		}
+
+		// grows with the highest id reached instead of the taxonomy size
+		BitSet seen = new BitSet();
+		Deque<Integer> stack = new ArrayDeque<Integer>();
+		stack.push(id);
+		seen.set(id);
+
+		while(!stack.isEmpty()) {
+			int current = stack.pop();
+			for(int i=offsets[current]; i<offsets[current+1]; i++) {
+				int next = targets[i];
+				if(!seen.get(next)) {
+					seen.set(next);
+					stack.push(next);
+					result.addNode(getNode(next));
+				}
+			}
+		}
+
+		return result;
+	}
+}
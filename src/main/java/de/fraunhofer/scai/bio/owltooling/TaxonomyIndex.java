@@ -0,0 +1,162 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.Arrays;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import lombok.Getter;
+
+/**
+ * reachability labels over a {@link Taxonomy} for constant time subsumption checks
+ *
+ * a depth first search from owl:Thing numbers every node once. Nodes inside the
+ * pre/post interval of the search tree are descendants, nodes outside of the
+ * [lowest descendant post, post] range are not. Only the remaining (multi parent)
+ * cases are decided by a binary search in the sorted ancestor ids of the node.
+ * None of the checks allocate.
+ *
+ */
+public class TaxonomyIndex {
+
+	@Getter private final Taxonomy taxonomy;
+
+	private final int[] pre;
+	private final int[] post;
+	private final int[] low;
+	private final int[] ancestorOffsets;
+	private final int[] ancestorIds;
+
+	public TaxonomyIndex(Taxonomy taxonomy) {
+		this.taxonomy = taxonomy;
+
+		int n = taxonomy.size();
+		pre = new int[n];
+		post = new int[n];
+		low = new int[n];
+		Arrays.fill(pre, -1);
+
+		int[] order = new int[n];
+		int ordered = label(order);
+
+		// ancestors in topological order (parents before children)
+		int[][] ancestors = new int[n][];
+		ancestors[Taxonomy.TOP] = new int[0];
+		int[] marks = new int[n];
+		int[] buffer = new int[n];
+		int total = 0;
+
+		for(int k=ordered-1; k>=0; k--) {
+			int node = order[k];
+			if(node == Taxonomy.TOP) continue;
+
+			int size = 0;
+			for(int i=taxonomy.parentOffsets[node]; i<taxonomy.parentOffsets[node+1]; i++) {
+				int parent = taxonomy.parentIds[i];
+				if(marks[parent] != node+1) { marks[parent] = node+1; buffer[size++] = parent; }
+				for(int ancestor : ancestors[parent]) {
+					if(marks[ancestor] != node+1) { marks[ancestor] = node+1; buffer[size++] = ancestor; }
+				}
+			}
+			ancestors[node] = Arrays.copyOf(buffer, size);
+			Arrays.sort(ancestors[node]);
+			total += size;
+		}
+
+		ancestorOffsets = new int[n+1];
+		ancestorIds = new int[total];
+		for(int i=0; i<n; i++) {
+			int[] list = ancestors[i] == null ? new int[0] : ancestors[i];
+			ancestorOffsets[i+1] = ancestorOffsets[i] + list.length;
+			System.arraycopy(list, 0, ancestorIds, ancestorOffsets[i], list.length);
+		}
+	}
+
+	/**
+	 * builds the index for the class hierarchy of a precomputed reasoner
+	 */
+	public static TaxonomyIndex of(OWLReasoner reasoner) {
+		if(reasoner instanceof TaxonomyReasoner) {
+			return ((TaxonomyReasoner) reasoner).getIndex();
+		}
+		return new TaxonomyIndex(Taxonomy.of(reasoner));
+	}
+
+	/**
+	 * iterative depth first search from owl:Thing, the bottom node is left out
+	 *
+	 * @return number of nodes written to order (in post order)
+	 */
+	private int label(int[] order) {
+		int n = taxonomy.size();
+		int[] stack = new int[n];
+		int[] cursor = new int[n];
+		int top = 0;
+		int preCount = 0;
+		int postCount = 0;
+
+		stack[top++] = Taxonomy.TOP;
+		pre[Taxonomy.TOP] = preCount++;
+		cursor[Taxonomy.TOP] = taxonomy.childOffsets[Taxonomy.TOP];
+
+		while(top > 0) {
+			int node = stack[top-1];
+
+			if(cursor[node] < taxonomy.childOffsets[node+1]) {
+				int child = taxonomy.childIds[cursor[node]++];
+				if(child == Taxonomy.BOTTOM || pre[child] >= 0) continue;
+
+				pre[child] = preCount++;
+				cursor[child] = taxonomy.childOffsets[child];
+				stack[top++] = child;
+			} else {
+				top--;
+				post[node] = postCount;
+				order[postCount++] = node;
+
+				int min = post[node];
+				for(int i=taxonomy.childOffsets[node]; i<taxonomy.childOffsets[node+1]; i++) {
+					int child = taxonomy.childIds[i];
+					if(child != Taxonomy.BOTTOM) { min = Math.min(min, low[child]); }
+				}
+				low[node] = min;
+			}
+		}
+
+		return postCount;
+	}
+
+	public int getId(OWLClass clazz) {
+		return taxonomy.getId(clazz);
+	}
+
+	/**
+	 * @return true if the node is a proper descendant of the ancestor node
+	 */
+	public boolean isDescendant(int node, int ancestor) {
+		if(node < 0 || ancestor < 0 || node == ancestor) return false;
+		if(node == Taxonomy.BOTTOM || ancestor == Taxonomy.TOP) return true;
+		if(ancestor == Taxonomy.BOTTOM || pre[node] < 0 || pre[ancestor] < 0) return false;
+
+		// inside the search tree interval
+		if(pre[ancestor] <= pre[node] && post[node] <= post[ancestor]) return true;
+		// outside of all descendants
+		if(post[node] < low[ancestor] || post[node] > post[ancestor]) return false;
+
+		return Arrays.binarySearch(ancestorIds, ancestorOffsets[node], ancestorOffsets[node+1], ancestor) >= 0;
+	}
+
+	/**
+	 * @return true if the class is a proper subclass of the ancestor class (equivalent classes are not)
+	 */
+	public boolean isDescendant(OWLClass clazz, OWLClass ancestor) {
+		return isDescendant(taxonomy.getId(clazz), taxonomy.getId(ancestor));
+	}
+
+	/**
+	 * @return number of proper ancestors of a node, owl:Thing included
+	 */
+	public int getAncestorCount(int node) {
+		return ancestorOffsets[node+1] - ancestorOffsets[node];
+	}
+}
@@ -0,0 +1,199 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.reasoner.BufferingMode;
+import org.semanticweb.owlapi.reasoner.InconsistentOntologyException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.NodeSet;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.SimpleConfiguration;
+import org.semanticweb.owlapi.reasoner.impl.OWLClassNode;
+import org.semanticweb.owlapi.reasoner.impl.OWLClassNodeSet;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasoner;
+import org.semanticweb.owlapi.util.Version;
+
+import lombok.Getter;
+
+/**
+ * read-only reasoner answering class hierarchy queries from a {@link Taxonomy}
+ *
+ * all other queries are answered by a structural reasoner which is only
+ * created when such a query is asked. Changes of the ontology are not
+ * picked up, a new taxonomy has to be computed for that.
+ *
+ */
+public class TaxonomyReasoner extends ForwardingReasoner {
+
+	@Getter private final Taxonomy taxonomy;
+	private final OWLOntology ontology;
+	private volatile OWLReasoner structural;
+	private volatile TaxonomyIndex index;
+
+	public TaxonomyReasoner(OWLOntology ontology, Taxonomy taxonomy) {
+		this.ontology = ontology;
+		this.taxonomy = taxonomy;
+	}
+
+	@Override
+	protected OWLReasoner delegate() {
+		OWLReasoner reasoner = structural;
+		if(reasoner == null) {
+			synchronized (this) {
+				if(structural == null) {
+					structural = new StructuralReasoner(ontology, new SimpleConfiguration(), BufferingMode.BUFFERING);
+				}
+				reasoner = structural;
+			}
+		}
+		return reasoner;
+	}
+
+	/**
+	 * @return reachability index over the taxonomy, built on first use
+	 */
+	public TaxonomyIndex getIndex() {
+		TaxonomyIndex result = index;
+		if(result == null) {
+			synchronized (this) {
+				if(index == null) {
+					index = new TaxonomyIndex(taxonomy);
+				}
+				result = index;
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public String getReasonerName() {
+		return "Taxonomy";
+	}
+
+	@Override
+	public Version getReasonerVersion() {
+		return new Version(0, 0, 1, 0);
+	}
+
+	@Override
+	public BufferingMode getBufferingMode() {
+		return BufferingMode.BUFFERING;
+	}
+
+	@Override
+	public OWLOntology getRootOntology() {
+		return ontology;
+	}
+
+	@Override
+	public void flush() {
+		// the taxonomy is immutable
+	}
+
+	@Override
+	public List<OWLOntologyChange> getPendingChanges() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public Set<OWLAxiom> getPendingAxiomAdditions() {
+		return Collections.emptySet();
+	}
+
+	@Override
+	public Set<OWLAxiom> getPendingAxiomRemovals() {
+		return Collections.emptySet();
+	}
+
+	@Override
+	public void interrupt() {
+		// nothing to interrupt
+	}
+
+	@Override
+	public void precomputeInferences(InferenceType... inferenceTypes) {
+		// class hierarchy is precomputed
+	}
+
+	@Override
+	public boolean isPrecomputed(InferenceType inferenceType) {
+		return inferenceType == InferenceType.CLASS_HIERARCHY || delegate().isPrecomputed(inferenceType);
+	}
+
+	@Override
+	public boolean isConsistent() {
+		return taxonomy.isConsistent();
+	}
+
+	@Override
+	public boolean isSatisfiable(OWLClassExpression ce) {
+		if(ce.isAnonymous()) return delegate().isSatisfiable(ce);
+		return id(ce) != Taxonomy.BOTTOM;
+	}
+
+	@Override
+	public Node<OWLClass> getUnsatisfiableClasses() {
+		return getBottomClassNode();
+	}
+
+	@Override
+	public Node<OWLClass> getTopClassNode() {
+		checkConsistent();
+		return taxonomy.getNode(Taxonomy.TOP);
+	}
+
+	@Override
+	public Node<OWLClass> getBottomClassNode() {
+		checkConsistent();
+		return taxonomy.getNode(Taxonomy.BOTTOM);
+	}
+
+	@Override
+	public NodeSet<OWLClass> getSubClasses(OWLClassExpression ce, boolean direct) {
+		if(ce.isAnonymous()) return delegate().getSubClasses(ce, direct);
+
+		int id = id(ce);
+		if(id < 0) return new OWLClassNodeSet(getBottomClassNode());
+		return taxonomy.getChildren(id, direct);
+	}
+
+	@Override
+	public NodeSet<OWLClass> getSuperClasses(OWLClassExpression ce, boolean direct) {
+		if(ce.isAnonymous()) return delegate().getSuperClasses(ce, direct);
+
+		int id = id(ce);
+		if(id < 0) return new OWLClassNodeSet(getTopClassNode());
+		return taxonomy.getParents(id, direct);
+	}
+
+	@Override
+	public Node<OWLClass> getEquivalentClasses(OWLClassExpression ce) {
+		if(ce.isAnonymous()) return delegate().getEquivalentClasses(ce);
+
+		int id = id(ce);
+		if(id < 0) return new OWLClassNode(ce.asOWLClass());
+		return taxonomy.getNode(id);
+	}
+
+	@Override
+	public void dispose() {
+		if(structural != null) { structural.dispose(); }
+	}
+
+	private int id(OWLClassExpression ce) {
+		checkConsistent();
+		return taxonomy.getId(ce.asOWLClass());
+	}
+
+	private void checkConsistent() {
+		if(!taxonomy.isConsistent()) throw new InconsistentOntologyException();
+	}
+}
@@ -0,0 +1,160 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * stores a {@link Taxonomy} in a compact binary file
+ *
+ * the file is keyed by a hash over the logical axioms and declarations of
+ * the ontology (including imports), so a snapshot is only restored as long
+ * as nothing changed that could affect the classification. The header also
+ * names the reasoner that computed it, a snapshot of a told or modular
+ * hierarchy is not restored for another reasoner.
+ *
+ * Snapshots are written to a temporary file that replaces the target at
+ * once, readers never see a partial file.
+ *
+ */
+public class TaxonomySnapshot {
+
+	private final static int MAGIC = 0x4F574C54; // OWLT
+	private final static int VERSION = 2;
+
+	private final static ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	});
+
+	/**
+	 * order independent content hash: the SHA-256 digests of all axioms are summed up word by word
+	 */
+	public static String hash(OWLOntology ontology) {
+		long[] sum = new long[5];
+		ontology.importsClosure().forEach(o -> {
+			combine(sum, digest(o.logicalAxioms()));
+			combine(sum, digest(o.axioms(AxiomType.DECLARATION)));
+		});
+
+		StringBuilder sb = new StringBuilder();
+		for(long word : sum) {
+			sb.append(String.format("%016x", word));
+		}
+		return sb.toString();
+	}
+
+	private static long[] digest(Stream<? extends OWLAxiom> axioms) {
+		return axioms.parallel().collect(() -> new long[5], TaxonomySnapshot::accumulate, TaxonomySnapshot::combine);
+	}
+
+	private static void accumulate(long[] sum, OWLAxiom axiom) {
+		ByteBuffer digest = ByteBuffer.wrap(SHA256.get().digest(axiom.toString().getBytes(StandardCharsets.UTF_8)));
+		for(int i=0; i<4; i++) {
+			sum[i] += digest.getLong();
+		}
+		sum[4]++;
+	}
+
+	private static void combine(long[] left, long[] right) {
+		for(int i=0; i<left.length; i++) {
+			left[i] += right[i];
+		}
+	}
+
+	/**
+	 * @param reasoner name and version of the reasoner that computed the taxonomy
+	 */
+	public static void write(Taxonomy taxonomy, String hash, String reasoner, File file) throws IOException {
+		Path target = file.getAbsoluteFile().toPath();
+		Path temp = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+		try {
+			write(taxonomy, hash, reasoner, temp);
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private static void write(Taxonomy taxonomy, String hash, String reasoner, Path file) throws IOException {
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file))))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(hash);
+			out.writeUTF(reasoner);
+			out.writeBoolean(taxonomy.isConsistent());
+
+			int n = taxonomy.size();
+			out.writeInt(n);
+			for(OWLClass[] members : taxonomy.members) {
+				out.writeInt(members.length);
+				for(OWLClass clazz : members) {
+					out.writeUTF(clazz.getIRI().toString());
+				}
+			}
+			for(int i=0; i<n; i++) {
+				out.writeInt(taxonomy.parentOffsets[i+1] - taxonomy.parentOffsets[i]);
+				for(int j=taxonomy.parentOffsets[i]; j<taxonomy.parentOffsets[i+1]; j++) {
+					out.writeInt(taxonomy.parentIds[j]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the stored taxonomy or null if it was computed for different axioms or by another reasoner
+	 */
+	public static Taxonomy read(File file, String hash, String reasoner, OWLDataFactory df) throws IOException {
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+			if(in.readInt() != MAGIC) throw new IOException("not a taxonomy snapshot: " + file);
+			if(in.readInt() != VERSION) return null;
+			if(!in.readUTF().equals(hash)) return null;
+			if(!in.readUTF().equals(reasoner)) return null;
+
+			boolean consistent = in.readBoolean();
+
+			int n = in.readInt();
+			OWLClass[][] members = new OWLClass[n][];
+			for(int i=0; i<n; i++) {
+				members[i] = new OWLClass[in.readInt()];
+				for(int j=0; j<members[i].length; j++) {
+					members[i][j] = df.getOWLClass(IRI.create(in.readUTF()));
+				}
+			}
+
+			int[][] parents = new int[n][];
+			for(int i=0; i<n; i++) {
+				parents[i] = new int[in.readInt()];
+				for(int j=0; j<parents[i].length; j++) {
+					parents[i][j] = in.readInt();
+				}
+			}
+
+			return new Taxonomy(members, parents, consistent);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+import lombok.Getter;
+
+/**
+ * writes the hierarchy as indented text, one node per line
+ *
+ * "----" per level followed by the classes of the node with their labels in
+ * curly brackets. Nodes with equivalent classes are collected as cycles.
+ *
+ */
+public class TextHierarchySink implements HierarchySink {
+
+	private final Writer out;
+	private final ShortFormResolver pm;
+	private final OWLOntology ontology;
+	@Getter private final Set<String> cycles = new TreeSet<String>();
+
+	/**
+	 * @param pm prints short forms if set, full IRIs otherwise, resolved through a {@link ShortFormResolver}
+	 */
+	public TextHierarchySink(Writer out, DefaultPrefixManager pm, OWLOntology ontology) {
+		this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+		this.pm = ShortFormResolver.of(pm);
+		this.ontology = ontology;
+	}
+
+	public TextHierarchySink(OutputStream out, DefaultPrefixManager pm, OWLOntology ontology) {
+		this(new OutputStreamWriter(out, StandardCharsets.UTF_8), pm, ontology);
+	}
+
+	@Override
+	public void enter(Node<OWLClass> node, int depth) throws IOException {
+		for(int i=0; i<depth; i++) { out.write("----"); }
+
+		out.write("{ ");
+		for(OWLClass clazz : node) {
+			out.write(name(clazz));
+			out.write(OntologyReasoner.printLabelsOfClass(ontology, clazz));
+			out.write(' ');
+		}
+		out.write('}');
+		out.write(System.lineSeparator());
+	}
+
+	@Override
+	public void cycle(Node<OWLClass> node) {
+		StringBuilder sb = new StringBuilder();
+		for(OWLClass clazz : node) {
+			if(sb.length() > 0) sb.append(' ');
+			sb.append(name(clazz));
+		}
+		cycles.add(sb.toString());
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	private String name(OWLClass clazz) {
+		return pm != null ? pm.getShortForm(clazz) : clazz.getIRI().toString();
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+public class AsyncOntologyReasonerTest {
+
+	OWLOntology ontology = null;
+	ExecutorService executor = null;
+
+	@Before
+	public void initOntology() throws OWLOntologyCreationException {
+		File ontologyFile = new File("./src/test/resources/pizza.owl");
+		ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(ontologyFile);
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void checkAllTest() throws InterruptedException, ExecutionException {
+		OWLReasoner reasoner = OntologyReasoner.createReasoner(ontology, "HERMIT");
+		AsyncOntologyReasoner async = new AsyncOntologyReasoner(reasoner, ontology, new DefaultPrefixManager(), executor);
+
+		CompletableFuture<Boolean> consistent = async.checkConsistent();
+		CompletableFuture<?> unsatisfiable = async.checkUnsatisfiable();
+		CompletableFuture<?> annotations = async.checkAnnotations(false, "en");
+		CompletableFuture<?> nameSpaces = async.checkNameSpaces();
+
+		CompletableFuture.allOf(consistent, unsatisfiable, annotations, nameSpaces).get();
+
+		assertTrue("is not consistent", consistent.get());
+		assertEquals(OntologyReasoner.checkUnsatisfiable(reasoner), unsatisfiable.get());
+		assertEquals(OntologyReasoner.checkNameSpaces(ontology, new DefaultPrefixManager()), nameSpaces.get());
+	}
+
+	@Test
+	public void reasonerLaneTest() throws InterruptedException, ExecutionException {
+		OWLReasoner reasoner = OntologyReasoner.createReasoner(ontology, "HERMIT");
+		AsyncOntologyReasoner async = new AsyncOntologyReasoner(reasoner, ontology, new DefaultPrefixManager(), executor);
+
+		StringBuffer order = new StringBuffer();
+		CompletableFuture<?> first = async.withReasoner(r -> { sleep(); return order.append("a"); });
+		CompletableFuture<?> second = async.withReasoner(r -> order.append("b"));
+
+		CompletableFuture.allOf(first, second).get();
+		assertEquals("steps not serialized", "ab", order.toString());
+	}
+
+	private static void sleep() {
+		try {
+			Thread.sleep(100);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
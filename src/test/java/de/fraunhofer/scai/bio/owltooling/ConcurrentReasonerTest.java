@@ -0,0 +1,82 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.NodeSet;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.impl.OWLClassNodeSet;
+
+public class ConcurrentReasonerTest {
+
+	OWLOntology ontology = null;
+
+	@Before
+	public void initOntology() throws OWLOntologyCreationException {
+		File ontologyFile = new File("./src/test/resources/pizza.owl");
+		ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(ontologyFile);
+	}
+
+	@Test
+	public void concurrentQueryTest() {
+		OWLReasoner hermit = OntologyReasoner.createReasoner(ontology, "HERMIT");
+		List<OWLClass> classes = ontology.classesInSignature().collect(Collectors.toList());
+
+		// expected answers first, HermiT itself must not be queried concurrently
+		List<Object> expected = classes.stream()
+				.map(clazz -> Arrays.asList(hermit.getSuperClasses(clazz, false).getFlattened(), hermit.getSubClasses(clazz, true).getFlattened()))
+				.collect(Collectors.toList());
+
+		OWLReasoner concurrent = new ConcurrentReasoner(hermit, 1000);
+		for(int round=0; round<4; round++) {
+			List<Object> actual = classes.parallelStream()
+					.map(clazz -> Arrays.asList(concurrent.getSuperClasses(clazz, false).getFlattened(), concurrent.getSubClasses(clazz, true).getFlattened()))
+					.collect(Collectors.toList());
+			assertEquals("answers differ", expected, actual);
+		}
+
+		OWLClass pizza = classes.get(0);
+		assertSame("not cached", concurrent.getSubClasses(pizza, false), concurrent.getSubClasses(pizza, false));
+		assertFalse("cached set exposed", concurrent.getSubClasses(pizza, false) instanceof OWLClassNodeSet);
+		assertEquals(hermit.getSubClasses(pizza, false), concurrent.getSubClasses(pizza, false));
+		assertTrue(concurrent.isConsistent());
+	}
+
+	@Test
+	public void invalidationTest() {
+		OWLReasoner concurrent = new ConcurrentReasoner(OntologyReasoner.createReasoner(ontology, "HERMIT"));
+		OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+		OWLClass calzone = df.getOWLClass(IRI.create("http://www.co-ode.org/ontologies/pizza/pizza.owl#Calzone"));
+		OWLClass fresh = df.getOWLClass(IRI.create("http://www.co-ode.org/ontologies/pizza/pizza.owl#FreshPizza"));
+
+		assertFalse(concurrent.getSuperClasses(calzone, false).containsEntity(fresh));
+
+		OWLClass known = ontology.classesInSignature().findFirst().get();
+		NodeSet<OWLClass> superClasses = concurrent.getSuperClasses(known, false);
+		ontology.add(df.getOWLAnnotationAssertionAxiom(known.getIRI(), df.getRDFSComment("annotation only")));
+		assertSame("dropped for an annotation", superClasses, concurrent.getSuperClasses(known, false));
+
+		ontology.add(df.getOWLSubClassOfAxiom(calzone, fresh));
+		assertTrue("change not picked up", concurrent.getSuperClasses(calzone, false).containsEntity(fresh));
+
+		concurrent.dispose();
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.apache.commons.csv.CSVFormat;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+public class CsvOntologyImporterTest {
+
+	private final static String PREFIX = "https://bio.scai.fraunhofer.de/ontology/Test_";
+
+	@Test
+	public void importTest() throws OWLOntologyCreationException, IOException {
+		StringBuilder tsv = new StringBuilder("ID\tParent\tName\tLang\tSynonyms\tExact\n");
+		tsv.append("A\t\tAlpha\ten\tfirst|one\thttp://purl.obolibrary.org/obo/X_1\n");
+		tsv.append("B\tA\tBeta\tde\t\t\n");
+		tsv.append("\tA\tno id\ten\t\t\n");
+		for(int i=0; i<2500; i++) {
+			tsv.append("C" + i + "\tB\tchild " + i + "\t\t\t\n");
+		}
+
+		OntologyBuilder bob = new OntologyBuilder(PREFIX);
+		ImportResult result = new CsvOntologyImporter(bob)
+				.format(CSVFormat.TDF.withFirstRecordAsHeader())
+				.buffers(2, 1000)
+				.id("ID", PREFIX)
+				.parent("Parent", PREFIX, null)
+				.labelWithLanguageColumn("Name", Prefixes.RDFS_LABEL, "Lang", null)
+				.label("Synonyms", Prefixes.SKOS_ALT, "en", "|")
+				.mapping("Exact", Prefixes.SKOS_EXACT, null, null)
+				.importFrom(new StringReader(tsv.toString()));
+
+		assertEquals("wrong row count", 2503, result.getRows());
+		assertEquals("row without id not rejected", 1, result.getRejected());
+		assertTrue(result.getRowsPerSecond() > 0);
+
+		OWLClass b = bob.getOWLClass(IRI.create(PREFIX + "B"));
+		assertEquals("children missing", 2500, bob.getOntology().subClassAxiomsForSuperClass(b).count());
+		assertEquals("label missing", "Beta", LabelIndex.of(bob.getOntology()).get(b.getIRI(), Prefixes.RDFS_LABEL, "de").get(0).getLiteral());
+		assertEquals("synonyms missing", 2, LabelIndex.of(bob.getOntology()).get(IRI.create(PREFIX + "A"), Prefixes.SKOS_ALT, "en").size());
+		assertEquals("mapping missing", 1, bob.getOntology().axioms(AxiomType.SUBCLASS_OF)
+				.filter(axiom -> axiom.getSuperClass().isAnonymous()).count());
+	}
+
+	@Test
+	public void parserFailureTest() throws OWLOntologyCreationException, IOException {
+		StringBuilder csv = new StringBuilder("ID\n");
+		for(int i=0; i<1500; i++) {
+			csv.append("C" + i + "\n");
+		}
+		// unterminated quote
+		csv.append("\"D\n");
+
+		OntologyBuilder bob = new OntologyBuilder(PREFIX);
+		try {
+			new CsvOntologyImporter(bob)
+					.format(CSVFormat.DEFAULT.withFirstRecordAsHeader())
+					.id("ID", PREFIX)
+					.importFrom(new StringReader(csv.toString()));
+			fail("malformed file imported");
+		} catch(IOException e) {
+			assertEquals("rows of the failed import committed", 0, bob.getOntology().getAxiomCount());
+		}
+
+		// the batch is closed
+		bob.batch().close();
+	}
+
+	@Test
+	public void absoluteIriTest() throws OWLOntologyCreationException, IOException {
+		String csv = "ID,Parent\nA,http://purl.obolibrary.org/obo/X_1\nB,A_http://x\n";
+
+		OntologyBuilder bob = new OntologyBuilder(PREFIX);
+		new CsvOntologyImporter(bob)
+				.format(CSVFormat.DEFAULT.withFirstRecordAsHeader())
+				.id("ID", PREFIX)
+				.parent("Parent", PREFIX, null)
+				.importFrom(new StringReader(csv));
+
+		assertEquals("absolute IRI prefixed", 1, bob.getOntology().subClassAxiomsForSuperClass(bob.getOWLClass(IRI.create("http://purl.obolibrary.org/obo/X_1"))).count());
+		assertEquals("relative value not prefixed", 1, bob.getOntology().subClassAxiomsForSuperClass(bob.getOWLClass(IRI.create(PREFIX + "A_http://x"))).count());
+	}
+}
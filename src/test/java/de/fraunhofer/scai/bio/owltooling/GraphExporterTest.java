@@ -0,0 +1,200 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDFS;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+
+public class GraphExporterTest {
+
+	private final static String EX = "http://example.org/onto#";
+	private final static String NEWLINE = System.getProperty("line.separator");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static Model model() {
+		Model model = ModelFactory.createDefaultModel();
+		model.setNsPrefix("ex", EX);
+		Resource a = model.createResource("http://example.org/a/A");
+		Resource b = model.createResource("http://example.org/a/B");
+		Resource c = model.createResource("http://example.org/b/C");
+		model.add(a, RDFS.subClassOf, b);
+		model.add(b, RDFS.subClassOf, c);
+		model.add(a, model.createProperty(EX + "exactMatch"), c);
+		model.add(a, RDFS.label, model.createLiteral("A & <a>", "en"));
+		return model;
+	}
+
+	@Test
+	public void gephiTest() throws IOException {
+		File edges = folder.newFile("edges.csv");
+		File nodes = folder.newFile("nodes.csv");
+		assertEquals(3, new GraphExporter(model()).writeGephi(edges, nodes));
+
+		String[] edgeLines = new String(Files.readAllBytes(edges.toPath()), StandardCharsets.UTF_8).split(NEWLINE);
+		assertEquals("Source;Target;Label;Class", edgeLines[0]);
+		assertEquals(4, edgeLines.length);
+
+		String[] nodeLines = new String(Files.readAllBytes(nodes.toPath()), StandardCharsets.UTF_8).split(NEWLINE);
+		assertEquals("Id;Label;Class", nodeLines[0]);
+		assertEquals("no node for the literal", 4, nodeLines.length);
+		assertTrue(Arrays.asList(nodeLines).contains(nodeLine(nodeLines, "C") + ";\"C\";\"http://example.org/b\""));
+
+		// labels are the local names of the predicates, ids point to the node table
+		for(int i=1; i<edgeLines.length; i++) {
+			String[] edge = edgeLines[i].split(";");
+			assertEquals(edge[2], edge[3]);
+			assertTrue(edge[2], edge[2].equals("subClassOf") || edge[2].equals("exactMatch"));
+			if(edge[2].equals("exactMatch")) {
+				assertEquals(nodeLine(nodeLines, "A"), edge[0]);
+				assertEquals(nodeLine(nodeLines, "C"), edge[1]);
+			}
+		}
+	}
+
+	private static String nodeLine(String[] nodeLines, String label) {
+		for(String line : nodeLines) {
+			if(line.contains(";\"" + label + "\";")) return line.split(";")[0];
+		}
+		return null;
+	}
+
+	@Test
+	public void graphMlTest() throws Exception {
+		File file = folder.newFile("graph.graphml");
+		assertEquals(3, new GraphExporter(model()).writeGraphMl(file));
+
+		Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file);
+		assertEquals(3, document.getElementsByTagName("node").getLength());
+		assertEquals(3, document.getElementsByTagName("edge").getLength());
+	}
+
+	@Test
+	public void edgeListTest() throws IOException {
+		Model model = ModelFactory.createDefaultModel();
+		int size = 100000;
+		for(int i=1; i<size; i++) {
+			model.add(model.createResource(EX + "c" + i), RDFS.subClassOf, model.createResource(EX + "c" + (i-1)/2));
+		}
+
+		File file = folder.newFile("graph.edges");
+		assertEquals(size-1, new GraphExporter(model).writeEdgeList(file));
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			assertEquals(GraphExporter.EDGE_LIST_MAGIC, in.readInt());
+			assertEquals(GraphExporter.EDGE_LIST_VERSION, in.readInt());
+			long edges = in.readLong();
+			int nodes = in.readInt();
+			int predicates = in.readInt();
+			assertEquals(size-1, edges);
+			assertEquals(size, nodes);
+			assertEquals(1, predicates);
+
+			int[][] edgeList = new int[(int) edges][];
+			for(int i=0; i<edges; i++) {
+				edgeList[i] = new int[] { in.readInt(), in.readInt(), in.readInt() };
+			}
+			String[] iris = new String[nodes];
+			for(int i=0; i<nodes; i++) iris[i] = readString(in);
+			assertEquals(RDFS.subClassOf.getURI(), readString(in));
+			assertEquals(-1, in.read());
+
+			for(int[] edge : edgeList) {
+				int child = Integer.parseInt(iris[edge[0]].substring(EX.length()+1));
+				int parent = Integer.parseInt(iris[edge[1]].substring(EX.length()+1));
+				assertEquals((child-1)/2, parent);
+				assertEquals(0, edge[2]);
+			}
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void rdfTest() throws IOException {
+		Model model = model();
+		model.add(RDFBuilder.createProvenance("http://example.org/onto", "test", "http://example.org/source"));
+
+		File nTriples = folder.newFile("model.nt");
+		assertEquals(model.size(), new GraphExporter(model).writeRdf(nTriples, RDFFormat.NTRIPLES));
+		Model read = ModelFactory.createDefaultModel();
+		try (InputStream in = new FileInputStream(nTriples)) {
+			read.read(in, null, "N-TRIPLE");
+		}
+		assertTrue(model.isIsomorphicWith(read));
+
+		org.eclipse.rdf4j.model.Model expected = parse(nTriples, RDFFormat.NTRIPLES);
+		for(String name : Arrays.asList("N3", "RDF/XML", "TURTLE", "TTL")) {
+			RDFFormat format = GraphExporter.rdfFormat(name);
+			File file = folder.newFile("model." + name.replace('/', '_'));
+			assertEquals(model.size(), new GraphExporter(model).writeRdf(file, format));
+			assertTrue(name, Models.isomorphic(expected, parse(file, format)));
+		}
+		assertNull(GraphExporter.rdfFormat("gephi"));
+	}
+
+	@Test
+	public void relativeIriTest() throws IOException {
+		Model model = model();
+		model.add(model.createResource("relative"), RDFS.subClassOf, model.createResource("http://example.org/a/A"));
+
+		File resolved = folder.newFile("resolved.nt");
+		assertEquals(model.size(), new GraphExporter(model, "http://example.org/base/").writeRdf(resolved, RDFFormat.NTRIPLES));
+		assertTrue(new String(Files.readAllBytes(resolved.toPath()), StandardCharsets.UTF_8).contains("<http://example.org/base/relative>"));
+
+		// without a base the file is written by Jena, like before
+		File kept = folder.newFile("kept.nt");
+		assertEquals(model.size(), new GraphExporter(model).writeRdf(kept, RDFFormat.NTRIPLES));
+		Model read = ModelFactory.createDefaultModel();
+		try (InputStream in = new FileInputStream(kept)) {
+			read.read(in, null, "N-TRIPLE");
+		}
+		assertEquals(model.size(), read.size());
+
+		try {
+			new GraphExporter(model).writeRdf(new ByteArrayOutputStream(), RDFFormat.NTRIPLES);
+			fail("relative IRI written to a stream");
+		} catch (IOException e) {
+			assertEquals("relative", e.getMessage());
+		}
+	}
+
+	private static org.eclipse.rdf4j.model.Model parse(File file, RDFFormat format) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			return Rio.parse(in, "", format);
+		}
+	}
+}
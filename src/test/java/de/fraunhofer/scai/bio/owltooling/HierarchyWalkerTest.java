@@ -0,0 +1,105 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+public class HierarchyWalkerTest {
+
+	OWLOntology ontology = null;
+	OWLReasoner reasoner = null;
+
+	@Before
+	public void initOntology() throws OWLOntologyCreationException {
+		File ontologyFile = new File("./src/test/resources/pizza.owl");
+		ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(ontologyFile);
+		reasoner = OntologyReasoner.createReasoner(ontology, "HERMIT");
+	}
+
+	@Test
+	public void textSinkTest() throws IOException {
+		StringWriter out = new StringWriter();
+		TextHierarchySink sink = new TextHierarchySink(out, null, ontology);
+		int count = new HierarchyWalker(reasoner, 0).walk(reasoner.getTopClassNode(), sink);
+
+		String[] lines = out.toString().split(System.lineSeparator());
+		assertEquals("one line per node", count, lines.length);
+		assertTrue(lines[0].startsWith("{ owl:Thing") || lines[0].startsWith("{ http://www.w3.org/2002/07/owl#Thing"));
+		assertTrue(lines[1].startsWith("----{ "));
+		assertEquals("cycles", OntologyReasoner.checkHierarchy(reasoner, null, ontology, 0), sink.getCycles());
+	}
+
+	@Test
+	public void nTriplesSinkTest() throws IOException {
+		StringWriter out = new StringWriter();
+		new HierarchyWalker(reasoner, 0, true).walk(reasoner.getTopClassNode(), new NTriplesHierarchySink(out));
+
+		Set<String> expected = new HashSet<String>();
+		ontology.classesInSignature().forEach(clazz -> {
+			Node<OWLClass> node = reasoner.getEquivalentClasses(clazz);
+			if(node.isBottomNode() || !clazz.equals(node.getRepresentativeElement())) return;
+			reasoner.getSuperClasses(clazz, true).forEach(parent ->
+				expected.add("<" + clazz.getIRI() + "> <http://www.w3.org/2000/01/rdf-schema#subClassOf> <" + parent.getRepresentativeElement().getIRI() + "> ."));
+		});
+
+		Set<String> subClassOf = new HashSet<String>();
+		for(String line : out.toString().split("\n")) {
+			if(line.contains("subClassOf")) assertTrue("duplicate " + line, subClassOf.add(line));
+		}
+		assertEquals(expected, subClassOf);
+	}
+
+	@Test
+	public void csvSinkTest() throws IOException {
+		StringWriter out = new StringWriter();
+		int count = new HierarchyWalker(reasoner, 2).walk(reasoner.getTopClassNode(), new CsvHierarchySink(out, null, ontology));
+
+		String[] lines = out.toString().split("\r\n");
+		assertEquals("Depth;Class;Label;Parent", lines[0]);
+		assertTrue(lines.length - 1 >= count);
+		assertTrue(Arrays.stream(lines).skip(2).allMatch(line -> line.startsWith("1;")));
+	}
+
+	@Test
+	public void deepHierarchyTest() throws OWLOntologyCreationException, IOException {
+		OWLOntology chain = OWLManager.createOWLOntologyManager().createOntology();
+		OWLDataFactory df = chain.getOWLOntologyManager().getOWLDataFactory();
+
+		// a chain of 20000 classes, deeper than any recursion would survive
+		int n = 20000;
+		OWLClass[][] members = new OWLClass[n+2][];
+		int[][] parents = new int[n+2][];
+		members[Taxonomy.TOP] = new OWLClass[] { df.getOWLThing() };
+		members[Taxonomy.BOTTOM] = new OWLClass[] { df.getOWLNothing() };
+		parents[Taxonomy.TOP] = new int[0];
+		parents[Taxonomy.BOTTOM] = new int[] { n+1 };
+		for(int i=2; i<n+2; i++) {
+			members[i] = new OWLClass[] { df.getOWLClass(IRI.create("http://example.org/chain#C" + i)) };
+			parents[i] = new int[] { i == 2 ? Taxonomy.TOP : i-1 };
+		}
+
+		OWLReasoner deep = new TaxonomyReasoner(chain, new Taxonomy(members, parents, true));
+		int count = new HierarchyWalker(deep, 0).walk(deep.getTopClassNode(), new NTriplesHierarchySink(new StringWriter()));
+		assertEquals("all classes and owl:Thing", n+1, count);
+	}
+}
@@ -0,0 +1,74 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+public class InternPoolTest {
+
+	@Test
+	public void sharedInstancesTest() {
+		OWLDataFactory df = OWLManager.getOWLDataFactory();
+		for(InternPool pool : Arrays.asList(new InternPool(df), new InternPool(df, 0))) {
+			assertSame(pool.iri(new String("https://x/A")), pool.iri(new String("https://x/A")));
+			assertSame(pool.property(Prefixes.SKOS_PREF), pool.property(Prefixes.SKOS_PREF));
+			assertSame(pool.literal(new String("a"), "en"), pool.literal(new String("a"), "en"));
+			assertSame(pool.label(new String("a"), "en"), pool.label(new String("a"), "en"));
+
+			assertNotSame("languages mixed up", pool.literal("a", "en"), pool.literal("a", "de"));
+			assertNotSame("untagged and tagged mixed up", pool.literal("a", null), pool.literal("a", "en"));
+			assertEquals("", pool.literal("a", "").getLang());
+			assertEquals("de", pool.label("a", "de").getLanguage());
+		}
+	}
+
+	@Test
+	public void statsTest() {
+		InternPool pool = new InternPool(OWLManager.getOWLDataFactory());
+		for(int i=0; i<10; i++) {
+			pool.iri("https://x/" + (i % 2));
+		}
+		InternPool.Stats stats = pool.getStats().get("iris");
+		assertEquals(10, stats.getLookups());
+		assertEquals(8, stats.getHits());
+		assertEquals(2, stats.getSize());
+		assertEquals(0.8, stats.getHitRate(), 1e-9);
+		assertEquals(0, pool.getStats().get("labels").getLookups());
+	}
+
+	@Test
+	public void builderTest() throws OWLOntologyCreationException {
+		OntologyBuilder bob = new OntologyBuilder("https://bio.scai.fraunhofer.de/ontology/");
+		IRI a = IRI.create("https://bio.scai.fraunhofer.de/ontology/A");
+		IRI c = IRI.create("https://bio.scai.fraunhofer.de/ontology/C");
+		bob.addConceptAnnotation(a, Prefixes.SKOS_ALT, Arrays.asList(new Label("same", "en")));
+		bob.addConceptAnnotation(c, Prefixes.SKOS_ALT, Arrays.asList(new Label("same", "en")));
+
+		Set<OWLLiteral> literals = bob.getOntology().axioms(AxiomType.ANNOTATION_ASSERTION, Imports.EXCLUDED)
+				.map(OWLAnnotationAssertionAxiom::getValue)
+				.filter(value -> value.isLiteral())
+				.map(value -> value.asLiteral().get())
+				.collect(Collectors.toSet());
+		assertEquals(1, literals.size());
+		assertTrue("literals not interned", bob.getPool().getStats().get("literals").getHits() > 0);
+		assertSame(bob.getOWLClass("A").getIRI(), bob.getPool().iri(bob.getOntologyIRI() + "A"));
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+public class LabelIndexTest {
+
+	OWLOntology ontology = null;
+
+	@Before
+	public void initOntology() throws OWLOntologyCreationException {
+		File ontologyFile = new File("./src/test/resources/pizza.owl");
+		ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(ontologyFile);
+	}
+
+	@Test
+	public void resolveTest() {
+		assertEquals(Prefixes.RDFS_LABEL, LabelIndex.resolve("rdfs:label"));
+		assertEquals(Prefixes.SKOS_PREF, LabelIndex.resolve("<" + Prefixes.SKOS_PREF + ">"));
+	}
+
+	@Test
+	public void indexTest() {
+		LabelIndex index = LabelIndex.of(ontology);
+
+		ontology.classesInSignature().forEach(clazz -> {
+			for(IRI property : new IRI[] { Prefixes.RDFS_LABEL, Prefixes.SKOS_PREF }) {
+				assertEquals("literals differ for " + clazz, scan(clazz, property), indexed(index, clazz, property));
+			}
+		});
+	}
+
+	@Test
+	public void changeTest() {
+		LabelIndex index = LabelIndex.of(ontology);
+		OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+		OWLClass clazz = df.getOWLClass(IRI.create("http://www.co-ode.org/ontologies/pizza/pizza.owl#Calzone"));
+
+		OWLLiteral literal = df.getOWLLiteral("Calzone", "de");
+		OWLAnnotationAssertionAxiom axiom = df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), clazz.getIRI(), literal);
+
+		ontology.add(axiom);
+		assertTrue("addition missing", index.get(clazz.getIRI(), Prefixes.RDFS_LABEL, "de").contains(literal));
+		assertEquals("Calzone", OntologyReasoner.getLabelOfClass(ontology, clazz, "de"));
+
+		ontology.remove(axiom);
+		assertTrue("removal missing", index.get(clazz.getIRI(), Prefixes.RDFS_LABEL, "de").isEmpty());
+		assertEquals(scan(clazz, Prefixes.RDFS_LABEL), indexed(index, clazz, Prefixes.RDFS_LABEL));
+	}
+
+	@Test
+	public void findOrderTest() {
+		OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+		IRI subject = IRI.create("http://example.org/labelled");
+		LabelIndex index = LabelIndex.of(ontology);
+
+		for(String lang : new String[] { "fr", "pt", "de", "en-GB" }) {
+			ontology.add(df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), subject, df.getOWLLiteral("label " + lang, lang)));
+		}
+		assertEquals("label de", index.find(subject, Prefixes.RDFS_LABEL, null).get().getLiteral());
+		assertEquals("label en-GB", index.find(subject, Prefixes.RDFS_LABEL, "en").get().getLiteral());
+
+		ontology.add(df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), subject, df.getOWLLiteral("label")));
+		assertEquals("label", index.find(subject, Prefixes.RDFS_LABEL, null).get().getLiteral());
+
+		ontology.add(df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), subject, df.getOWLLiteral("label en", "en")));
+		assertEquals("label en", index.find(subject, Prefixes.RDFS_LABEL, null).get().getLiteral());
+		assertEquals("label en", index.find(subject, Prefixes.RDFS_LABEL, "en").get().getLiteral());
+		assertEquals("label pt", index.find(subject, Prefixes.RDFS_LABEL, "pt").get().getLiteral());
+		assertTrue(!index.find(subject, Prefixes.RDFS_LABEL, "es").isPresent());
+	}
+
+	@Test
+	public void releaseTest() {
+		OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+		IRI subject = IRI.create("http://example.org/released");
+		LabelIndex index = LabelIndex.of(ontology);
+
+		LabelIndex.release(ontology);
+		ontology.add(df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), subject, df.getOWLLiteral("released")));
+		assertTrue("listener still registered", index.get(subject, Prefixes.RDFS_LABEL).isEmpty());
+
+		LabelIndex rebuilt = LabelIndex.of(ontology);
+		assertNotSame(index, rebuilt);
+		assertEquals("released", rebuilt.find(subject, Prefixes.RDFS_LABEL, null).get().getLiteral());
+	}
+
+	private Set<OWLLiteral> scan(OWLClass clazz, IRI property) {
+		return ontology.annotationAssertionAxioms(clazz.getIRI())
+				.filter(annotation -> annotation.getProperty().getIRI().equals(property) && annotation.getValue().isLiteral())
+				.map(annotation -> annotation.getValue().asLiteral().get())
+				.collect(Collectors.toSet());
+	}
+
+	private Set<OWLLiteral> indexed(LabelIndex index, OWLClass clazz, IRI property) {
+		Set<OWLLiteral> result = new HashSet<OWLLiteral>();
+		index.get(clazz.getIRI(), property).values().forEach(result::addAll);
+		return result;
+	}
+}
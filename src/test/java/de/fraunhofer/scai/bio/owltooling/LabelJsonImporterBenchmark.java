@@ -0,0 +1,80 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+/**
+ * import time of a generated concept file, run with main from the test classpath
+ *
+ * an import of 500k concepts takes about 50 s on one core, so an iteration holds one or two.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 60)
+@Measurement(iterations = 3, time = 60)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+public class LabelJsonImporterBenchmark {
+
+	@Param({ "500000" })
+	int concepts;
+
+	File file;
+
+	@Setup(Level.Trial)
+	public void generate() throws IOException {
+		file = File.createTempFile("concepts", ".json");
+		try (Writer out = new BufferedWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+			out.write("[");
+			for(int i=0; i<concepts; i++) {
+				if(i > 0) out.write(",\n");
+				out.write("{\"iri\":\"https://bio.scai.fraunhofer.de/ontology/C" + i + "\","
+						+ "\"prefLabels\":[{\"language\":\"en\",\"content\":\"concept " + i + "\"},{\"language\":\"de\",\"content\":\"Konzept " + i + "\"}],"
+						+ "\"altLabels\":[{\"language\":\"en\",\"content\":\"synonym " + i + "\"}],"
+						+ "\"definitions\":[{\"language\":\"en\",\"content\":\"definition of concept " + i + "\"}],"
+						+ "\"source\":{\"name\":\"generated\"}}");
+			}
+			out.write("]");
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() {
+		file.delete();
+	}
+
+	@Benchmark
+	public ImportResult importConcepts() throws IOException, OWLOntologyCreationException {
+		return new LabelJsonImporter(new OntologyBuilder("https://bio.scai.fraunhofer.de/ontology/")).importFile(file);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(LabelJsonImporterBenchmark.class.getSimpleName()).build()).run();
+	}
+}
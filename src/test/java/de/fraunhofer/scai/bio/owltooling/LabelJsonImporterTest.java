@@ -0,0 +1,46 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+
+public class LabelJsonImporterTest {
+
+	@Test
+	public void importTest() throws OWLOntologyCreationException, IOException {
+		String json = "[{\"iri\":\"https://bio.scai.fraunhofer.de/ontology/A\",\"source\":{\"ids\":[1,2]},"
+				+ "\"prefLabels\":[{\"language\":\"en\",\"content\":\"Alpha\"},{\"language\":\"de\",\"content\":\"Alpha &amp; Omega\"}],"
+				+ "\"altLabels\":[{\"content\":\"first\"}]},"
+				+ "{\"prefLabels\":[{\"language\":\"en\",\"content\":\"no id\"}]},"
+				+ "{\"definitions\":[{\"language\":\"en\",\"content\":\"the second\"}],\"iri\":\"https://bio.scai.fraunhofer.de/ontology/B\"}]";
+
+		OntologyBuilder bob = new OntologyBuilder("https://bio.scai.fraunhofer.de/ontology/");
+		ImportResult result = new LabelJsonImporter(bob)
+				.root(OWLRDFVocabulary.OWL_THING.getIRI())
+				.flushThreshold(2)
+				.importFrom(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals("wrong concept count", 3, result.getRows());
+		assertEquals("concept without id not rejected", 1, result.getRejected());
+
+		LabelIndex index = LabelIndex.of(bob.getOntology());
+		IRI a = IRI.create("https://bio.scai.fraunhofer.de/ontology/A");
+		assertEquals("Alpha", index.get(a, Prefixes.SKOS_PREF, "en").get(0).getLiteral());
+		assertEquals("entity not stripped", "Alpha  Omega", index.get(a, Prefixes.SKOS_PREF, "de").get(0).getLiteral());
+		assertEquals("OLS label missing", "Alpha", index.get(a, OntologyBuilder.OLS_LABEL, "").get(0).getLiteral());
+		assertEquals("first", index.get(a, Prefixes.SKOS_ALT, "").get(0).getLiteral());
+		assertEquals("field order matters", "the second",
+				index.get(IRI.create("https://bio.scai.fraunhofer.de/ontology/B"), Prefixes.SKOS_DEF, "en").get(0).getLiteral());
+		assertEquals("classes missing", 3, bob.getOntology().classesInSignature().count());
+	}
+}
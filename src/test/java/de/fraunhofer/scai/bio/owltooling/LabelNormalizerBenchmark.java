@@ -0,0 +1,70 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * label normalization against the former regular expressions and splits, run with main from the test classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LabelNormalizerBenchmark {
+
+	final String[] labels = {
+			"Alzheimer disease",
+			"tumor necrosis factor &alpha; inhibitor",
+			"{5-hydroxytryptamine, receptor 2A}",
+			"a &lt; b, c &gt; d",
+			"interleukin 6 signal transducer (gp130, oncostatin M receptor)"
+	};
+	final String[] languages = { "en", "en-GB", "de-DE", "fr" };
+
+	final LabelNormalizer normalizer = LabelNormalizer.labels();
+	final LabelNormalizer prefNormalizer = LabelNormalizer.prefLabels();
+
+	@Benchmark
+	public void regex(Blackhole blackhole) {
+		for(String label : labels) {
+			blackhole.consume(label.replaceAll("&.+;", ""));
+			blackhole.consume(label.replaceAll("[{}<>,]", "").replaceAll("&lt;", ""));
+		}
+		for(String language : languages) {
+			blackhole.consume(language.split("-")[0]);
+		}
+	}
+
+	@Benchmark
+	public void scanner(Blackhole blackhole) {
+		for(String label : labels) {
+			blackhole.consume(normalizer.normalize(label));
+			blackhole.consume(prefNormalizer.normalize(label));
+		}
+		for(String language : languages) {
+			blackhole.consume(normalizer.language(language));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(LabelNormalizerBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+public class LabelNormalizerTest {
+
+	@Test
+	public void labelsTest() {
+		LabelNormalizer normalizer = LabelNormalizer.labels();
+		String unchanged = "Alpha Omega";
+		assertSame("unchanged text copied", unchanged, normalizer.normalize(unchanged));
+		assertEquals("Alpha  Omega", normalizer.normalize("Alpha &amp; Omega"));
+		assertEquals("a  b", normalizer.normalize("a &#60; b"));
+		assertEquals("entities not stripped one by one", "a  b  c", normalizer.normalize("a &lt; b &gt; c"));
+		assertEquals("R & D; x", normalizer.normalize("R & D; x"));
+		assertEquals("&; &#;", normalizer.normalize("&; &#;"));
+		assertEquals("trailing", normalizer.normalize("trailing&amp;"));
+		assertNull(normalizer.normalize(null));
+	}
+
+	@Test
+	public void prefLabelsTest() {
+		LabelNormalizer normalizer = LabelNormalizer.prefLabels();
+		assertEquals("a b c", normalizer.normalize("{a, b} <c>"));
+		assertEquals("a  b &amp; c", normalizer.normalize("a &lt; b &amp; c"));
+		assertEquals("entity not matched after removal", "ab", normalizer.normalize("a&l,t;b"));
+	}
+
+	@Test
+	public void whitespaceTest() {
+		LabelNormalizer normalizer = new LabelNormalizer().stripEntities().collapseWhitespace();
+		assertEquals("Alpha Omega", normalizer.normalize("  Alpha &amp;\t\n Omega \n"));
+		assertEquals("", normalizer.normalize(" \t "));
+		String unchanged = "a b";
+		assertSame(unchanged, normalizer.normalize(unchanged));
+	}
+
+	@Test
+	public void languageTest() {
+		LabelNormalizer normalizer = LabelNormalizer.labels();
+		assertEquals("en", normalizer.language("en-GB"));
+		assertEquals("en", normalizer.language("EN_us"));
+		assertEquals("de", normalizer.language("de"));
+		assertNull(normalizer.language(null));
+		assertEquals("en-gb", new LabelNormalizer().fullLanguageTags().language("en_GB"));
+	}
+
+	@Test
+	public void builderTest() throws OWLOntologyCreationException {
+		OntologyBuilder bob = new OntologyBuilder("https://bio.scai.fraunhofer.de/ontology/");
+
+		OWLAnnotation annotation = bob.getAnnotation(Prefixes.SKOS_PREF, "mail@example.org \"quoted\"", "en-GB");
+		assertEquals("mail@example.org \"quoted\"", bob.stripAnnotation(annotation));
+		assertEquals("en", bob.getAnnotationLanguage(annotation));
+		assertNull(bob.getAnnotationLanguage(bob.getAnnotation(Prefixes.SKOS_PREF, "untagged")));
+
+		assertEquals("a b", bob.stripAnnotation(bob.getPrefAnnotation("{a, b}", "en")));
+
+		bob.setPrefNormalizer(LabelNormalizer.prefLabels().collapseWhitespace());
+		assertEquals("a b", bob.stripAnnotation(bob.getPrefAnnotation(" {a,  b} ", "en")));
+	}
+}
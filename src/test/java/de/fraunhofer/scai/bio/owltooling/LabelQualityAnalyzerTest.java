@@ -0,0 +1,97 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+
+public class LabelQualityAnalyzerTest {
+
+	OntologyBuilder bob = null;
+	OWLClass thing, a, b, c;
+
+	@Before
+	public void initOntology() throws OWLOntologyCreationException {
+		bob = new OntologyBuilder("https://bio.scai.fraunhofer.de/ontology/Test_");
+		thing = bob.getOWLClass(OWLRDFVocabulary.OWL_THING.getIRI());
+		a = bob.addClassWithSuperClass(IRI.create("https://bio.scai.fraunhofer.de/ontology/Test_A"), OWLRDFVocabulary.OWL_THING.getIRI());
+		b = bob.addClassWithSuperClass(IRI.create("https://bio.scai.fraunhofer.de/ontology/Test_B"), OWLRDFVocabulary.OWL_THING.getIRI());
+		c = bob.addClassWithSuperClass(IRI.create("https://bio.scai.fraunhofer.de/ontology/Test_C"), OWLRDFVocabulary.OWL_THING.getIRI());
+
+		bob.addConceptAnnotation(a.getIRI(), bob.getAnnotation(Prefixes.RDFS_LABEL, "Aspirin", "en"));
+		bob.addConceptAnnotation(a.getIRI(), bob.getAnnotation(Prefixes.RDFS_LABEL, "Aspirin", "de"));
+		bob.addConceptAnnotation(b.getIRI(), bob.getAnnotation(Prefixes.RDFS_LABEL, "Aspirin", "en"));
+		bob.addConceptAnnotation(c.getIRI(), bob.getAnnotation(Prefixes.RDFS_LABEL, "untagged"));
+	}
+
+	@Test
+	public void findingsTest() throws IOException {
+		List<LabelQualityAnalyzer.Finding> findings = new ArrayList<LabelQualityAnalyzer.Finding>();
+		LabelQualityAnalyzer.Report report = new LabelQualityAnalyzer(bob.getOntology(), Arrays.asList("de", "en", "und")).analyze(findings::add);
+
+		// owl:Thing is in the signature as well
+		assertEquals("wrong class count", 4, report.getClasses());
+		assertEquals("wrong missing de", set(thing, b, c), missing(findings, "de"));
+		assertEquals("wrong missing en", set(thing, c), missing(findings, "en"));
+		assertEquals("untagged not found", set(thing, a, b), missing(findings, "und"));
+		assertEquals("wrong missing count", 2, report.getMissing().get("en").longValue());
+		assertEquals("same label in de and en", 1, report.count(LabelQualityAnalyzer.Kind.SAME));
+		assertEquals("A and B share a label", 2, report.count(LabelQualityAnalyzer.Kind.DUPLICATE));
+		assertEquals("findings not counted", findings.size(), Arrays.stream(LabelQualityAnalyzer.Kind.values()).mapToLong(report::count).sum());
+
+		StringWriter csv = new StringWriter();
+		LabelQualityAnalyzer.Sink csvSink = LabelQualityAnalyzer.csv(csv);
+		new LabelQualityAnalyzer(bob.getOntology(), Arrays.asList("de", "en", "und")).analyze(csvSink);
+		csvSink.flush();
+		assertEquals("one row per finding", findings.size() + 1, csv.toString().split("\r\n").length);
+
+		StringWriter json = new StringWriter();
+		LabelQualityAnalyzer.Sink jsonSink = LabelQualityAnalyzer.jsonLines(json);
+		new LabelQualityAnalyzer(bob.getOntology(), Arrays.asList("de", "en", "und")).analyze(jsonSink);
+		jsonSink.flush();
+		String[] lines = json.toString().split("\n");
+		assertEquals("one line per finding", findings.size(), lines.length);
+		assertTrue(lines[0].startsWith("{\"finding\":"));
+	}
+
+	@Test
+	public void toBeFixedTest() {
+		String[] languages = { "de", "en", "und" };
+		assertEquals(set(thing, c), set(OntologyReasoner.checkAnnotations(bob.getOntology(), new DefaultPrefixManager(), languages, false, "en")));
+		assertNull(OntologyReasoner.checkAnnotations(bob.getOntology(), new DefaultPrefixManager(), languages, false, null));
+	}
+
+	private static Set<OWLClass> set(OWLClass... classes) {
+		return new HashSet<OWLClass>(Arrays.asList(classes));
+	}
+
+	private static Set<OWLClass> set(List<OWLClass> classes) {
+		return new HashSet<OWLClass>(classes);
+	}
+
+	private static Set<OWLClass> missing(List<LabelQualityAnalyzer.Finding> findings, String language) {
+		return findings.stream()
+				.filter(finding -> finding.getKind() == LabelQualityAnalyzer.Kind.MISSING && finding.getLanguage().equals(language))
+				.map(LabelQualityAnalyzer.Finding::getClazz)
+				.collect(Collectors.toSet());
+	}
+}
@@ -0,0 +1,204 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.RDFXMLDocumentFormat;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.MissingImportHandlingStrategy;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+import org.semanticweb.owlapi.util.SimpleIRIMapper;
+
+public class LanguageOntologiesTest {
+
+	@Rule public TemporaryFolder folder = new TemporaryFolder();
+
+	OWLOntology ontology = null;
+
+	@Before
+	public void initOntology() throws OWLOntologyCreationException {
+		File ontologyFile = new File("./src/test/resources/pizza.owl");
+		ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(ontologyFile);
+	}
+
+	@Test
+	public void sharedAxiomsTest() throws OWLOntologyCreationException, OWLOntologyStorageException {
+		List<TMOntology> bins = OntologyReasoner.getLanguageOntologies(new DefaultPrefixManager(), ontology, false, "pizza");
+		assertTrue("no languages", bins.size() > 1);
+
+		OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+		OWLReasoner expected = new StructuralReasonerFactory().createReasoner(ontology);
+		IRI sharedIRI = IRI.create("https://bio.scai.fraunhofer.de/ontology/pizza_shared");
+		for(TMOntology bin : bins) {
+			String lang = bin.getName().substring(bin.getName().lastIndexOf('-') + 1);
+
+			// the former way: a full copy, filtered afterwards
+			OWLOntology copy = OWLManager.createOWLOntologyManager().createOntology();
+			copy.add(ontology.getAxioms());
+			OntologyReasoner.filterLabelLanguageTags(copy, lang, true);
+
+			assertTrue("axioms copied for " + lang, bin.getOntology().getAxiomCount() < copy.getAxiomCount());
+			assertEquals("closure differs for " + lang, axioms(copy), axioms(bin.getOntology(), Imports.INCLUDED));
+
+			OWLReasoner reasoner = new StructuralReasonerFactory().createReasoner(bin.getOntology());
+			assertEquals("hierarchy differs for " + lang, expected.getSubClasses(df.getOWLThing(), false), reasoner.getSubClasses(df.getOWLThing(), false));
+
+			File file = new File(folder.getRoot(), bin.getName());
+			bin.getBuilder().saveOntology(file.getPath(), "ttl");
+
+			OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+			manager.getIRIMappers().add(new SimpleIRIMapper(sharedIRI, IRI.create(new File(folder.getRoot(), "pizza_shared.ttl"))));
+			OWLOntology saved = manager.loadOntologyFromOntologyDocument(new File(file.getPath() + ".ttl"));
+
+			assertEquals("saved axioms differ for " + lang, axioms(copy), axioms(saved, Imports.INCLUDED));
+			assertEquals("ontology annotations missing", 3, saved.annotations().count());
+		}
+
+		// the shared axioms go with the last bin
+		OWLOntologyManager manager = bins.get(0).getBuilder().getManager();
+		bins.forEach(TMOntology::release);
+		assertEquals("ontologies left", 0, manager.ontologies().count());
+	}
+
+	@Test
+	public void filterSummaryTest() throws OWLOntologyCreationException {
+		OWLOntology copy = OWLManager.createOWLOntologyManager().createOntology();
+		copy.add(ontology.getAxioms());
+		long before = copy.getAxiomCount();
+
+		ChangeSummary summary = OntologyReasoner.filterLabelLanguageTags(copy, "pt", true);
+		assertEquals("wrong count of removed axioms", before - copy.getAxiomCount(), summary.getRemoved());
+		assertEquals("nothing added", 0, summary.getAdded());
+		assertTrue("no class touched", summary.getClasses() > 0);
+
+		assertEquals("filtered twice", 0, OntologyReasoner.filterLabelLanguageTags(copy, "pt", true).getRemoved());
+	}
+
+	@Test
+	public void streamingSplitTest() throws IOException, OWLOntologyCreationException {
+		Set<String> languages = OntologyReasoner.checkLanguages(ontology, new DefaultPrefixManager(), false);
+		Map<String, File> files = new LanguageSplitter(languages, RDFFormat.TURTLE)
+				.split(new File("./src/test/resources/pizza.owl"), folder.getRoot(), "pizza");
+		assertEquals("missing files", languages, files.keySet());
+
+		for(String lang : languages) {
+			OWLOntology copy = OWLManager.createOWLOntologyManager().createOntology();
+			copy.add(ontology.getAxioms());
+			OntologyReasoner.filterLabelLanguageTags(copy, lang, true);
+
+			OWLOntology split = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(files.get(lang));
+			// annotations with IRI values are kept by the stream
+			Set<OWLAxiom> literals = axioms(split).stream()
+					.filter(axiom -> !(axiom instanceof OWLAnnotationAssertionAxiom) || ((OWLAnnotationAssertionAxiom) axiom).getValue().isLiteral())
+					.collect(Collectors.toSet());
+			assertEquals("split axioms differ for " + lang, axioms(copy), literals);
+			assertEquals("wrong ontology", "https://bio.scai.fraunhofer.de/ontology/pizza_lang-" + lang,
+					split.getOntologyID().getOntologyIRI().get().getIRIString());
+			assertEquals("ontology annotations missing", 3, split.annotations().count());
+		}
+	}
+
+	@Test
+	public void ungroupedSplitTest() throws IOException {
+		String x = "<http://example.org/X>";
+		String label = "<http://www.w3.org/2000/01/rdf-schema#label>";
+		String type = "<http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://www.w3.org/2002/07/owl#Class> .\n";
+		File input = folder.newFile("ungrouped.nt");
+		Files.write(input.toPath(), (x + " " + label + " \"x\"@en .\n"
+				+ "<http://example.org/Y> " + type
+				+ x + " " + type).getBytes(StandardCharsets.UTF_8));
+
+		try {
+			new LanguageSplitter(Arrays.asList("en", "de"), RDFFormat.NTRIPLES).split(input, folder.getRoot(), "ungrouped");
+			fail("ungrouped input split");
+		} catch(IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("http://example.org/X"));
+		}
+	}
+
+	@Test
+	public void axiomAnnotationSplitTest() throws Exception {
+		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		OWLDataFactory df = manager.getOWLDataFactory();
+		OWLOntology source = manager.createOntology(IRI.create("http://example.org/source"));
+		OWLImportsDeclaration imported = df.getOWLImportsDeclaration(IRI.create("http://example.org/imported"));
+		manager.applyChange(new AddImport(source, imported));
+
+		OWLClass x = df.getOWLClass(IRI.create("http://example.org/X"));
+		OWLAnnotation comment = df.getRDFSComment("reviewed");
+		source.add(df.getOWLDeclarationAxiom(x),
+				df.getOWLAnnotationAssertionAxiom(x.getIRI(), df.getRDFSLabel(df.getOWLLiteral("cheese", "en")), Collections.singleton(comment)),
+				df.getOWLAnnotationAssertionAxiom(x.getIRI(), df.getRDFSLabel(df.getOWLLiteral("Käse", "de")), Collections.singleton(comment)),
+				df.getOWLAnnotationAssertionAxiom(x.getIRI(), df.getRDFSComment(df.getOWLLiteral("hard", "en")), Collections.singleton(comment)));
+
+		File input = new File(folder.getRoot(), "source.owl");
+		manager.saveOntology(source, new RDFXMLDocumentFormat(), IRI.create(input.toURI()));
+
+		Map<String, File> files = new LanguageSplitter(Arrays.asList("en", "de"), RDFFormat.TURTLE)
+				.split(input, folder.getRoot(), "TM_BIN source");
+		for(String lang : files.keySet()) {
+			OWLOntology copy = OWLManager.createOWLOntologyManager().createOntology();
+			copy.add(source.getAxioms());
+			OntologyReasoner.filterLabelLanguageTags(copy, lang, true);
+
+			OWLOntologyManager splitManager = OWLManager.createOWLOntologyManager();
+			splitManager.setOntologyLoaderConfiguration(splitManager.getOntologyLoaderConfiguration()
+					.setMissingImportHandlingStrategy(MissingImportHandlingStrategy.SILENT));
+			OWLOntology split = splitManager.loadOntologyFromOntologyDocument(files.get(lang));
+
+			assertEquals("split axioms differ for " + lang, axioms(copy), axioms(split));
+			assertEquals("imports missing", Collections.singleton(imported), split.importsDeclarations().collect(Collectors.toSet()));
+			assertEquals("wrong ontology", "https://bio.scai.fraunhofer.de/ontology/source_lang-" + lang,
+					split.getOntologyID().getOntologyIRI().get().getIRIString());
+		}
+
+		for(TMOntology bin : OntologyReasoner.getLanguageOntologies(new DefaultPrefixManager(), source, false, "source")) {
+			assertTrue("imports missing", bin.getOntology().imports().anyMatch(shared -> shared.importsDeclarations().anyMatch(imported::equals)));
+		}
+	}
+
+	private static Set<OWLAxiom> axioms(OWLOntology ontology) {
+		return axioms(ontology, Imports.EXCLUDED);
+	}
+
+	private static Set<OWLAxiom> axioms(OWLOntology ontology, Imports imports) {
+		// the writer declares the properties of the ontology annotations
+		return ontology.axioms(imports).filter(axiom -> !axiom.isOfType(AxiomType.DECLARATION)).collect(Collectors.toSet());
+	}
+}
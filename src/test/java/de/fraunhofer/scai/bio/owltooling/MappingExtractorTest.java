@@ -0,0 +1,118 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+
+public class MappingExtractorTest {
+
+	private final static String PREFIX = "https://bio.scai.fraunhofer.de/ontology/Test_";
+	private final static String OBO = "http://purl.obolibrary.org/obo/";
+
+	private OntologyBuilder bob;
+
+	@Before
+	public void build() throws OWLOntologyCreationException {
+		bob = new OntologyBuilder(PREFIX);
+		OWLClass a = bob.addClassWithSuperClass(IRI.create(PREFIX + "A"), OWLRDFVocabulary.OWL_THING.getIRI());
+		OWLClass b = bob.addClassWithSuperClass(IRI.create(PREFIX + "B"), IRI.create(PREFIX + "A"));
+		for(int i=0; i<5000; i++) {
+			bob.addSomeValues(b, Prefixes.SKOS_EXACT, bob.getOWLClass(IRI.create(OBO + "X_" + i)));
+		}
+		bob.addSomeValues(a, Prefixes.SKOS_CLOSE, bob.getOWLClass(IRI.create(OBO + "Y_1")));
+		// no skos match
+		bob.addSomeValues(a, IRI.create(PREFIX + "hasMatch"), bob.getOWLClass(IRI.create(OBO + "Z_1")));
+	}
+
+	@Test
+	public void extractTest() {
+		List<MappingExtractor.Mapping> mappings = new MappingExtractor(bob.getOntology()).extract();
+		assertEquals(5001, mappings.size());
+		assertEquals(1, mappings.stream().filter(mapping -> mapping.getPredicate().equals(Prefixes.SKOS_CLOSE)).count());
+		assertEquals(1, new MappingExtractor(bob.getOntology(), Collections.singleton(IRI.create(PREFIX + "hasMatch")))
+				.extract().size());
+	}
+
+	@Test
+	public void sssomTest() throws IOException {
+		DefaultPrefixManager pm = new DefaultPrefixManager();
+		pm.setPrefix("obo:", OBO);
+		pm.setPrefix("test:", PREFIX);
+
+		StringWriter out = new StringWriter();
+		long count = new MappingExtractor(bob.getOntology()).prefixes(pm)
+				.writeSssom(out, RDFBuilder.createProvenance(PREFIX, "test", "http://example.org/source"));
+		assertEquals(5001, count);
+
+		List<String> lines = Arrays.asList(out.toString().split("\n"));
+		assertTrue(lines.contains("# mapping_set_id: http://owltooling.bio.scai.fraunhofer.de/test.rdf"));
+		assertTrue(lines.contains("# mapping_provider: http://example.org/source"));
+		assertTrue(lines.contains("#   obo: \"" + OBO + "\""));
+
+		List<String> rows = lines.stream().filter(line -> !line.startsWith("#")).collect(Collectors.toList());
+		assertEquals("subject_id\tpredicate_id\tobject_id\tmapping_justification", rows.get(0));
+		assertEquals(5002, rows.size());
+		assertTrue(rows.contains("test:A\tskos:closeMatch\tobo:Y_1\tsemapv:UnspecifiedMatching"));
+	}
+
+	@Test
+	public void nTriplesTest() throws IOException {
+		StringWriter out = new StringWriter();
+		long count = new MappingExtractor(bob.getOntology())
+				.writeNTriples(out, RDFBuilder.createProvenance(PREFIX, "test", "http://example.org/source"));
+		assertEquals(5001, count);
+
+		Model model = ModelFactory.createDefaultModel();
+		model.read(new StringReader(out.toString()), null, "N-TRIPLE");
+		assertTrue(model.contains(
+				ResourceFactory.createResource(PREFIX + "B"),
+				ResourceFactory.createProperty(Prefixes.SKOS_EXACT.toString()),
+				ResourceFactory.createResource(OBO + "X_42")));
+		assertTrue("provenance missing", model.contains(null, null, model.createLiteral("OWL Tooling")));
+
+		Model checked = OntologyReasoner.checkMappings(bob.getOntology(), new DefaultPrefixManager(), PREFIX, "test", "http://example.org/source", false);
+		assertEquals(5001, checked.listStatements(null, null, (RDFNode) null).toList().stream()
+				.filter(statement -> statement.getPredicate().getURI().startsWith("http://www.w3.org/2004/02/skos/core#")).count());
+	}
+
+	@Test
+	public void streamedMappingsTest() throws IOException {
+		StringWriter out = new StringWriter();
+		long count = OntologyReasoner.checkMappings(bob.getOntology(), new DefaultPrefixManager(), PREFIX, "test", "http://example.org/source", true, out);
+		assertEquals(5001, count);
+
+		Model model = ModelFactory.createDefaultModel();
+		model.read(new StringReader(out.toString()), null, "N-TRIPLE");
+		assertEquals(5001, model.listStatements(null, null, (RDFNode) null).toList().stream()
+				.filter(statement -> statement.getPredicate().getURI().startsWith("http://www.w3.org/2004/02/skos/core#")).count());
+		assertTrue("provenance missing", model.contains(null, null, model.createLiteral("OWL Tooling")));
+	}
+
+	@Test
+	public void iriEscapeTest() {
+		StringBuilder sb = MappingExtractor.appendIri(new StringBuilder(), IRI.create("http://example.org/a b<c>\"d{|}^`\\e\u00e9"));
+		assertEquals("<http://example.org/a\\u0020b\\u003Cc\\u003E\\u0022d\\u007B\\u007C\\u007D\\u005E\\u0060\\u005Ce\u00e9>", sb.toString());
+	}
+}
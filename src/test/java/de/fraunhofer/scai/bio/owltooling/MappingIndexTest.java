@@ -0,0 +1,104 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+
+public class MappingIndexTest {
+
+	private final static String A = "https://example.org/a/";
+	private final static String B = "https://example.org/b/";
+	private final static String C = "https://example.org/c/";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static OntologyBuilder ontology(String prefix) throws OWLOntologyCreationException {
+		return new OntologyBuilder(prefix + "ontology");
+	}
+
+	private static void map(OntologyBuilder bob, String subject, IRI property, String object) {
+		OWLClass clazz = bob.addClassWithSuperClass(IRI.create(subject), OWLRDFVocabulary.OWL_THING.getIRI());
+		bob.addSomeValues(clazz, property, bob.getOWLClass(IRI.create(object)));
+	}
+
+	private MappingIndex build() throws OWLOntologyCreationException {
+		OntologyBuilder a = ontology(A);
+		map(a, A + "1", Prefixes.SKOS_EXACT, B + "1");
+		map(a, A + "1", Prefixes.SKOS_BROAD, C + "9");
+		map(a, A + "2", Prefixes.SKOS_CLOSE, B + "2");
+		map(a, A + "Ä", Prefixes.SKOS_RELATED, A + "Z");
+
+		OntologyBuilder b = ontology(B);
+		map(b, B + "1", Prefixes.SKOS_EXACT, C + "1");
+		map(b, B + "8", Prefixes.SKOS_NARROW, A + "1");
+		map(b, B + "3", Prefixes.SKOS_EXACT, C + "3");
+
+		return MappingIndex.of(a.getOntology(), b.getOntology());
+	}
+
+	private static void check(MappingIndex index) {
+		assertEquals(11, index.size());
+		assertEquals(new HashSet<String>(Arrays.asList(B + "1", C + "1")), new HashSet<String>(index.getEquivalents(A + "1")));
+		assertEquals(new HashSet<String>(Arrays.asList(A + "1", B + "1")), new HashSet<String>(index.getEquivalents(C + "1")));
+		assertEquals(Arrays.asList(C + "3"), index.getEquivalents(B + "3"));
+		assertTrue(index.getEquivalents(A + "2").isEmpty());
+		assertTrue(index.getEquivalents(A + "unknown").isEmpty());
+
+		assertEquals("broad and inverse narrow", new HashSet<String>(Arrays.asList(B + "8", C + "9")), new HashSet<String>(index.getBroader(A + "1")));
+		assertEquals(Arrays.asList(A + "1"), index.getNarrower(C + "9"));
+		assertEquals("close is symmetric", Arrays.asList(A + "2"), index.getTargets(B + "2", MappingIndex.MatchType.CLOSE));
+		assertEquals(Arrays.asList(A + "Z"), index.getTargets(A + "Ä", MappingIndex.MatchType.RELATED));
+
+		assertEquals(A + "ontology", index.getSource(A + "1"));
+		assertEquals(B + "ontology", index.getSource(B + "1"));
+		assertNull("target only", index.getSource(C + "1"));
+		assertEquals(8, index.getClusterCount());
+		assertEquals(6, index.count(MappingIndex.MatchType.EXACT));
+
+		for(int id=0; id<index.size(); id++) {
+			assertEquals(id, index.id(index.iri(id)));
+		}
+	}
+
+	@Test
+	public void indexTest() throws OWLOntologyCreationException {
+		check(build());
+	}
+
+	@Test
+	public void mapTest() throws OWLOntologyCreationException, IOException {
+		File file = folder.newFile("mappings.idx");
+		build().write(file);
+		check(MappingIndex.map(file));
+	}
+
+	@Test
+	public void emptyTest() throws OWLOntologyCreationException, IOException {
+		MappingIndex index = MappingIndex.of(ontology(A).getOntology());
+		assertEquals(0, index.size());
+		assertEquals(-1, index.id(A + "1"));
+
+		File file = folder.newFile("empty.idx");
+		index.write(file);
+		List<String> broader = MappingIndex.map(file).getBroader(A + "1");
+		assertTrue(broader.isEmpty());
+	}
+}
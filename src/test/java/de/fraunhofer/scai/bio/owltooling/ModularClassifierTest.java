@@ -0,0 +1,100 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+public class ModularClassifierTest {
+
+	OWLOntology ontology = null;
+	OWLReasoner hermit = null;
+
+	@Before
+	public void initOntology() throws OWLOntologyCreationException {
+		File ontologyFile = new File("./src/test/resources/pizza.owl");
+		ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(ontologyFile);
+		hermit = OntologyReasoner.createReasoner(ontology, "HERMIT");
+	}
+
+	@Test
+	public void rootModulesTest() {
+		compare(new TaxonomyReasoner(ontology, new ModularClassifier(ontology, ModularClassifier.Partition.ROOTS, 4).classify()));
+	}
+
+	@Test
+	public void componentModulesTest() {
+		compare(new TaxonomyReasoner(ontology, new ModularClassifier(ontology, ModularClassifier.Partition.COMPONENTS, 4).classify()));
+	}
+
+	@Test
+	public void createReasonerTest() {
+		OWLReasoner modular = OntologyReasoner.createReasoner(ontology, "MODULAR");
+		assertEquals("wrong reasoner name", "Taxonomy", modular.getReasonerName());
+		compare(modular);
+	}
+
+	@Test
+	public void aboxInconsistencyTest() {
+		OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+		OWLDataProperty property = df.getOWLDataProperty(IRI.create("http://example.org/p"));
+		OWLNamedIndividual individual = df.getOWLNamedIndividual(IRI.create("http://example.org/a"));
+		ontology.add(df.getOWLFunctionalDataPropertyAxiom(property),
+				df.getOWLDataPropertyAssertionAxiom(property, individual, 1),
+				df.getOWLDataPropertyAssertionAxiom(property, individual, 2));
+
+		// no class module contains the assertions
+		OWLReasoner modular = new TaxonomyReasoner(ontology, new ModularClassifier(ontology, ModularClassifier.Partition.COMPONENTS, 4).classify());
+		assertFalse(modular.isConsistent());
+	}
+
+	@Test
+	public void classAssertionInconsistencyTest() {
+		OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+		OWLClass a = df.getOWLClass(IRI.create("http://example.org/A"));
+		OWLClass b = df.getOWLClass(IRI.create("http://example.org/B"));
+		OWLNamedIndividual individual = df.getOWLNamedIndividual(IRI.create("http://example.org/a"));
+		ontology.add(df.getOWLDisjointClassesAxiom(a, b),
+				df.getOWLClassAssertionAxiom(a, individual),
+				df.getOWLClassAssertionAxiom(b, individual));
+
+		OWLReasoner modular = new TaxonomyReasoner(ontology, new ModularClassifier(ontology, ModularClassifier.Partition.ROOTS, 4).classify());
+		assertFalse(modular.isConsistent());
+	}
+
+	private void compare(OWLReasoner modular) {
+		assertEquals("consistency differs", hermit.isConsistent(), modular.isConsistent());
+		assertEquals("unsatisfiable classes differ",
+				hermit.getUnsatisfiableClasses().entities().collect(Collectors.toSet()),
+				modular.getUnsatisfiableClasses().entities().collect(Collectors.toSet()));
+
+		ontology.classesInSignature().forEach(clazz -> {
+			assertEquals("direct superclasses differ for " + clazz,
+					hermit.getSuperClasses(clazz, true).getFlattened(),
+					modular.getSuperClasses(clazz, true).getFlattened());
+			assertEquals("direct subclasses differ for " + clazz,
+					hermit.getSubClasses(clazz, true).getFlattened(),
+					modular.getSubClasses(clazz, true).getFlattened());
+			assertEquals("equivalent classes differ for " + clazz,
+					new HashSet<OWLClass>(hermit.getEquivalentClasses(clazz).getEntities()),
+					new HashSet<OWLClass>(modular.getEquivalentClasses(clazz).getEntities()));
+		});
+	}
+}
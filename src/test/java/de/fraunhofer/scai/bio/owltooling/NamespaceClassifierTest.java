@@ -0,0 +1,110 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+
+public class NamespaceClassifierTest {
+
+	private final static List<String> IRIS = Arrays.asList(
+			"http://purl.obolibrary.org/obo/GO_0000001",
+			"http://purl.obolibrary.org/obo/GO_0000002",
+			"http://purl.obolibrary.org/obo/HP_0000118",
+			"http://purl.obolibrary.org/obo/NCBITaxon_9606",
+			"http://purl.obolibrary.org/obo/GO_00/01",
+			"https://bio.scai.fraunhofer.de/ontology/epilepsy#focal_seizure",
+			"https://bio.scai.fraunhofer.de/ontology/epilepsy#focal_cognitive_seizure_with_conduction_dysphasia/aphasia",
+			"https://bio.scai.fraunhofer.de/ontology/epilepsy#14Hz_and_6Hz_positive_spike",
+			"https://bio.scai.fraunhofer.de/ontology/mental_disorder#mood",
+			"https://bio.scai.fraunhofer.de/ontology/0000419",
+			"https://bio.scai.fraunhofer.de/ontology/78410c86_1712_44d7_afa8",
+			"http://www.w3.org/2002/07/owl#Thing",
+			"http://example.org/a/b",
+			"http://example.org/x/y_z");
+
+	@Test
+	public void classifyTest() {
+		Map<String, String> prefixes = new HashMap<String, String>();
+		prefixes.put("ex:", "http://example.org/");
+		prefixes.put("exa:", "http://example.org/a/");
+		prefixes.putAll(NamespaceClassifier.detectPrefixes(IRIS.stream()));
+
+		assertEquals("http://purl.obolibrary.org/obo/GO", prefixes.get("GO:"));
+		assertEquals("https://bio.scai.fraunhofer.de/ontology/epilepsy#", prefixes.get("epilepsy:"));
+
+		NamespaceClassifier classifier = new NamespaceClassifier(prefixes);
+		assertEquals("GO:", classifier.classify("http://purl.obolibrary.org/obo/GO_0000001"));
+		assertEquals("longest name space", "exa:", classifier.classify("http://example.org/a/b"));
+		assertEquals("rest is no local name", "http://example.org/x/y", classifier.classify("http://example.org/x/y_z"));
+		assertEquals("https://bio.scai.fraunhofer.de/ontology/epilepsy", classifier.classify("https://bio.scai.fraunhofer.de/ontology/epilepsy#14Hz"));
+		assertNull(classifier.classify("urn"));
+	}
+
+	@Test
+	public void sameAsPrefixManagerTest() throws OWLOntologyCreationException {
+		OntologyBuilder bob = new OntologyBuilder("https://bio.scai.fraunhofer.de/ontology/Test_");
+		for(String iri : IRIS) {
+			bob.addClassWithSuperClass(IRI.create(iri), OWLRDFVocabulary.OWL_THING.getIRI());
+		}
+		check(bob.getOntology());
+		check(OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(new File("./src/test/resources/pizza.owl")));
+	}
+
+	private static void check(OWLOntology ontology) {
+		DefaultPrefixManager pm = new DefaultPrefixManager();
+		Map<String, Integer> counts = OntologyReasoner.checkNameSpaces(ontology, pm);
+		assertEquals(reference(ontology, new DefaultPrefixManager()), counts);
+		assertTrue("prefixes not registered", pm.getPrefixName2PrefixMap().size() > new DefaultPrefixManager().getPrefixName2PrefixMap().size()
+				|| ontology.classesInSignature().noneMatch(clazz -> clazz.getIRI().toString().startsWith(NamespaceClassifier.OBO)));
+	}
+
+	/**
+	 * the former sequential counting with the prefix manager
+	 */
+	private static Map<String, Integer> reference(OWLOntology ontology, DefaultPrefixManager pm) {
+		Map<String, Integer> nameSpaces = new TreeMap<String, Integer>();
+		for(OWLClass clazz : ontology.classesInSignature().toArray(OWLClass[]::new)) {
+			String iri = clazz.getIRI().toString();
+			if(iri.startsWith(NamespaceClassifier.SCAI) && iri.contains("#")) {
+				pm.setPrefix(iri.substring(iri.indexOf("ontology/")+9, iri.indexOf("#"))+":", iri.substring(0, iri.indexOf("#")+1));
+			}
+			if(iri.startsWith(NamespaceClassifier.OBO) && iri.contains("_")) {
+				pm.setPrefix(iri.substring(iri.indexOf("obo/")+4, iri.indexOf("_"))+":", iri.substring(0, iri.indexOf("_")));
+			}
+		}
+		for(OWLClass clazz : ontology.classesInSignature().toArray(OWLClass[]::new)) {
+			String iri = clazz.getIRI().toString();
+			String key = null;
+			if(pm.getShortForm(clazz) != null && pm.getShortForm(clazz).length() < iri.length()) {
+				key = pm.getShortForm(clazz).split(":")[0]+":";
+			} else if (iri.contains("#")) {
+				key = iri.split("#")[0];
+			} else if (iri.lastIndexOf("_") > 0) {
+				key = iri.substring(0, iri.lastIndexOf("_"));
+			} else if (iri.lastIndexOf("/") > 0) {
+				key = iri.substring(0, iri.lastIndexOf("/"));
+			}
+			if(key != null) nameSpaces.merge(key, 1, Integer::sum);
+		}
+		return nameSpaces;
+	}
+}
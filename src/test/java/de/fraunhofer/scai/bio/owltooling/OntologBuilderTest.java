@@ -6,10 +6,19 @@ package de.fraunhofer.scai.bio.owltooling;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.parameters.ChangeApplied;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
 
 /**
  * @author Marc Jacobs
@@ -38,4 +47,78 @@ public class OntologBuilderTest {
     	
     	
     }
+
+    @Test
+    public void setOLSLabelTest() throws OWLOntologyCreationException {
+        OntologyBuilder bob = new OntologyBuilder("https://bio.scai.fraunhofer.de/ontology/Test_");
+        OWLClass labeled = bob.addClassWithSuperClass(IRI.create("https://bio.scai.fraunhofer.de/ontology/Test_A"), OWLRDFVocabulary.OWL_THING.getIRI());
+        OWLClass unlabeled = bob.addClassWithSuperClass(IRI.create("https://bio.scai.fraunhofer.de/ontology/Test_B"), OWLRDFVocabulary.OWL_THING.getIRI());
+        bob.addConceptLabel(labeled.getIRI(), "label A");
+
+        ChangeSummary summary = bob.setOLSLabel(Arrays.asList(labeled, unlabeled));
+
+        assertEquals("wrong class count", 1, summary.getClasses());
+        assertEquals("wrong axiom count", 1, summary.getAdded());
+        assertEquals("OLS label missing", 1, bob.getOntology().annotationAssertionAxioms(labeled.getIRI())
+                .filter(axiom -> axiom.getProperty().getIRI().equals(OntologyBuilder.OLS_LABEL)).count());
+    }
+
+    @Test
+    public void setOLSLabelInBatchTest() throws OWLOntologyCreationException {
+        OntologyBuilder bob = new OntologyBuilder("https://bio.scai.fraunhofer.de/ontology/Test_");
+
+        try (OntologyBuilder.Batch batch = bob.batch(100)) {
+            OWLClass labeled = bob.addClassWithSuperClass(IRI.create("https://bio.scai.fraunhofer.de/ontology/Test_A"), OWLRDFVocabulary.OWL_THING.getIRI());
+            bob.addConceptLabel(labeled.getIRI(), "label A");
+
+            ChangeSummary summary = bob.setOLSLabel(Arrays.asList(labeled));
+            assertEquals("buffered label not found", 1, summary.getAdded());
+            assertTrue("buffered changes not applied", batch.getApplied() > 0);
+        }
+    }
+
+    @Test
+    public void releaseInBatchTest() throws OWLOntologyCreationException {
+        OntologyBuilder bob = new OntologyBuilder("https://bio.scai.fraunhofer.de/ontology/Test_");
+
+        try (OntologyBuilder.Batch batch = bob.batch(100)) {
+            bob.addClassWithSuperClass(IRI.create("https://bio.scai.fraunhofer.de/ontology/Test_A"), OWLRDFVocabulary.OWL_THING.getIRI());
+            bob.release();
+            assertTrue("buffered changes dropped", bob.getOntology().getAxiomCount() > 0);
+        }
+    }
+
+    @Test
+    public void batchTest() throws OWLOntologyCreationException {
+        OntologyBuilder bob = new OntologyBuilder("https://bio.scai.fraunhofer.de/ontology/Test_");
+        AtomicInteger events = new AtomicInteger();
+        bob.getManager().addOntologyChangeListener(changes -> events.incrementAndGet());
+
+        try (OntologyBuilder.Batch batch = bob.batch(8)) {
+            for(int i=0; i<3; i++) {
+                bob.addClassWithSuperClass(IRI.create("https://bio.scai.fraunhofer.de/ontology/Test_" + i), OWLRDFVocabulary.OWL_THING.getIRI());
+                bob.addClassWithSuperClass(IRI.create("https://bio.scai.fraunhofer.de/ontology/Test_" + i), OWLRDFVocabulary.OWL_THING.getIRI());
+            }
+            assertEquals("applied before the threshold", 0, bob.getOntology().getAxiomCount());
+            assertEquals("duplicates not skipped", 3, batch.getDuplicates());
+
+            for(int i=3; i<10; i++) {
+                bob.addClassWithSuperClass(IRI.create("https://bio.scai.fraunhofer.de/ontology/Test_" + i), OWLRDFVocabulary.OWL_THING.getIRI());
+            }
+            assertEquals("not flushed at the threshold", 8, bob.getOntology().getAxiomCount());
+
+            // inside a batch the result only says whether the change was queued
+            OWLAnnotation comment = bob.getAnnotation(Prefixes.RDFS_COMMENT, "batched");
+            assertEquals("not queued", ChangeApplied.SUCCESSFULLY, bob.addOntologyAnnotation(comment));
+            assertEquals("queued twice", ChangeApplied.NO_OPERATION, bob.addOntologyAnnotation(comment));
+            assertEquals("applied before the threshold", 0, bob.getOntology().annotations().count());
+        }
+
+        assertEquals("axioms missing", 10, bob.getOntology().getAxiomCount());
+        assertEquals("one event per flush", 2, events.get());
+
+        // without a batch every change is applied at once
+        bob.addConceptLabel(IRI.create("https://bio.scai.fraunhofer.de/ontology/Test_0"), "zero");
+        assertEquals("label and synonym missing", 12, bob.getOntology().getAxiomCount());
+    }
 }
@@ -0,0 +1,99 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+public class OntologyContextTest {
+
+	@Test
+	public void sharedBinsTest() throws OWLOntologyCreationException {
+		OntologyContext context = new OntologyContext(OWLManager.createConcurrentOWLOntologyManager());
+		TMOntology a = new TMOntology("TM", "A", true, context);
+		TMOntology b = new TMOntology("TM", "B", true, context);
+
+		assertSame(context.getManager(), a.getBuilder().getManager());
+		assertSame(context.getManager(), b.getOntology().getOWLOntologyManager());
+		assertEquals(2, context.size());
+
+		OWLAnnotation first = a.getBuilder().getAnnotation(Prefixes.SKOS_PREF, "label", "en");
+		OWLAnnotation second = b.getBuilder().getAnnotation(Prefixes.SKOS_PREF, "label", "en");
+		assertSame("literals not shared", first.getValue(), second.getValue());
+
+		a.release();
+		assertEquals(1, context.size());
+	}
+
+	@Test
+	public void defaultContextTest() throws OWLOntologyCreationException {
+		OntologyContext context = new OntologyContext();
+		TMOntology a = new TMOntology("TM", "A", true, context);
+		TMOntology b = new TMOntology("TM", "B", true, context);
+
+		assertNotSame("bins share a manager", a.getBuilder().getManager(), b.getBuilder().getManager());
+		assertSame(context.getDataFactory(), a.getBuilder().getManager().getOWLDataFactory());
+		assertSame(context.getDataFactory(), b.getBuilder().getManager().getOWLDataFactory());
+		assertEquals(2, context.size());
+
+		OWLAnnotation first = a.getBuilder().getAnnotation(Prefixes.SKOS_PREF, "label", "en");
+		OWLAnnotation second = b.getBuilder().getAnnotation(Prefixes.SKOS_PREF, "label", "en");
+		assertSame("literals not shared", first.getValue(), second.getValue());
+
+		a.release();
+		assertEquals(1, context.size());
+		assertEquals(0, a.getBuilder().getManager().ontologies().count());
+	}
+
+	@Test
+	public void ownManagerTest() throws OWLOntologyCreationException {
+		TMOntology a = new TMOntology("TM", "A");
+		TMOntology b = new TMOntology("TM", "A");
+		assertNotSame(a.getBuilder().getManager(), b.getBuilder().getManager());
+		assertEquals(1, a.getBuilder().getManager().ontologies().count());
+	}
+
+	@Test
+	public void sameNameTest() throws OWLOntologyCreationException {
+		OntologyContext context = new OntologyContext();
+		TMOntology a = new TMOntology("TM", "A", true, context);
+		TMOntology b = new TMOntology("TM", "A", true, context);
+
+		assertEquals(a.getOntologyIRI(), b.getOntologyIRI());
+		assertNotSame("same name must not share the ontology", a.getOntology(), b.getOntology());
+		assertEquals(1, context.size());
+	}
+
+	@Test
+	public void concurrentTest() {
+		OntologyContext context = new OntologyContext();
+		List<TMOntology> bins = IntStream.range(0, 200).parallel()
+				.mapToObj(i -> {
+					try {
+						TMOntology bin = new TMOntology("TM", "BIN" + i, true, context);
+						bin.getBuilder().addConceptAnnotation(bin.getOntologyIRI(), Prefixes.SKOS_PREF, Arrays.asList(new Label("bin", "en")));
+						return bin;
+					} catch (OWLOntologyCreationException e) {
+						throw new OWLRuntimeException(e);
+					}
+				})
+				.collect(Collectors.toList());
+
+		assertEquals(200, context.size());
+		assertEquals(200, bins.stream().map(TMOntology::getOntologyIRI).distinct().count());
+		bins.forEach(bin -> assertEquals("pref and OLS label expected", 2, bin.getOntology().getAxiomCount()));
+	}
+}
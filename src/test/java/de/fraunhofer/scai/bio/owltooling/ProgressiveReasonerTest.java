@@ -0,0 +1,78 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+public class ProgressiveReasonerTest {
+
+	OWLOntology ontology = null;
+
+	@Before
+	public void initOntology() throws OWLOntologyCreationException {
+		File ontologyFile = new File("./src/test/resources/pizza.owl");
+		ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(ontologyFile);
+	}
+
+	@Test
+	public void upgradeTest() throws InterruptedException, ExecutionException {
+		OWLReasoner reasoner = OntologyReasoner.createReasoner(ontology, "PROGRESSIVE");
+		assertTrue("wrong reasoner", reasoner instanceof ProgressiveReasoner);
+		ProgressiveReasoner progressive = (ProgressiveReasoner) reasoner;
+
+		// answers are available before the classification is done
+		assertTrue(reasoner.getSubClasses(reasoner.getTopClassNode().getRepresentativeElement(), true).nodes().count() > 0);
+
+		progressive.getInferred().get();
+		assertEquals(ProgressiveReasoner.Level.INFERRED, progressive.getLevel());
+		assertEquals("HermiT", reasoner.getReasonerName());
+
+		OWLReasoner hermit = OntologyReasoner.createReasoner(ontology, "HERMIT");
+		ontology.classesInSignature().forEach(clazz ->
+			assertEquals("superclasses differ for " + clazz,
+					hermit.getSuperClasses(clazz, false).getFlattened(),
+					reasoner.getSuperClasses(clazz, false).getFlattened()));
+		assertEquals(hermit.getUnsatisfiableClasses().getEntities(), reasoner.getUnsatisfiableClasses().getEntities());
+
+		reasoner.dispose();
+	}
+
+	@Test
+	public void disposeTest() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		ProgressiveReasoner reasoner = new ProgressiveReasoner(ontology, runnable -> new Thread(() -> {
+			try {
+				started.await();
+			} catch (InterruptedException e) {
+				return;
+			}
+			runnable.run();
+		}).start());
+
+		reasoner.dispose();
+		started.countDown();
+
+		try {
+			reasoner.getInferred().get();
+		} catch (ExecutionException e) {
+			assertSame(CancellationException.class, e.getCause().getClass());
+		}
+		assertTrue(reasoner.getInferred().isCompletedExceptionally());
+		assertEquals(ProgressiveReasoner.Level.STRUCTURAL, reasoner.getLevel());
+	}
+}
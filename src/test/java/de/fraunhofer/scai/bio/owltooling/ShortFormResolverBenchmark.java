@@ -0,0 +1,93 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+/**
+ * CURIE resolutions per second of the prefix manager against the resolver, run with main from the test classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShortFormResolverBenchmark {
+
+	final static int IRIS = 10000;
+
+	final IRI[] iris = new IRI[IRIS];
+	final DefaultPrefixManager pm = new DefaultPrefixManager();
+	ShortFormResolver cached;
+	ShortFormResolver uncached;
+
+	@Setup
+	public void setup() {
+		String[] ontologies = { "GO", "HP", "DOID", "UBERON", "CHEBI", "NCBITaxon", "MONDO", "PR", "CL", "SO" };
+		for(String ontology : ontologies) {
+			pm.setPrefix(ontology + ":", NamespaceClassifier.OBO + ontology);
+		}
+		String[] scai = { "epilepsy", "mental_disorder", "alzheimer", "covid", "parkinson" };
+		for(String ontology : scai) {
+			pm.setPrefix(ontology + ":", NamespaceClassifier.SCAI + ontology + "#");
+		}
+		pm.setPrefix("skos:", "http://www.w3.org/2004/02/skos/core#");
+
+		for(int i=0; i<IRIS; i++) {
+			iris[i] = i % 2 == 0
+					? IRI.create(NamespaceClassifier.OBO + ontologies[i % ontologies.length] + "_" + String.format("%07d", i))
+					: IRI.create(NamespaceClassifier.SCAI + scai[i % scai.length] + "#concept_" + i);
+		}
+
+		cached = ShortFormResolver.of(pm);
+		uncached = new ShortFormResolver(pm, 0);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(IRIS)
+	public void prefixManager(Blackhole blackhole) {
+		for(IRI iri : iris) {
+			blackhole.consume(pm.getShortForm(iri));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(IRIS)
+	public void trie(Blackhole blackhole) {
+		for(IRI iri : iris) {
+			blackhole.consume(uncached.getShortForm(iri));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(IRIS)
+	public void cache(Blackhole blackhole) {
+		for(IRI iri : iris) {
+			blackhole.consume(cached.getShortForm(iri));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ShortFormResolverBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,138 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+public class ShortFormResolverTest {
+
+	private final static List<String> IRIS = Arrays.asList(
+			"http://purl.obolibrary.org/obo/GO_0000001",
+			"http://purl.obolibrary.org/obo/HP_0000118",
+			"http://purl.obolibrary.org/obo/GO_00/01",
+			"http://purl.obolibrary.org/obo/UBERON_0000001",
+			"https://bio.scai.fraunhofer.de/ontology/epilepsy#focal_seizure",
+			"https://bio.scai.fraunhofer.de/ontology/epilepsy#14Hz_and_6Hz_positive_spike",
+			"https://bio.scai.fraunhofer.de/ontology/epilepsy#",
+			"https://bio.scai.fraunhofer.de/ontology/0000419",
+			"http://www.w3.org/2002/07/owl#Thing",
+			"http://www.w3.org/2004/02/skos/core#exactMatch",
+			"http://example.org/a/b",
+			"http://example.org/a/b.c-d",
+			"http://example.org/a/",
+			"http://example.org/ab",
+			"http://example.org/x/y_z",
+			"urn:isbn:123");
+
+	private static void addPrefixes(DefaultPrefixManager pm) {
+		pm.setPrefix("GO:", "http://purl.obolibrary.org/obo/GO");
+		pm.setPrefix("obo:", "http://purl.obolibrary.org/obo/");
+		pm.setPrefix("epilepsy:", "https://bio.scai.fraunhofer.de/ontology/epilepsy#");
+		pm.setPrefix("skos:", "http://www.w3.org/2004/02/skos/core#");
+		pm.setPrefix("ex:", "http://example.org/");
+		pm.setPrefix("exa:", "http://example.org/a");
+		pm.setPrefix("exa2:", "http://example.org/a/");
+		pm.setPrefix("exa3:", "http://example.org/a/");
+		pm.setPrefix("pizza:", "http://www.co-ode.org/ontologies/pizza/pizza.owl#");
+		pm.setDefaultPrefix("https://bio.scai.fraunhofer.de/ontology/");
+	}
+
+	@Test
+	public void sameAsPrefixManagerTest() throws OWLOntologyCreationException {
+		DefaultPrefixManager pm = new DefaultPrefixManager();
+		addPrefixes(pm);
+		ShortFormResolver resolver = new ShortFormResolver();
+		addPrefixes(resolver);
+
+		OWLOntology pizza = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(new File("./src/test/resources/pizza.owl"));
+		List<IRI> iris = IRIS.stream().map(IRI::create).collect(Collectors.toList());
+		pizza.signature().forEach(entity -> iris.add(entity.getIRI()));
+
+		// twice to compare the cached short forms as well
+		for(int i=0; i<2; i++) {
+			for(IRI iri : iris) {
+				assertEquals(iri.toString(), pm.getPrefixIRI(iri), resolver.getPrefixIRI(iri));
+				assertEquals(iri.toString(), pm.getShortForm(iri), resolver.getShortForm(iri));
+			}
+		}
+
+		assertEquals("exa3:b", resolver.getShortForm(IRI.create("http://example.org/a/b")));
+		assertEquals("<http://example.org/x/y_z>", resolver.getShortForm(IRI.create("http://example.org/x/y_z")));
+		assertEquals("http://example.org/x/y_z", resolver.print(IRI.create("http://example.org/x/y_z")));
+	}
+
+	@Test
+	public void copyTest() {
+		DefaultPrefixManager pm = new DefaultPrefixManager();
+		addPrefixes(pm);
+		ShortFormResolver resolver = ShortFormResolver.of(pm);
+
+		assertEquals(pm.getPrefixName2PrefixMap(), resolver.getPrefixName2PrefixMap());
+		for(String iri : IRIS) {
+			assertEquals(iri, pm.getShortForm(IRI.create(iri)), resolver.getShortForm(IRI.create(iri)));
+		}
+
+		assertSame(resolver, ShortFormResolver.of(resolver));
+		assertNull(ShortFormResolver.of(null));
+	}
+
+	@Test
+	public void changeTest() {
+		ShortFormResolver resolver = new ShortFormResolver(10);
+		IRI go = IRI.create("http://purl.obolibrary.org/obo/GO_0000001");
+		assertNull(resolver.getPrefixIRI(go));
+
+		resolver.setPrefix("obo", "http://purl.obolibrary.org/obo/");
+		assertEquals("obo:GO_0000001", resolver.getPrefixIRI(go));
+		resolver.setPrefix("GO:", "http://purl.obolibrary.org/obo/GO_");
+		assertEquals("name space ending at the local name", "obo:GO_0000001", resolver.getPrefixIRI(go));
+		resolver.setPrefix("go:", "http://purl.obolibrary.org/obo/");
+		assertEquals("go:GO_0000001", resolver.getPrefixIRI(go));
+
+		resolver.unregisterNamespace("http://purl.obolibrary.org/obo/");
+		assertNull(resolver.getPrefixIRI(go));
+
+		resolver.setDefaultPrefix("http://purl.obolibrary.org/obo/");
+		assertEquals(":GO_0000001", resolver.getPrefixIRI(go));
+		resolver.setDefaultPrefix(null);
+		assertNull(resolver.getPrefixIRI(go));
+
+		resolver.setPrefix("obo:", "http://purl.obolibrary.org/obo/");
+		resolver.clear();
+		assertNull(resolver.getPrefixIRI(go));
+		assertEquals("<http://www.w3.org/2002/07/owl#Thing>", resolver.getShortForm(IRI.create("http://www.w3.org/2002/07/owl#Thing")));
+	}
+
+	@Test
+	public void concurrentTest() {
+		ShortFormResolver resolver = new ShortFormResolver(100);
+		addPrefixes(resolver);
+
+		List<IRI> iris = new ArrayList<IRI>();
+		for(int i=0; i<10000; i++) {
+			iris.add(IRI.create("http://purl.obolibrary.org/obo/GO_" + i));
+			iris.add(IRI.create("http://example.org/a/b" + (i % 300)));
+		}
+
+		DefaultPrefixManager pm = new DefaultPrefixManager();
+		addPrefixes(pm);
+		List<String> expected = iris.stream().map(pm::getShortForm).collect(Collectors.toList());
+		assertEquals(expected, iris.parallelStream().map(resolver::getShortForm).collect(Collectors.toList()));
+	}
+}
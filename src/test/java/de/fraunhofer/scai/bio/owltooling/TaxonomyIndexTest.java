@@ -0,0 +1,72 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+public class TaxonomyIndexTest {
+
+	OWLOntology ontology = null;
+	OWLReasoner reasoner = null;
+
+	@Before
+	public void initOntology() throws OWLOntologyCreationException {
+		File ontologyFile = new File("./src/test/resources/pizza.owl");
+		ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(ontologyFile);
+		reasoner = OntologyReasoner.createReasoner(ontology, "HERMIT");
+	}
+
+	@Test
+	public void subsumptionTest() {
+		TaxonomyIndex index = TaxonomyIndex.of(reasoner);
+		List<OWLClass> classes = ontology.classesInSignature().collect(Collectors.toList());
+
+		for(OWLClass ancestor : classes) {
+			for(OWLClass clazz : classes) {
+				assertEquals(clazz + " under " + ancestor,
+						reasoner.getSubClasses(ancestor, false).containsEntity(clazz),
+						index.isDescendant(clazz, ancestor));
+			}
+		}
+	}
+
+	@Test
+	public void topBottomTest() {
+		TaxonomyIndex index = TaxonomyIndex.of(reasoner);
+		OWLClass thing = reasoner.getTopClassNode().getRepresentativeElement();
+		OWLClass nothing = reasoner.getBottomClassNode().getRepresentativeElement();
+
+		ontology.classesInSignature().filter(c -> !c.isOWLThing()).forEach(clazz -> {
+			assertTrue(index.isDescendant(clazz, thing) || !reasoner.isSatisfiable(clazz));
+			assertFalse(index.isDescendant(thing, clazz));
+		});
+		assertTrue(index.isDescendant(nothing, thing));
+		assertFalse(index.isDescendant(thing, thing));
+	}
+
+	@Test
+	public void subClassesTest() {
+		OWLReasoner taxonomy = new TaxonomyReasoner(ontology, Taxonomy.of(reasoner));
+
+		ontology.classesInSignature().forEach(clazz ->
+			assertEquals("subclasses differ for " + clazz,
+					new HashSet<OWLClass>(OntologyReasoner.checkSubClasses(clazz, reasoner, false)),
+					new HashSet<OWLClass>(OntologyReasoner.checkSubClasses(clazz, taxonomy, false))));
+	}
+}
@@ -0,0 +1,105 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+public class TaxonomySnapshotTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	OWLOntology ontology = null;
+
+	@Before
+	public void initOntology() throws OWLOntologyCreationException {
+		File ontologyFile = new File("./src/test/resources/pizza.owl");
+		ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(ontologyFile);
+	}
+
+	@Test
+	public void restoreSnapshotTest() throws IOException {
+		File snapshot = new File(folder.getRoot(), "pizza.taxonomy");
+
+		OWLReasoner hermit = OntologyReasoner.createReasoner(ontology, "HERMIT", snapshot);
+		assertEquals("wrong reasoner name", "HermiT", hermit.getReasonerName());
+		assertTrue("snapshot not written", snapshot.exists());
+
+		OWLReasoner restored = OntologyReasoner.createReasoner(ontology, "HERMIT", snapshot);
+		assertTrue("snapshot not restored", restored instanceof TaxonomyReasoner);
+
+		assertEquals("root classes differ",
+				new HashSet<OWLClass>(OntologyReasoner.getRootClasses(hermit, null, ontology, null, false)),
+				new HashSet<OWLClass>(OntologyReasoner.getRootClasses(restored, null, ontology, null, false)));
+		assertEquals("bottom classes differ",
+				new HashSet<OWLClass>(OntologyReasoner.getBottomClasses(hermit, null, ontology, null, false)),
+				new HashSet<OWLClass>(OntologyReasoner.getBottomClasses(restored, null, ontology, null, false)));
+		assertEquals("unsatisfiable classes differ",
+				OntologyReasoner.checkUnsatisfiable(hermit),
+				OntologyReasoner.checkUnsatisfiable(restored));
+
+		ontology.classesInSignature().forEach(clazz -> {
+			assertEquals("superclasses differ for " + clazz,
+					hermit.getSuperClasses(clazz, false).getFlattened(),
+					restored.getSuperClasses(clazz, false).getFlattened());
+			assertEquals("subclasses differ for " + clazz,
+					hermit.getSubClasses(clazz, true).getFlattened(),
+					restored.getSubClasses(clazz, true).getFlattened());
+			assertEquals("equivalent classes differ for " + clazz,
+					hermit.getEquivalentClasses(clazz).entities().count(),
+					restored.getEquivalentClasses(clazz).entities().count());
+		});
+	}
+
+	@Test
+	public void outdatedSnapshotTest() throws IOException {
+		File snapshot = new File(folder.getRoot(), "pizza.taxonomy");
+		OWLReasoner hermit = OntologyReasoner.createReasoner(ontology, "HERMIT");
+
+		String hash = TaxonomySnapshot.hash(ontology);
+		TaxonomySnapshot.write(Taxonomy.of(hermit), hash, "HERMIT", snapshot);
+
+		OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+		assertNotNull("snapshot not restored", TaxonomySnapshot.read(snapshot, hash, "HERMIT", df));
+
+		OWLClass clazz = df.getOWLClass(IRI.create("http://www.co-ode.org/ontologies/pizza/pizza.owl#Calzone"));
+		ontology.add(df.getOWLSubClassOfAxiom(clazz, df.getOWLThing()));
+
+		assertNull("outdated snapshot restored", TaxonomySnapshot.read(snapshot, TaxonomySnapshot.hash(ontology), "HERMIT", df));
+	}
+
+	@Test
+	public void otherReasonerTest() throws IOException {
+		File snapshot = new File(folder.getRoot(), "pizza.taxonomy");
+
+		OntologyReasoner.createReasoner(ontology, "STRUCTURAL", snapshot);
+		assertTrue("snapshot not written", snapshot.exists());
+
+		OWLReasoner hermit = OntologyReasoner.createReasoner(ontology, "HERMIT", snapshot);
+		assertEquals("told hierarchy restored for HermiT", "HermiT", hermit.getReasonerName());
+		assertTrue("snapshot not restored", OntologyReasoner.createReasoner(ontology, "HERMIT", snapshot) instanceof TaxonomyReasoner);
+
+		File[] files = folder.getRoot().listFiles();
+		assertEquals("temporary file left", 1, files.length);
+	}
+}
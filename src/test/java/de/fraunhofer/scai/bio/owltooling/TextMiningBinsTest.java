@@ -0,0 +1,127 @@
+/**
+ *
+ */
+package de.fraunhofer.scai.bio.owltooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+public class TextMiningBinsTest {
+
+	final static int LEVELS = 40;
+
+	OWLOntology ladder = null;
+	OWLClass root = null;
+
+	/**
+	 * two classes per level, both below both classes of the level above: 2^LEVELS paths
+	 */
+	@Before
+	public void initOntology() throws OWLOntologyCreationException {
+		ladder = OWLManager.createOWLOntologyManager().createOntology(IRI.create("http://example.org/ladder"));
+		OWLDataFactory df = ladder.getOWLOntologyManager().getOWLDataFactory();
+
+		root = df.getOWLClass(IRI.create("http://example.org/ladder#Root"));
+		ladder.add(df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), root.getIRI(), df.getOWLLiteral("root", "en")));
+
+		OWLClass[] above = { root };
+		for(int level=1; level<=LEVELS; level++) {
+			OWLClass[] current = new OWLClass[2];
+			for(int i=0; i<2; i++) {
+				current[i] = df.getOWLClass(IRI.create("http://example.org/ladder#C" + level + "_" + i));
+				ladder.add(df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), current[i].getIRI(), df.getOWLLiteral("c" + level + i, "en")));
+				for(OWLClass parent : above) {
+					ladder.add(df.getOWLSubClassOfAxiom(current[i], parent));
+				}
+			}
+			above = current;
+		}
+	}
+
+	@Test
+	public void sharedSubtreesTest() throws OWLOntologyCreationException {
+		OWLReasoner reasoner = OntologyReasoner.createReasoner(ladder, "STRUCTURAL");
+		TMOntology tmo = new TMOntology("TM", "ROOT");
+
+		int collapsed = OntologyReasoner.addSubclasses(reasoner, root, ladder, tmo);
+
+		int edges = 2 + 4 * (LEVELS-1);
+		assertEquals("every edge copied once", edges, tmo.getOntology().getAxiomCount(AxiomType.SUBCLASS_OF));
+		assertEquals("every label copied once", 2 * LEVELS, tmo.getOntology().getAxiomCount(AxiomType.ANNOTATION_ASSERTION));
+		assertEquals("second parents collapsed", edges - 2 * LEVELS, collapsed);
+	}
+
+	@Test
+	public void taxonomySubtreesTest() throws OWLOntologyCreationException {
+		OWLReasoner structural = OntologyReasoner.createReasoner(ladder, "STRUCTURAL");
+		TMOntology expected = new TMOntology("TM", "ROOT");
+		TMOntology actual = new TMOntology("TM", "ROOT");
+
+		int collapsed = OntologyReasoner.addSubclasses(structural, root, ladder, expected);
+		assertEquals("collapsed paths differ", collapsed,
+				OntologyReasoner.addSubclasses(new TaxonomyReasoner(ladder, Taxonomy.of(structural)), root, ladder, actual));
+		assertEquals(expected.getOntology().axioms().collect(Collectors.toSet()), actual.getOntology().axioms().collect(Collectors.toSet()));
+	}
+
+	@Test
+	public void parallelBinsTest() throws OWLOntologyCreationException {
+		OWLOntology pizza = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(new File("./src/test/resources/pizza.owl"));
+		OWLReasoner reasoner = OntologyReasoner.createReasoner(pizza, "HERMIT");
+
+		List<TMOntology> sequential = OntologyReasoner.getTextMiningOntologies(reasoner, null, pizza, false, false, "TM");
+		List<TMOntology> parallel = OntologyReasoner.getTextMiningOntologies(reasoner, null, pizza, false, false, "TM", 4);
+
+		assertTrue("no bins", sequential.size() > 0);
+		assertEquals("bins differ", sequential.size(), parallel.size());
+		for(int i=0; i<sequential.size(); i++) {
+			assertEquals("order differs", sequential.get(i).getName(), parallel.get(i).getName());
+			assertEquals("axioms differ for " + sequential.get(i).getName(),
+					sequential.get(i).getOntology().axioms().collect(Collectors.toSet()),
+					parallel.get(i).getOntology().axioms().collect(Collectors.toSet()));
+		}
+	}
+
+	/**
+	 * bins of the default context have managers of their own, building them in parallel gives the same bins
+	 */
+	@Test
+	public void parallelForestTest() throws OWLOntologyCreationException {
+		OWLOntology forest = OWLManager.createOWLOntologyManager().createOntology(IRI.create("http://example.org/forest"));
+		OWLDataFactory df = forest.getOWLOntologyManager().getOWLDataFactory();
+		for(int tree=0; tree<16; tree++) {
+			for(int i=0; i<500; i++) {
+				OWLClass clazz = df.getOWLClass(IRI.create("http://example.org/forest#T" + tree + "_" + i));
+				forest.add(df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), clazz.getIRI(), df.getOWLLiteral("t" + tree + " " + i, "en")));
+				if(i > 0) forest.add(df.getOWLSubClassOfAxiom(clazz, df.getOWLClass(IRI.create("http://example.org/forest#T" + tree + "_" + (i-1)/4))));
+			}
+		}
+		OWLReasoner reasoner = new TaxonomyReasoner(forest, Taxonomy.of(OntologyReasoner.createReasoner(forest, "STRUCTURAL")));
+
+		List<TMOntology> sequential = OntologyReasoner.getTextMiningOntologies(reasoner, null, forest, false, false, "TM", 1);
+		List<TMOntology> parallel = OntologyReasoner.getTextMiningOntologies(reasoner, null, forest, false, false, "TM", 4);
+
+		assertEquals("one bin per tree", 16, sequential.size());
+		assertEquals("bins differ", sequential.size(), parallel.size());
+		for(int i=0; i<sequential.size(); i++) {
+			assertEquals("order differs", sequential.get(i).getName(), parallel.get(i).getName());
+			assertEquals("axioms differ for " + sequential.get(i).getName(),
+					sequential.get(i).getOntology().axioms().collect(Collectors.toSet()),
+					parallel.get(i).getOntology().axioms().collect(Collectors.toSet()));
+		}
+	}
+}